@@ -2,8 +2,10 @@ package com.skillshare.platform;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class SkillSphereApplication {
 
 	public static void main(String[] args) {
@@ -0,0 +1,60 @@
+package com.skillshare.platform.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Puts the followers table on the (user_id, follower_user_id) primary key, so each user's followers are
+ * clustered together. ddl-auto=update never changes the key of an existing table (older ones are keyed by
+ * the surrogate follower_id) and creates composite keys in alphabetical column order, so this finishes
+ * the job with one ALTER, which InnoDB runs as an online rebuild.
+ * It does nothing once the key leads with user_id.
+ */
+@Component
+public class FollowersKeyMigration implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(FollowersKeyMigration.class);
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        List<String> leading = jdbcTemplate.queryForList(
+                "select column_name from information_schema.statistics where table_schema = database() " +
+                        "and table_name = 'followers' and index_name = 'PRIMARY' and seq_in_index = 1",
+                String.class);
+        if (leading.isEmpty() || leading.get(0).equalsIgnoreCase("user_id")) {
+            return;
+        }
+
+        List<String> changes = new ArrayList<>(List.of("drop primary key"));
+        if (leading.get(0).equalsIgnoreCase("follower_id")) {
+            changes.add("drop column follower_id");
+        }
+        changes.add("add primary key (user_id, follower_user_id)");
+        // The old listing indexes ended in follower_id, and the unique key is the primary key now
+        for (String index : jdbcTemplate.queryForList(
+                "select index_name from information_schema.statistics " +
+                        "where table_schema = database() and table_name = 'followers' and index_name <> 'PRIMARY' " +
+                        "group by index_name, non_unique " +
+                        "having max(column_name = 'follower_id') = 1 " +
+                        "or (non_unique = 0 and group_concat(column_name order by seq_in_index) = 'user_id,follower_user_id')",
+                String.class)) {
+            changes.add("drop index `" + index + "`");
+        }
+
+        long start = System.nanoTime();
+        jdbcTemplate.execute("alter table followers " + String.join(", ", changes));
+        logger.info("Moved followers onto the (user_id, follower_user_id) primary key in {} ms",
+                (System.nanoTime() - start) / 1_000_000);
+    }
+}
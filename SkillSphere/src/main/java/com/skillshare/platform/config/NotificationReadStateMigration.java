@@ -0,0 +1,43 @@
+package com.skillshare.platform.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Seeds read watermarks from the per-notification isRead flags the first time the application starts with
+ * an empty notification_read_state table. Each user's watermark goes just below their oldest unread
+ * notification (or to their newest one if everything is read), so no notification changes state and
+ * unread counts only have to look above it from then on.
+ */
+@Component
+public class NotificationReadStateMigration implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(NotificationReadStateMigration.class);
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        Boolean seeded = jdbcTemplate.queryForObject(
+                "select exists (select 1 from notification_read_state)", Boolean.class);
+        if (Boolean.TRUE.equals(seeded)) {
+            return;
+        }
+
+        long start = System.nanoTime();
+        int users = jdbcTemplate.update(
+                "insert ignore into notification_read_state (user_id, last_read_id) " +
+                        "select receiver_id, coalesce(min(case when is_read = false then id end) - 1, max(id)) " +
+                        "from notifications group by receiver_id");
+        if (users > 0) {
+            logger.info("Seeded notification read watermarks for {} users in {} ms", users,
+                    (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+}
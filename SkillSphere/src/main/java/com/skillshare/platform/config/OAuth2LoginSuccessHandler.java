@@ -12,6 +12,7 @@ import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -22,8 +23,11 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.util.UriComponentsBuilder;
 import java.io.IOException;
 import java.util.*;
-import java.util.stream.Collectors;
 
+/**
+ * Provisions (or finds) the local account for a GitHub/Google login and redirects to the frontend with a JWT.
+ * The handler is a shared singleton, so everything about the login in progress stays in local variables.
+ */
 @Component
 @RequiredArgsConstructor
 public class OAuth2LoginSuccessHandler extends SavedRequestAwareAuthenticationSuccessHandler {
@@ -40,107 +44,78 @@ public class OAuth2LoginSuccessHandler extends SavedRequestAwareAuthenticationSu
     @Value("${frontend.url}")
     private String frontendUrl;
 
-    String username;
-    String idAttributeKey;
+    // Role given to first-time OAuth2 users; looked up once
+    private volatile Role defaultRole;
 
     @Override
     public void onAuthenticationSuccess(HttpServletRequest request, HttpServletResponse response, Authentication authentication) throws ServletException, IOException {
         OAuth2AuthenticationToken oAuth2AuthenticationToken = (OAuth2AuthenticationToken) authentication;
-        if ("github".equals(oAuth2AuthenticationToken.getAuthorizedClientRegistrationId()) || "google".equals(oAuth2AuthenticationToken.getAuthorizedClientRegistrationId())) {
-            DefaultOAuth2User principal = (DefaultOAuth2User) authentication.getPrincipal();
-            Map<String, Object> attributes = principal.getAttributes();
-            String email = attributes.getOrDefault("email", "").toString();
-            String name = attributes.getOrDefault("name", "").toString();
-            if ("github".equals(oAuth2AuthenticationToken.getAuthorizedClientRegistrationId())) {
-                username = attributes.getOrDefault("login", "").toString();
-                idAttributeKey = "id";
-            } else if ("google".equals(oAuth2AuthenticationToken.getAuthorizedClientRegistrationId())) {
-                username = email.split("@")[0];
-                idAttributeKey = "sub";
-            } else {
-                username = "";
-                idAttributeKey = "id";
-            }
-            System.out.println("HELLO OAUTH: " + email + " : " + name + " : " + username);
+        String registrationId = oAuth2AuthenticationToken.getAuthorizedClientRegistrationId();
+        DefaultOAuth2User principal = (DefaultOAuth2User) authentication.getPrincipal();
+        Map<String, Object> attributes = principal.getAttributes();
+        String email = attributes.getOrDefault("email", "").toString();
 
-            userService.findByEmail(email)
-                    .ifPresentOrElse(user -> {
-                        DefaultOAuth2User oauthUser = new DefaultOAuth2User(
-                                List.of(new SimpleGrantedAuthority(user.getRole().getRoleName().name())),
-                                attributes,
-                                idAttributeKey
-                        );
-                        Authentication securityAuth = new OAuth2AuthenticationToken(
-                                oauthUser,
-                                List.of(new SimpleGrantedAuthority(user.getRole().getRoleName().name())),
-                                oAuth2AuthenticationToken.getAuthorizedClientRegistrationId()
-                        );
-                        SecurityContextHolder.getContext().setAuthentication(securityAuth);
-                    }, () -> {
-                        User newUser = new User();
-                        Optional<Role> userRole = roleRepository.findByRoleName(AppRole.ROLE_USER); // Fetch existing role
-                        if (userRole.isPresent()) {
-                            newUser.setRole(userRole.get()); // Set existing role
-                        } else {
-                            // Handle the case where the role is not found
-                            throw new RuntimeException("Default role not found");
-                        }
-                        newUser.setEmail(email);
-                        newUser.setUserName(username);
-                        newUser.setSignUpMethod(oAuth2AuthenticationToken.getAuthorizedClientRegistrationId());
-                        userService.registerUser(newUser);
-                        DefaultOAuth2User oauthUser = new DefaultOAuth2User(
-                                List.of(new SimpleGrantedAuthority(newUser.getRole().getRoleName().name())),
-                                attributes,
-                                idAttributeKey
-                        );
-                        Authentication securityAuth = new OAuth2AuthenticationToken(
-                                oauthUser,
-                                List.of(new SimpleGrantedAuthority(newUser.getRole().getRoleName().name())),
-                                oAuth2AuthenticationToken.getAuthorizedClientRegistrationId()
-                        );
-                        SecurityContextHolder.getContext().setAuthentication(securityAuth);
-                    });
+        String username;
+        String idAttributeKey;
+        if ("google".equals(registrationId)) {
+            username = email.split("@")[0];
+            idAttributeKey = "sub";
+        } else {
+            username = attributes.getOrDefault("login", "").toString();
+            idAttributeKey = "id";
         }
-        this.setAlwaysUseDefaultTargetUrl(true);
-
-        // JWT TOKEN LOGIC
-        DefaultOAuth2User oauth2User = (DefaultOAuth2User) authentication.getPrincipal();
-        Map<String, Object> attributes = oauth2User.getAttributes();
-
-        // Extract necessary attributes
-        String email = (String) attributes.get("email");
-        System.out.println("OAuth2LoginSuccessHandler: " + username + " : " + email);
 
-        Set<SimpleGrantedAuthority> authorities = new HashSet<>(oauth2User.getAuthorities().stream()
-                .map(authority -> new SimpleGrantedAuthority(authority.getAuthority()))
-                .collect(Collectors.toList()));
-        User user = userService.findByEmail(email).orElseThrow(
-                () -> new RuntimeException("User not found"));
-        authorities.add(new SimpleGrantedAuthority(user.getRole().getRoleName().name()));
+        User user = findOrCreateUser(email, username, registrationId);
 
-        // Create UserDetailsImpl instance
-        UserDetailsImpl userDetails = new UserDetailsImpl(
-                null,
-                username,
-                email,
-                null,
-                false,
-                null,
-                null,
-                oauth2User.getAuthorities().stream()
-                        .map(authority -> new SimpleGrantedAuthority(authority.getAuthority()))
-                        .collect(Collectors.toList())
-        );
+        List<SimpleGrantedAuthority> authorities =
+                List.of(new SimpleGrantedAuthority(user.getRole().getRoleName().name()));
+        DefaultOAuth2User oauthUser = new DefaultOAuth2User(authorities, attributes, idAttributeKey);
+        SecurityContextHolder.getContext().setAuthentication(
+                new OAuth2AuthenticationToken(oauthUser, authorities, registrationId));
 
-        // Generate JWT token
-        String jwtToken = jwtUtils.generateTokenFromUsername(userDetails);
+        // Built from the stored account so the token carries the real username, role, id and security version
+        String jwtToken = jwtUtils.generateTokenFromUsername(UserDetailsImpl.build(user));
 
-        // Redirect to the frontend with the JWT token
+        // Redirect to the frontend with the JWT token. The target is per request, so it must not go
+        // through setDefaultTargetUrl, which would be shared with every other login in flight.
         String targetUrl = UriComponentsBuilder.fromUriString(frontendUrl + "/oauth2/redirect")
                 .queryParam("token", jwtToken)
                 .build().toUriString();
-        this.setDefaultTargetUrl(targetUrl);
-        super.onAuthenticationSuccess(request, response, authentication);
+        clearAuthenticationAttributes(request);
+        getRedirectStrategy().sendRedirect(request, response, targetUrl);
+    }
+
+    private User findOrCreateUser(String email, String username, String registrationId) {
+        Optional<User> existing = userService.findByEmail(email);
+        if (existing.isPresent()) {
+            return existing.get();
+        }
+
+        User newUser = new User();
+        newUser.setRole(defaultRole());
+        newUser.setEmail(email);
+        newUser.setUserName(username);
+        newUser.setSignUpMethod(registrationId);
+        try {
+            return userService.registerUser(newUser);
+        } catch (DataIntegrityViolationException e) {
+            // A concurrent first login for the same email inserted the row first; use that one
+            return userService.findByEmail(email).orElseThrow(() -> e);
+        }
+    }
+
+    private Role defaultRole() {
+        Role role = defaultRole;
+        if (role == null) {
+            synchronized (this) {
+                role = defaultRole;
+                if (role == null) {
+                    role = roleRepository.findByRoleName(AppRole.ROLE_USER)
+                            .orElseThrow(() -> new RuntimeException("Default role not found"));
+                    defaultRole = role;
+                }
+            }
+        }
+        return role;
     }
-}
\ No newline at end of file
+}
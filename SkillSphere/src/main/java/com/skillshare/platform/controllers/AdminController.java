@@ -2,6 +2,7 @@ package com.skillshare.platform.controllers;
 import com.skillshare.platform.dtos.UserDTO;
 import com.skillshare.platform.models.Role;
 import com.skillshare.platform.models.User;
+import com.skillshare.platform.security.services.PasswordHashingRejectedException;
 import com.skillshare.platform.services.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
@@ -75,6 +76,8 @@ public class AdminController {
         try {
             userService.updatePassword(userId, password);
             return ResponseEntity.ok("Password updated");
+        } catch (PasswordHashingRejectedException e) {
+            throw e;
         } catch (RuntimeException e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
         }
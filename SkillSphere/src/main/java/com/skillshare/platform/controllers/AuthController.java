@@ -1,24 +1,41 @@
 package com.skillshare.platform.controllers;
+import com.skillshare.platform.dtos.BulkFollowOutcome;
+import com.skillshare.platform.dtos.BulkFollowRequest;
+import com.skillshare.platform.dtos.CursorPage;
+import com.skillshare.platform.dtos.FollowUserDTO;
+import com.skillshare.platform.dtos.NotificationDTO;
 import com.skillshare.platform.dtos.UserDTO;
 import com.skillshare.platform.models.*;
 import com.skillshare.platform.repositories.RoleRepository;
 import com.skillshare.platform.repositories.UserRepository;
+import com.skillshare.platform.security.jwt.JwtKeyRing;
+import com.skillshare.platform.security.jwt.JwtPrincipalResolver;
 import com.skillshare.platform.security.jwt.JwtUtils;
 import com.skillshare.platform.security.request.LoginRequest;
 import com.skillshare.platform.security.request.SignupRequest;
 import com.skillshare.platform.security.response.LoginResponse;
 import com.skillshare.platform.security.response.MessageResponse;
 import com.skillshare.platform.security.response.UserInfoResponse;
+import com.skillshare.platform.security.services.LoginAttemptThrottle;
+import com.skillshare.platform.security.services.PasswordHashingRejectedException;
+import com.skillshare.platform.security.services.TokenRevocationService;
 import com.skillshare.platform.security.services.UserDetailsImpl;
 import com.skillshare.platform.services.NotificationService;
 import com.skillshare.platform.services.TotpService;
 import com.skillshare.platform.services.UserService;
 import com.skillshare.platform.services.FollowerService;
+import com.skillshare.platform.services.RecommendationService;
 import com.skillshare.platform.util.AuthUtil;
+import com.skillshare.platform.util.KeysetCursor;
 import com.warrenstrange.googleauth.GoogleAuthenticatorKey;
+import io.jsonwebtoken.Claims;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -29,8 +46,11 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import java.io.IOException;
+import java.time.Duration;
 import java.time.LocalDate;
+import java.util.Base64;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -44,6 +64,12 @@ public class AuthController {
     @Autowired
     JwtUtils jwtUtils;
 
+    @Autowired
+    JwtKeyRing jwtKeyRing;
+
+    @Autowired
+    JwtPrincipalResolver jwtPrincipalResolver;
+
     @Autowired
     AuthenticationManager authenticationManager;
 
@@ -62,6 +88,9 @@ public class AuthController {
     @Autowired
     FollowerService followerService;
 
+    @Autowired
+    RecommendationService recommendationService;
+
     @Autowired
     AuthUtil authUtil;
 
@@ -71,19 +100,43 @@ public class AuthController {
     @Autowired
     private NotificationService notificationService;
 
+    @Autowired
+    LoginAttemptThrottle loginAttemptThrottle;
+
+    @Autowired
+    TokenRevocationService tokenRevocationService;
+
     @PostMapping("/public/signin")
-    public ResponseEntity<?> authenticateUser(@RequestBody LoginRequest loginRequest) {
+    public ResponseEntity<?> authenticateUser(@RequestBody LoginRequest loginRequest, HttpServletRequest request) {
+        // The client's address, not the proxy's: server.forward-headers-strategy resolves X-Forwarded-For
+        // from trusted proxies before the request gets here
+        String clientIp = request.getRemoteAddr();
+        long retryAfterMillis = loginAttemptThrottle.tryAcquire(loginRequest.getUsername(), clientIp);
+        if (retryAfterMillis > 0) {
+            long retryAfterSeconds = (retryAfterMillis + 999) / 1000;
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+                    .body(new MessageResponse("Too many sign-in attempts, try again in " + retryAfterSeconds + " seconds"));
+        }
+
         Authentication authentication;
         try {
             authentication = authenticationManager
                     .authenticate(new UsernamePasswordAuthenticationToken(loginRequest.getUsername(), loginRequest.getPassword()));
         } catch (AuthenticationException exception) {
+            if (exception.getCause() instanceof PasswordHashingRejectedException rejected) {
+                // An unknown username still hashes a dummy password, and the provider wraps what that throws
+                throw rejected;
+            }
+            loginAttemptThrottle.recordFailure(loginRequest.getUsername(), clientIp);
             Map<String, Object> map = new HashMap<>();
             map.put("message", "Bad credentials");
             map.put("status", false);
             return new ResponseEntity<Object>(map, HttpStatus.NOT_FOUND);
         }
 
+        loginAttemptThrottle.recordSuccess(loginRequest.getUsername(), clientIp);
+
 //      set the authentication
         SecurityContextHolder.getContext().setAuthentication(authentication);
 
@@ -153,6 +206,25 @@ public class AuthController {
     }
 
 
+    @GetMapping("/public/jwks.json")
+    public ResponseEntity<Map<String, Object>> getJwks() {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(Duration.ofMinutes(5)).cachePublic())
+                .body(jwtKeyRing.publicJwks());
+    }
+
+    @PostMapping("/logout")
+    public ResponseEntity<?> logout(HttpServletRequest request) {
+        String jwt = jwtUtils.getJwtFromHeader(request);
+        Claims claims = jwt != null ? jwtUtils.getVerifiedClaims(jwt) : null;
+        if (claims == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(new MessageResponse("User must be authenticated to log out"));
+        }
+        tokenRevocationService.revoke(claims.getId(), claims.getExpiration().toInstant());
+        return ResponseEntity.ok(new MessageResponse("Logged out successfully"));
+    }
+
     @GetMapping("/user")
     public ResponseEntity<?> getUserDetails(@AuthenticationPrincipal UserDetailsImpl userDetails) {
         User user = userService.findByUsername(userDetails.getUsername());
@@ -203,6 +275,8 @@ public class AuthController {
         try {
             userService.resetPassword(token, newPassword);
             return ResponseEntity.ok(new MessageResponse("Password reset successful"));
+        } catch (PasswordHashingRejectedException e) {
+            throw e;
         } catch (RuntimeException e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST)
                     .body(new MessageResponse(e.getMessage()));
@@ -214,11 +288,24 @@ public class AuthController {
     public ResponseEntity<String> enable2FA() {
         Long userId = authUtil.loggedInUserId();
         GoogleAuthenticatorKey secret = userService.generate2FASecret(userId);
-        String qrCodeUrl = totpService.getQrCodeUrl(secret,
+        byte[] qrCode = totpService.generateQrCode(userId, secret,
                 userService.getUserById(userId).getUserName());
+        // Returned as a data URI so the existing <img src> keeps working without an external chart service
+        String qrCodeUrl = "data:image/png;base64," + Base64.getEncoder().encodeToString(qrCode);
         return ResponseEntity.ok(qrCodeUrl);
     }
 
+    @GetMapping(value = "/2fa/qr-code", produces = MediaType.IMAGE_PNG_VALUE)
+    public ResponseEntity<byte[]> get2FAQrCode() {
+        byte[] qrCode = totpService.getCachedQrCode(authUtil.loggedInUserId());
+        if (qrCode == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noStore())
+                .body(qrCode);
+    }
+
     @PostMapping("/disable-2fa")
     public ResponseEntity<String> disable2FA() {
         Long userId = authUtil.loggedInUserId();
@@ -253,9 +340,14 @@ public class AuthController {
     @PostMapping("/public/verify-2fa-login")
     public ResponseEntity<String> verify2FALogin(@RequestParam int code,
                                                  @RequestParam String jwtToken) {
-        String username = jwtUtils.getUserNameFromJwtToken(jwtToken);
-        User user = userService.findByUsername(username);
-        boolean isValid = userService.validate2FACode(user.getUserId(), code);
+        // Same checks as a token in the Authorization header: signature, expiry, revocation, security version
+        Claims claims = jwtUtils.getVerifiedClaims(jwtToken);
+        UserDetailsImpl principal = claims != null ? jwtPrincipalResolver.resolve(claims) : null;
+        if (principal == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body("Invalid or expired token");
+        }
+        boolean isValid = userService.validate2FACode(principal.getId(), code);
         if (isValid) {
             return ResponseEntity.ok("2FA Verified");
         } else {
@@ -272,14 +364,13 @@ public class AuthController {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                     .body(new MessageResponse("User must be authenticated to follow"));
         }
-        Long followerUserId = userDetails.getId(); // Assuming UserDetailsImpl has getId()
         try {
-            Follower follower = followerService.followUser(userId, followerUserId);
-            return ResponseEntity.ok(new MessageResponse("Successfully followed user with ID: " + userId));
+            boolean followed = followerService.followUser(userId, userDetails.getId(), userDetails.getUsername());
+            return ResponseEntity.ok(new MessageResponse(followed
+                    ? "Successfully followed user with ID: " + userId
+                    : "Already following user with ID: " + userId));
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().body(new MessageResponse(e.getMessage()));
-        } catch (IllegalStateException e) {
-            return ResponseEntity.badRequest().body(new MessageResponse(e.getMessage()));
         } catch (RuntimeException e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
                     .body(new MessageResponse("User not found"));
@@ -294,18 +385,50 @@ public class AuthController {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                     .body(new MessageResponse("User must be authenticated to unfollow"));
         }
-        Long followerUserId = userDetails.getId();
         try {
-            followerService.unfollowUser(userId, followerUserId);
-            return ResponseEntity.ok(new MessageResponse("Successfully unfollowed user with ID: " + userId));
-        } catch (IllegalStateException e) {
-            return ResponseEntity.badRequest().body(new MessageResponse(e.getMessage()));
+            boolean unfollowed = followerService.unfollowUser(userId, userDetails.getId());
+            return ResponseEntity.ok(new MessageResponse(unfollowed
+                    ? "Successfully unfollowed user with ID: " + userId
+                    : "Not following user with ID: " + userId));
         } catch (RuntimeException e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
                     .body(new MessageResponse("User not found"));
         }
     }
 
+    @PostMapping("/follow/bulk")
+    public ResponseEntity<?> followUsers(
+            @RequestBody BulkFollowRequest request,
+            @AuthenticationPrincipal UserDetailsImpl userDetails) {
+        if (userDetails == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(new MessageResponse("User must be authenticated to follow"));
+        }
+        try {
+            List<BulkFollowOutcome> outcomes = followerService.followUsers(
+                    userDetails.getId(), userDetails.getUsername(), request.getUserIds());
+            return ResponseEntity.ok(outcomes);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new MessageResponse(e.getMessage()));
+        }
+    }
+
+    @PostMapping("/unfollow/bulk")
+    public ResponseEntity<?> unfollowUsers(
+            @RequestBody BulkFollowRequest request,
+            @AuthenticationPrincipal UserDetailsImpl userDetails) {
+        if (userDetails == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(new MessageResponse("User must be authenticated to unfollow"));
+        }
+        try {
+            List<BulkFollowOutcome> outcomes = followerService.unfollowUsers(userDetails.getId(), request.getUserIds());
+            return ResponseEntity.ok(outcomes);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new MessageResponse(e.getMessage()));
+        }
+    }
+
 //    @GetMapping("/followers")
 //    public ResponseEntity<?> getFollowers(@AuthenticationPrincipal UserDetailsImpl userDetails) {
 //        if (userDetails == null) {
@@ -383,6 +506,8 @@ public class AuthController {
     @GetMapping({"/followers", "/followers/{userId}"})
     public ResponseEntity<?> getFollowers(
             @PathVariable(required = false) Long userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
             @AuthenticationPrincipal UserDetailsImpl userDetails) {
 
         if (userDetails == null) {
@@ -393,39 +518,20 @@ public class AuthController {
         // Use provided userId or default to authenticated user's ID
         Long targetUserId = userId != null ? userId : userDetails.getId();
 
+        KeysetCursor after;
         try {
-            List<Follower> followers = followerService.getFollowers(targetUserId);
-            List<UserInfoResponse> followerDetails = followers.stream()
-                    .map(f -> {
-                        User user = f.getFollowerUser();
-                        UserInfoResponse response = new UserInfoResponse(
-                                user.getUserId(),
-                                user.getUserName(),
-                                user.getEmail(),
-                                user.isAccountNonLocked(),
-                                user.isAccountNonExpired(),
-                                user.isCredentialsNonExpired(),
-                                user.isEnabled(),
-                                user.getCredentialsExpiryDate(),
-                                user.getAccountExpiryDate(),
-                                user.isTwoFactorEnabled(),
-                                List.of(user.getRole().getRoleName().name()),
-                                user.getBio(),
-                                user.getProfilePicture()
-                        );
-
-                        // Check if authenticated user follows this follower
-                        User currentUser = userRepository.findById(userDetails.getId()).orElse(null);
-                        if (currentUser != null) {
-                            boolean isFollowed = followerService.getFollowing(userDetails.getId()).stream()
-                                    .anyMatch(following -> following.getUser().getUserId().equals(user.getUserId()));
-                            response.setFollowed(isFollowed);
-                        }
-
-                        return response;
-                    })
-                    .collect(Collectors.toList());
-            return ResponseEntity.ok(followerDetails);
+            after = KeysetCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new MessageResponse(e.getMessage()));
+        }
+
+        try {
+            CursorPage<FollowUserDTO> page = followerService.getFollowerDetails(targetUserId, userDetails.getId(), after, limit);
+            ResponseEntity.BodyBuilder ok = ResponseEntity.ok();
+            if (page.nextCursor() != null) {
+                ok.header(CursorPage.NEXT_CURSOR_HEADER, page.nextCursor());
+            }
+            return ok.body(page.items());
         } catch (RuntimeException e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
                     .body(new MessageResponse("User not found"));
@@ -435,6 +541,8 @@ public class AuthController {
     @GetMapping({"/following", "/following/{userId}"})
     public ResponseEntity<?> getFollowing(
             @PathVariable(required = false) Long userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
             @AuthenticationPrincipal UserDetailsImpl userDetails) {
 
         if (userDetails == null) {
@@ -445,45 +553,116 @@ public class AuthController {
         // Use provided userId or default to authenticated user's ID
         Long targetUserId = userId != null ? userId : userDetails.getId();
 
+        KeysetCursor after;
+        try {
+            after = KeysetCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new MessageResponse(e.getMessage()));
+        }
+
+        try {
+            CursorPage<FollowUserDTO> page = followerService.getFollowingDetails(targetUserId, userDetails.getId(), after, limit);
+            ResponseEntity.BodyBuilder ok = ResponseEntity.ok();
+            if (page.nextCursor() != null) {
+                ok.header(CursorPage.NEXT_CURSOR_HEADER, page.nextCursor());
+            }
+            return ok.body(page.items());
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(new MessageResponse("User not found"));
+        }
+    }
+
+    // Users the caller follows who follow them back
+    @GetMapping("/mutuals")
+    public ResponseEntity<?> getMutualFollows(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            @AuthenticationPrincipal UserDetailsImpl userDetails) {
+        if (userDetails == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(new MessageResponse("User must be authenticated to view mutual follows"));
+        }
+        try {
+            return intersectionResponse(followerService.getMutualFollows(userDetails.getId(), idCursor(cursor), limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new MessageResponse(e.getMessage()));
+        }
+    }
+
+    // Users both the caller and userId follow
+    @GetMapping("/common-following/{userId}")
+    public ResponseEntity<?> getCommonFollowing(
+            @PathVariable Long userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            @AuthenticationPrincipal UserDetailsImpl userDetails) {
+        if (userDetails == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(new MessageResponse("User must be authenticated to view common follows"));
+        }
+        try {
+            return intersectionResponse(followerService.getCommonFollowing(userDetails.getId(), userId, idCursor(cursor), limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new MessageResponse(e.getMessage()));
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(new MessageResponse("User not found"));
+        }
+    }
+
+    // userId's followers whom the caller follows
+    @GetMapping("/followers-you-know/{userId}")
+    public ResponseEntity<?> getFollowersYouKnow(
+            @PathVariable Long userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            @AuthenticationPrincipal UserDetailsImpl userDetails) {
+        if (userDetails == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(new MessageResponse("User must be authenticated to view followers you know"));
+        }
         try {
-            List<Follower> followingList = followerService.getFollowing(targetUserId); // Renamed variable
-            List<UserInfoResponse> followingDetails = followingList.stream()
-                    .map(f -> {
-                        User user = f.getUser();
-                        UserInfoResponse response = new UserInfoResponse(
-                                user.getUserId(),
-                                user.getUserName(),
-                                user.getEmail(),
-                                user.isAccountNonLocked(),
-                                user.isAccountNonExpired(),
-                                user.isCredentialsNonExpired(),
-                                user.isEnabled(),
-                                user.getCredentialsExpiryDate(),
-                                user.getAccountExpiryDate(),
-                                user.isTwoFactorEnabled(),
-                                List.of(user.getRole().getRoleName().name()),
-                                user.getBio(),
-                                user.getProfilePicture()
-                        );
-
-                        // Check if authenticated user follows this user
-                        User currentUser = userRepository.findById(userDetails.getId()).orElse(null);
-                        if (currentUser != null) {
-                            boolean isFollowed = followerService.getFollowing(userDetails.getId()).stream()
-                                    .anyMatch(following -> following.getUser().getUserId().equals(user.getUserId()));
-                            response.setFollowed(isFollowed);
-                        }
-
-                        return response;
-                    })
-                    .collect(Collectors.toList());
-            return ResponseEntity.ok(followingDetails);
+            return intersectionResponse(followerService.getFollowersYouKnow(userDetails.getId(), userId, idCursor(cursor), limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new MessageResponse(e.getMessage()));
         } catch (RuntimeException e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
                     .body(new MessageResponse("User not found"));
         }
     }
 
+    // Intersection listings page by user id, so their cursor is simply the last id returned
+    private static long idCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0L;
+        }
+        try {
+            return Long.parseLong(cursor);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    private static ResponseEntity<?> intersectionResponse(CursorPage<FollowUserDTO> page) {
+        ResponseEntity.BodyBuilder ok = ResponseEntity.ok();
+        if (page.nextCursor() != null) {
+            ok.header(CursorPage.NEXT_CURSOR_HEADER, page.nextCursor());
+        }
+        return ok.body(page.items());
+    }
+
+    @GetMapping("/recommendations")
+    public ResponseEntity<?> getRecommendations(
+            @RequestParam(required = false) Integer limit,
+            @AuthenticationPrincipal UserDetailsImpl userDetails) {
+        if (userDetails == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(new MessageResponse("User must be authenticated to view recommendations"));
+        }
+        return ResponseEntity.ok(recommendationService.getRecommendations(userDetails.getId(), limit));
+    }
+
     @GetMapping("/profiles")
     public ResponseEntity<?> getAllPublicProfiles(
             @AuthenticationPrincipal UserDetailsImpl userDetails) {
@@ -580,44 +759,28 @@ public class AuthController {
     }
 
     @GetMapping("/notifications")
-    public ResponseEntity<?> getUserNotifications(@AuthenticationPrincipal UserDetailsImpl userDetails) {
+    public ResponseEntity<?> getUserNotifications(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            @AuthenticationPrincipal UserDetailsImpl userDetails) {
         if (userDetails == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                     .body(new MessageResponse("User must be authenticated"));
         }
 
+        KeysetCursor before;
         try {
-            // Get notifications from service
-            List<Notification> notifications = notificationService.getNotificationsForUser(userDetails.getId());
-
-            // Convert to simple maps to avoid serialization issues
-            List<Map<String, Object>> notificationData = notifications.stream()
-                    .map(n -> {
-                        Map<String, Object> data = new HashMap<>();
-                        data.put("id", n.getId());
-                        data.put("message", n.getMessage());
-                        data.put("isRead", n.isRead());
-                        data.put("createdAt", n.getCreatedAt());
-                        data.put("type", n.getType());
-
-                        // Only include essential sender information to avoid circular references
-                        if (n.getSender() != null) {
-                            Map<String, Object> sender = new HashMap<>();
-                            sender.put("id", n.getSender().getUserId());
-                            sender.put("username", n.getSender().getUserName());
-                            data.put("sender", sender);
-                        }
-
-                        return data;
-                    })
-                    .collect(Collectors.toList());
-
-            return ResponseEntity.ok(notificationData);
-        } catch (Exception e) {
-            e.printStackTrace();
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(new MessageResponse("Error retrieving notifications: " + e.getMessage()));
+            before = KeysetCursor.decode(cursor, KeysetCursor.END);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new MessageResponse(e.getMessage()));
+        }
+
+        CursorPage<NotificationDTO> page = notificationService.getNotifications(userDetails.getId(), before, limit);
+        ResponseEntity.BodyBuilder ok = ResponseEntity.ok();
+        if (page.nextCursor() != null) {
+            ok.header(CursorPage.NEXT_CURSOR_HEADER, page.nextCursor());
         }
+        return ok.body(page.items());
     }
 
     @GetMapping("/notifications/count")
@@ -632,6 +795,38 @@ public class AuthController {
         return ResponseEntity.ok(Map.of("count", count));
     }
 
+    // Pushes "notification" events (the event id is the notification id) and "unread-count" events, with
+    // periodic heartbeat comments in between. A reconnecting client's Last-Event-ID replays what it missed; "resync" means it
+    // missed too much and should reload the feed.
+    @GetMapping(value = "/notifications/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamNotifications(
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId,
+            @AuthenticationPrincipal UserDetailsImpl userDetails) {
+        if (userDetails == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+
+        Long resumeAfter = null;
+        if (lastEventId != null && !lastEventId.isBlank()) {
+            try {
+                resumeAfter = Long.parseLong(lastEventId.trim());
+            } catch (NumberFormatException e) {
+                return ResponseEntity.badRequest().build();
+            }
+        }
+
+        try {
+            return ResponseEntity.ok()
+                    // Keeps reverse proxies from buffering the stream
+                    .header("X-Accel-Buffering", "no")
+                    .body(notificationService.openStream(userDetails.getId(), resumeAfter));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "30")
+                    .build();
+        }
+    }
+
     @PutMapping("/notifications/{notificationId}/read")
     public ResponseEntity<?> markNotificationAsRead(
             @PathVariable Long notificationId,
@@ -642,7 +837,7 @@ public class AuthController {
         }
 
         try {
-            notificationService.markNotificationAsRead(notificationId);
+            notificationService.markNotificationAsRead(userDetails.getId(), notificationId);
             return ResponseEntity.ok(new MessageResponse("Notification marked as read"));
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().body(new MessageResponse(e.getMessage()));
@@ -650,13 +845,15 @@ public class AuthController {
     }
 
     @PutMapping("/notifications/read-all")
-    public ResponseEntity<?> markAllNotificationsAsRead(@AuthenticationPrincipal UserDetailsImpl userDetails) {
+    public ResponseEntity<?> markAllNotificationsAsRead(
+            @RequestParam(required = false) Long upTo,
+            @AuthenticationPrincipal UserDetailsImpl userDetails) {
         if (userDetails == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                     .body(new MessageResponse("User must be authenticated"));
         }
 
-        notificationService.markAllNotificationsAsRead(userDetails.getId());
+        notificationService.markAllNotificationsAsRead(userDetails.getId(), upTo);
         return ResponseEntity.ok(new MessageResponse("All notifications marked as read"));
     }
 
@@ -0,0 +1,9 @@
+package com.skillshare.platform.dtos;
+
+// What a bulk follow/unfollow did for one of the requested ids
+public record BulkFollowOutcome(Long userId, Status status) {
+
+    public enum Status {
+        FOLLOWED, UNFOLLOWED, ALREADY_FOLLOWING, NOT_FOLLOWING, NOT_FOUND, SELF
+    }
+}
@@ -0,0 +1,10 @@
+package com.skillshare.platform.dtos;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class BulkFollowRequest {
+    private List<Long> userIds;
+}
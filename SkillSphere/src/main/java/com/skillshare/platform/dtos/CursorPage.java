@@ -0,0 +1,10 @@
+package com.skillshare.platform.dtos;
+
+import java.util.List;
+
+// One page of a keyset-paginated listing; nextCursor is null on the last page
+public record CursorPage<T>(List<T> items, String nextCursor) {
+
+    // The body stays a plain JSON array; the cursor for the following page travels in this header
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+}
@@ -0,0 +1,41 @@
+package com.skillshare.platform.dtos;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.skillshare.platform.models.AppRole;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// One row of a follower/following listing, selected straight from the followers join without loading users
+@Data
+@NoArgsConstructor
+public class FollowUserDTO {
+    private Long id;
+    private String username;
+    private String bio;
+    private String profilePicture;
+    private String role;
+    private boolean enabled;
+    private boolean followed;
+
+    // When the follow happened; only used to build the next-page cursor
+    @JsonIgnore
+    private LocalDateTime followedAt;
+
+    // Used by the JPQL constructor expressions in FollowerRepository and UserRepository
+    public FollowUserDTO(Long id, String username, String bio, String profilePicture, AppRole role, boolean enabled) {
+        this(id, username, bio, profilePicture, role, enabled, null);
+    }
+
+    public FollowUserDTO(Long id, String username, String bio, String profilePicture, AppRole role,
+                         boolean enabled, LocalDateTime followedAt) {
+        this.id = id;
+        this.username = username;
+        this.bio = bio;
+        this.profilePicture = profilePicture;
+        this.role = role.name();
+        this.enabled = enabled;
+        this.followedAt = followedAt;
+    }
+}
@@ -0,0 +1,48 @@
+package com.skillshare.platform.dtos;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.skillshare.platform.models.Notification;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// One row of the notification feed with just enough of the sender to render it, selected in a single query
+@Data
+@NoArgsConstructor
+public class NotificationDTO {
+    private Long id;
+    private String message;
+    @JsonProperty("isRead")
+    private boolean isRead;
+    private LocalDateTime createdAt;
+    private Notification.NotificationType type;
+    // The latest actor; for a coalesced notification, actorCount says how many there were in all
+    private Sender sender;
+    private int actorCount;
+    // Usernames of up to the three latest actors, newest first
+    private List<String> sampleSenders;
+
+    public record Sender(Long id, String username) {
+    }
+
+    public NotificationDTO(Long id, String message, boolean isRead, LocalDateTime createdAt,
+                           Notification.NotificationType type, Long senderId, String senderUsername) {
+        this(id, message, isRead, createdAt, type, senderId, senderUsername, 1, null);
+    }
+
+    // Used by the JPQL constructor expressions in NotificationRepository
+    public NotificationDTO(Long id, String message, boolean isRead, LocalDateTime createdAt,
+                           Notification.NotificationType type, Long senderId, String senderUsername,
+                           int actorCount, List<String> sampleSenders) {
+        this.id = id;
+        this.message = message;
+        this.isRead = isRead;
+        this.createdAt = createdAt;
+        this.type = type;
+        this.sender = new Sender(senderId, senderUsername);
+        this.actorCount = actorCount;
+        this.sampleSenders = sampleSenders != null ? sampleSenders : List.of(senderUsername);
+    }
+}
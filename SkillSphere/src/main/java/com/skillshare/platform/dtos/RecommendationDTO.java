@@ -0,0 +1,17 @@
+package com.skillshare.platform.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RecommendationDTO {
+    private Long userId;
+    private String userName;
+    private String bio;
+    private String profilePicture;
+    // How many of the viewer's followees already follow this user
+    private int sharedFollowees;
+}
@@ -29,4 +29,6 @@ public class UserDTO {
     private LocalDateTime createdDate;
     private LocalDateTime updatedDate;
     private boolean isFollowed;
+    private long followersCount;
+    private long followingCount;
 }
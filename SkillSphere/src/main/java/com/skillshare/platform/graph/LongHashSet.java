@@ -0,0 +1,166 @@
+package com.skillshare.platform.graph;
+
+import java.util.Arrays;
+import java.util.function.LongConsumer;
+
+/**
+ * Open-addressing set of positive longs (linear probing, backward-shift deletion), so adjacency
+ * lists cost 8 bytes per slot instead of a boxed Long plus a hash node per entry. 0 marks an empty
+ * slot, which is safe because database ids start at 1. Not thread-safe; {@link SocialGraphIndex}
+ * guards every instance with its lock.
+ */
+public final class LongHashSet {
+
+    private static final long EMPTY = 0L;
+    private static final float LOAD_FACTOR = 0.7f;
+    private static final int MIN_CAPACITY = 4;
+
+    private long[] keys;
+    private int mask;
+    private int resizeAt;
+    private int size;
+
+    public LongHashSet() {
+        this(MIN_CAPACITY);
+    }
+
+    public LongHashSet(int expectedSize) {
+        allocate(tableSizeFor((int) Math.ceil(Math.max(expectedSize, 1) / LOAD_FACTOR)));
+    }
+
+    public boolean add(long key) {
+        checkKey(key);
+        if (size >= resizeAt) {
+            rehash(keys.length << 1);
+        }
+        int slot = slot(key);
+        long existing;
+        while ((existing = keys[slot]) != EMPTY) {
+            if (existing == key) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        size++;
+        return true;
+    }
+
+    public boolean contains(long key) {
+        if (key == EMPTY) {
+            return false;
+        }
+        int slot = slot(key);
+        long existing;
+        while ((existing = keys[slot]) != EMPTY) {
+            if (existing == key) {
+                return true;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return false;
+    }
+
+    public boolean remove(long key) {
+        if (key == EMPTY) {
+            return false;
+        }
+        int slot = slot(key);
+        long existing;
+        while ((existing = keys[slot]) != key) {
+            if (existing == EMPTY) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        // Shift later entries of the same probe run back into the gap so lookups never stop early
+        int gap = slot;
+        int next = (gap + 1) & mask;
+        while ((existing = keys[next]) != EMPTY) {
+            int home = slot(existing);
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                keys[gap] = existing;
+                gap = next;
+            }
+            next = (next + 1) & mask;
+        }
+        keys[gap] = EMPTY;
+        size--;
+        return true;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void forEach(LongConsumer action) {
+        for (long key : keys) {
+            if (key != EMPTY) {
+                action.accept(key);
+            }
+        }
+    }
+
+    public long[] toArray() {
+        long[] result = new long[size];
+        int i = 0;
+        for (long key : keys) {
+            if (key != EMPTY) {
+                result[i++] = key;
+            }
+        }
+        return result;
+    }
+
+    public long[] toSortedArray() {
+        long[] result = toArray();
+        Arrays.sort(result);
+        return result;
+    }
+
+    // Object header and fields plus the key table
+    long sizeInBytes() {
+        return 32L + 16L + (long) keys.length * Long.BYTES;
+    }
+
+    private int slot(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    private void rehash(int capacity) {
+        long[] old = keys;
+        allocate(capacity);
+        for (long key : old) {
+            if (key != EMPTY) {
+                int slot = slot(key);
+                while (keys[slot] != EMPTY) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = key;
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        mask = capacity - 1;
+        resizeAt = Math.min(capacity - 1, (int) (capacity * LOAD_FACTOR));
+    }
+
+    private static int tableSizeFor(int n) {
+        int capacity = Integer.highestOneBit(Math.max(n, MIN_CAPACITY) - 1) << 1;
+        return Math.max(capacity, MIN_CAPACITY);
+    }
+
+    private static void checkKey(long key) {
+        if (key <= EMPTY) {
+            throw new IllegalArgumentException("Ids must be positive: " + key);
+        }
+    }
+}
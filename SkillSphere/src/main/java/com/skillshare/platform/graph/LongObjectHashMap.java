@@ -0,0 +1,138 @@
+package com.skillshare.platform.graph;
+
+import java.util.function.Consumer;
+import java.util.function.LongFunction;
+
+/**
+ * Open-addressing map from positive long ids to values, with the same layout and rules as
+ * {@link LongHashSet}. Not thread-safe.
+ */
+final class LongObjectHashMap<V> {
+
+    private static final long EMPTY = 0L;
+    private static final float LOAD_FACTOR = 0.7f;
+
+    private long[] keys;
+    private Object[] values;
+    private int mask;
+    private int resizeAt;
+    private int size;
+
+    LongObjectHashMap() {
+        allocate(16);
+    }
+
+    @SuppressWarnings("unchecked")
+    V get(long key) {
+        if (key <= EMPTY) {
+            return null;
+        }
+        int slot = slot(key);
+        long existing;
+        while ((existing = keys[slot]) != EMPTY) {
+            if (existing == key) {
+                return (V) values[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    V computeIfAbsent(long key, LongFunction<V> factory) {
+        if (key <= EMPTY) {
+            throw new IllegalArgumentException("Ids must be positive: " + key);
+        }
+        if (size >= resizeAt) {
+            rehash(keys.length << 1);
+        }
+        int slot = slot(key);
+        long existing;
+        while ((existing = keys[slot]) != EMPTY) {
+            if (existing == key) {
+                return (V) values[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        V value = factory.apply(key);
+        keys[slot] = key;
+        values[slot] = value;
+        size++;
+        return value;
+    }
+
+    void remove(long key) {
+        if (key <= EMPTY) {
+            return;
+        }
+        int slot = slot(key);
+        long existing;
+        while ((existing = keys[slot]) != key) {
+            if (existing == EMPTY) {
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        int gap = slot;
+        int next = (gap + 1) & mask;
+        while ((existing = keys[next]) != EMPTY) {
+            int home = slot(existing);
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                keys[gap] = existing;
+                values[gap] = values[next];
+                gap = next;
+            }
+            next = (next + 1) & mask;
+        }
+        keys[gap] = EMPTY;
+        values[gap] = null;
+        size--;
+    }
+
+    int size() {
+        return size;
+    }
+
+    @SuppressWarnings("unchecked")
+    void forEachValue(Consumer<V> action) {
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != EMPTY) {
+                action.accept((V) values[i]);
+            }
+        }
+    }
+
+    // Tables only; callers add the footprint of the values themselves
+    long sizeInBytes() {
+        return 48L + 2 * 16L + (long) keys.length * (Long.BYTES + 4);
+    }
+
+    private int slot(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int slot = slot(oldKeys[i]);
+                while (keys[slot] != EMPTY) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new Object[capacity];
+        mask = capacity - 1;
+        resizeAt = (int) (capacity * LOAD_FACTOR);
+    }
+}
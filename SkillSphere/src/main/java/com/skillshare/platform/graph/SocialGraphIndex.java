@@ -0,0 +1,334 @@
+package com.skillshare.platform.graph;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongConsumer;
+
+/**
+ * The whole follow graph in memory, as primitive adjacency sets in both directions.
+ * <p>
+ * Loaded from the followers table once the application is up and then kept current by
+ * {@link #recordFollow}/{@link #recordUnfollow}, which apply only after the surrounding transaction
+ * commits. Until the first load finishes {@link #isReady()} is false and callers should ask the
+ * database instead.
+ */
+@Component
+public class SocialGraphIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(SocialGraphIndex.class);
+
+    @Autowired
+    DataSource dataSource;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Guarded by lock
+    private Graph graph = new Graph();
+    // Changes committed while a load is running; replayed onto the freshly loaded graph
+    private List<Change> pending;
+
+    private volatile boolean ready;
+
+    private final List<ChangeListener> listeners = new CopyOnWriteArrayList<>();
+
+    // Notified after each committed follow/unfollow has been applied, outside the index lock
+    @FunctionalInterface
+    public interface ChangeListener {
+        void onChange(long userId, long followerUserId, boolean follow);
+    }
+
+    private record Change(long userId, long followerUserId, boolean follow) {
+        void applyTo(Graph graph) {
+            if (follow) {
+                graph.add(userId, followerUserId);
+            } else {
+                graph.remove(userId, followerUserId);
+            }
+        }
+    }
+
+    @PostConstruct
+    void init() {
+        Gauge.builder("social.graph.edges", this, SocialGraphIndex::edgeCount).register(meterRegistry);
+        Gauge.builder("social.graph.memory", this, SocialGraphIndex::memoryFootprintBytes)
+                .baseUnit("bytes").register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        long start = System.nanoTime();
+        lock.writeLock().lock();
+        try {
+            pending = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Graph loaded = new Graph();
+        try {
+            JdbcTemplate streaming = new JdbcTemplate(dataSource);
+            // Connector/J streams rows with this fetch size instead of buffering the whole table
+            streaming.setFetchSize(Integer.MIN_VALUE);
+            streaming.query("select user_id, follower_user_id from followers",
+                    (RowCallbackHandler) rs -> loaded.add(rs.getLong(1), rs.getLong(2)));
+        } catch (RuntimeException e) {
+            logger.error("Could not load the social graph; follow checks will use the database", e);
+            lock.writeLock().lock();
+            try {
+                pending = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            return;
+        }
+
+        lock.writeLock().lock();
+        try {
+            pending.forEach(change -> change.applyTo(loaded));
+            pending = null;
+            graph = loaded;
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        logger.info("Loaded social graph: {} edges, {} bytes in {} ms", edgeCount(), memoryFootprintBytes(),
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    public void addListener(ChangeListener listener) {
+        listeners.add(listener);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public void recordFollow(long userId, long followerUserId) {
+        afterCommit(new Change(userId, followerUserId, true));
+    }
+
+    public void recordUnfollow(long userId, long followerUserId) {
+        afterCommit(new Change(userId, followerUserId, false));
+    }
+
+    public boolean isFollowing(long followerUserId, long userId) {
+        lock.readLock().lock();
+        try {
+            LongHashSet following = graph.following.get(followerUserId);
+            return following != null && following.contains(userId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int followingCount(long userId) {
+        lock.readLock().lock();
+        try {
+            LongHashSet following = graph.following.get(userId);
+            return following == null ? 0 : following.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int followerCount(long userId) {
+        lock.readLock().lock();
+        try {
+            LongHashSet followers = graph.followers.get(userId);
+            return followers == null ? 0 : followers.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Ids the user follows, as a sorted copy that callers may keep
+    public long[] following(long userId) {
+        lock.readLock().lock();
+        try {
+            LongHashSet following = graph.following.get(userId);
+            return following == null ? new long[0] : following.toSortedArray();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Ids following the user, as a sorted copy that callers may keep
+    public long[] followers(long userId) {
+        lock.readLock().lock();
+        try {
+            LongHashSet followers = graph.followers.get(userId);
+            return followers == null ? new long[0] : followers.toSortedArray();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Users the user follows who follow them back, sorted
+    public long[] mutualFollows(long userId) {
+        lock.readLock().lock();
+        try {
+            return intersect(graph.following.get(userId), graph.followers.get(userId));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Users both a and b follow, sorted
+    public long[] commonFollowing(long a, long b) {
+        lock.readLock().lock();
+        try {
+            return intersect(graph.following.get(a), graph.following.get(b));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // The user's followers whom the viewer follows, sorted
+    public long[] followersFollowedBy(long userId, long viewerId) {
+        lock.readLock().lock();
+        try {
+            return intersect(graph.followers.get(userId), graph.following.get(viewerId));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Walks the smaller set and probes the larger, so the cost follows the lower degree; only the matches are sorted
+    private static long[] intersect(LongHashSet a, LongHashSet b) {
+        if (a == null || b == null) {
+            return new long[0];
+        }
+        LongHashSet smaller = a.size() <= b.size() ? a : b;
+        LongHashSet larger = smaller == a ? b : a;
+        long[] matches = new long[smaller.size()];
+        int[] count = {0};
+        smaller.forEach(id -> {
+            if (larger.contains(id)) {
+                matches[count[0]++] = id;
+            }
+        });
+        long[] result = Arrays.copyOf(matches, count[0]);
+        Arrays.sort(result);
+        return result;
+    }
+
+    // Runs under the read lock, so the action must be quick and must not call back into the index for writes
+    public void forEachFollowing(long userId, LongConsumer action) {
+        lock.readLock().lock();
+        try {
+            LongHashSet following = graph.following.get(userId);
+            if (following != null) {
+                following.forEach(action);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long edgeCount() {
+        lock.readLock().lock();
+        try {
+            return graph.edges;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long memoryFootprintBytes() {
+        lock.readLock().lock();
+        try {
+            return graph.sizeInBytes();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void afterCommit(Change change) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(change);
+                }
+            });
+        } else {
+            apply(change);
+        }
+    }
+
+    private void apply(Change change) {
+        lock.writeLock().lock();
+        try {
+            if (pending != null) {
+                pending.add(change);
+            }
+            change.applyTo(graph);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        for (ChangeListener listener : listeners) {
+            listener.onChange(change.userId(), change.followerUserId(), change.follow());
+        }
+    }
+
+    private static final class Graph {
+        // follower -> users they follow
+        final LongObjectHashMap<LongHashSet> following = new LongObjectHashMap<>();
+        // user -> their followers
+        final LongObjectHashMap<LongHashSet> followers = new LongObjectHashMap<>();
+        long edges;
+
+        void add(long userId, long followerUserId) {
+            if (following.computeIfAbsent(followerUserId, id -> new LongHashSet()).add(userId)) {
+                followers.computeIfAbsent(userId, id -> new LongHashSet()).add(followerUserId);
+                edges++;
+            }
+        }
+
+        void remove(long userId, long followerUserId) {
+            LongHashSet out = following.get(followerUserId);
+            if (out == null || !out.remove(userId)) {
+                return;
+            }
+            if (out.isEmpty()) {
+                following.remove(followerUserId);
+            }
+            LongHashSet in = followers.get(userId);
+            if (in != null) {
+                in.remove(followerUserId);
+                if (in.isEmpty()) {
+                    followers.remove(userId);
+                }
+            }
+            edges--;
+        }
+
+        long sizeInBytes() {
+            long[] total = {following.sizeInBytes() + followers.sizeInBytes()};
+            following.forEachValue(set -> total[0] += set.sizeInBytes());
+            followers.forEachValue(set -> total[0] += set.sizeInBytes());
+            return total[0];
+        }
+    }
+}
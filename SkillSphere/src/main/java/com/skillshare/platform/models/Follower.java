@@ -1,25 +1,43 @@
 package com.skillshare.platform.models;
 
 import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
 import java.time.LocalDateTime;
 
+// Keyed by the edge itself, (user_id, follower_user_id) in that order (see FollowersKeyMigration), so InnoDB
+// clusters each user's followers together. The two secondary indexes carry every column of the row and serve
+// the time-ordered listings from either side without a table lookup.
 @Entity
-@Table(name = "followers", uniqueConstraints = @UniqueConstraint(columnNames = {"user_id", "follower_user_id"}))
+@IdClass(Follower.Key.class)
+@Table(name = "followers",
+        indexes = {
+                @Index(name = "idx_followers_user_created_follower", columnList = "user_id, created_at, follower_user_id"),
+                @Index(name = "idx_followers_follower_created_user", columnList = "follower_user_id, created_at, user_id")
+        })
 @Data
 public class Follower {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
-    private Long followerId;
-
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
 
-    @ManyToOne
+    @Id
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "follower_user_id", nullable = false)
     private User followerUser;
 
     @Column(name = "created_at", nullable = false)
     private LocalDateTime createdAt = LocalDateTime.now();
-}
\ No newline at end of file
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Long user;
+        private Long followerUser;
+    }
+}
@@ -3,13 +3,25 @@ package com.skillshare.platform.models;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 @Data
 @NoArgsConstructor
 @Entity
-@Table(name = "notifications")
+@Table(name = "notifications", indexes = {
+        // Keyset pagination of a user's feed
+        @Index(name = "idx_notifications_receiver_created", columnList = "receiver_id, created_at, id"),
+        // Unread counts above the read watermark (see NotificationReadState)
+        @Index(name = "idx_notifications_receiver_unread", columnList = "receiver_id, is_read, id"),
+        // Notifications after a given id, for the push streams (see NotificationStreams)
+        @Index(name = "idx_notifications_receiver_id", columnList = "receiver_id, id")
+})
+// Coalesced types (see NotificationType) keep one row per burst: later actors within the window fold into it,
+// updating the sender (the latest actor), actorCount, sampleSenders and message in place.
 public class Notification {
     
     @Id
@@ -36,8 +48,47 @@ public class Notification {
     
     @Column(nullable = false)
     private boolean isRead = false;
-    
+
+    @Column(name = "actor_count", columnDefinition = "integer not null default 1")
+    private int actorCount = 1;
+
+    // Usernames of up to three latest actors, newest first; null on rows inserted in bulk, whose only actor is
+    // the sender
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(name = "sample_senders")
+    private List<String> sampleSenders;
+
     public enum NotificationType {
-        FOLLOW, UNFOLLOW, COMMENT, LIKE, COURSE_PUBLISH
+        FOLLOW("started following you", true),
+        UNFOLLOW("unfollowed you", false),
+        COMMENT("commented on your post", false),
+        LIKE("liked your post", false),
+        COURSE_PUBLISH("published a new course", false);
+
+        private final String action;
+        private final boolean coalesced;
+
+        NotificationType(String action, boolean coalesced) {
+            this.action = action;
+            this.coalesced = coalesced;
+        }
+
+        // Only types whose notifications are about the receiver themselves; likes and comments would need
+        // grouping by their target too
+        public boolean isCoalesced() {
+            return coalesced;
+        }
+
+        // "alice started following you", "alice and bob ...", "alice and 12 others ..."
+        public String describe(List<String> latestActors, int actorCount) {
+            String first = latestActors.get(0);
+            if (actorCount <= 1) {
+                return first + " " + action;
+            }
+            if (actorCount == 2 && latestActors.size() > 1) {
+                return first + " and " + latestActors.get(1) + " " + action;
+            }
+            return first + " and " + (actorCount - 1) + (actorCount == 2 ? " other " : " others ") + action;
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,39 @@
+package com.skillshare.platform.models;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+// Who has already been counted in a coalesced notification, so follow/unfollow/follow churn folds into nothing.
+// Rows are only needed while their notification can still take actors and are purged after the window.
+@Entity
+@IdClass(NotificationActor.Key.class)
+@Table(name = "notification_actors",
+        indexes = @Index(name = "idx_notification_actors_created", columnList = "created_at"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NotificationActor {
+    @Id
+    @Column(name = "notification_id")
+    private Long notificationId;
+
+    @Id
+    @Column(name = "actor_id")
+    private Long actorId;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Long notificationId;
+        private Long actorId;
+    }
+}
@@ -0,0 +1,24 @@
+package com.skillshare.platform.models;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// A user's read watermark. Everything of theirs up to lastReadId counts as read and only notifications above it
+// need their own isRead flag (those read one at a time, out of order). Mark-all-read moves it to the newest id the
+// client displayed, so a row still committing below that id is the only one it can skip.
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "notification_read_state")
+public class NotificationReadState {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "last_read_id", nullable = false)
+    private long lastReadId;
+}
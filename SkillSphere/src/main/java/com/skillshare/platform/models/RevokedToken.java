@@ -0,0 +1,33 @@
+package com.skillshare.platform.models;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "revoked_tokens", indexes = {
+        @Index(name = "idx_revoked_tokens_expires_at", columnList = "expires_at"),
+        @Index(name = "idx_revoked_tokens_revoked_at", columnList = "revoked_at")
+})
+public class RevokedToken {
+
+    // The token's jti claim
+    @Id
+    @Column(name = "token_id", length = 36)
+    private String tokenId;
+
+    // Copied from the token's exp claim; the row is useless after this and gets compacted
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+
+    // When the revoking node wrote the row; other nodes poll for rows newer than their last sync.
+    // Null on rows written before the column existed, which every node loads at startup anyway.
+    @Column(name = "revoked_at")
+    private Instant revokedAt;
+}
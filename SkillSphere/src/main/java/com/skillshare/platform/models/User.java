@@ -66,6 +66,20 @@ public class User{
     private boolean isTwoFactorEnabled = false;
     private String signUpMethod;
 
+    // Bumped whenever lock/enabled/role/credential state changes; tokens carrying an older value are rejected
+    @Column(name = "security_version", nullable = false)
+    private int securityVersion = 0;
+
+    // Maintained with single-statement increments when follows change (see UserRepository.adjustFollowCounts)
+    // and repaired by FollowCountReconciler; never written through the entity
+    @Column(name = "followers_count", insertable = false, updatable = false,
+            columnDefinition = "bigint not null default 0")
+    private long followersCount;
+
+    @Column(name = "following_count", insertable = false, updatable = false,
+            columnDefinition = "bigint not null default 0")
+    private long followingCount;
+
     @ManyToOne(fetch = FetchType.EAGER, cascade = {CascadeType.MERGE})
     @JoinColumn(name = "role_id", referencedColumnName = "role_id")
     @JsonBackReference
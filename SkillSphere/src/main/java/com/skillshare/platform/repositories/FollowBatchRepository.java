@@ -0,0 +1,89 @@
+package com.skillshare.platform.repositories;
+
+import com.skillshare.platform.models.Notification;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Plain JDBC writes for bulk follow/unfollow. Inserts go out as one JDBC batch per table, which
+ * Connector/J folds into multi-row statements (rewriteBatchedStatements on the datasource URL);
+ * generated keys are never read back, so the IDENTITY ids on the entities stay as they are.
+ */
+@Repository
+public class FollowBatchRepository {
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    // Existing users among userIds, mapped to whether followerUserId already follows them
+    public Map<Long, Boolean> findFollowTargets(long followerUserId, Collection<Long> userIds) {
+        Map<Long, Boolean> targets = new HashMap<>();
+        namedParameterJdbcTemplate.query(
+                "select u.user_id, f.user_id is not null from users u " +
+                        "left join followers f on f.user_id = u.user_id and f.follower_user_id = :followerUserId " +
+                        "where u.user_id in (:userIds)",
+                new MapSqlParameterSource("followerUserId", followerUserId).addValue("userIds", userIds),
+                (RowCallbackHandler) rs -> targets.put(rs.getLong(1), rs.getBoolean(2)));
+        return targets;
+    }
+
+    // A plain INSERT: callers hold the users' follow locks, so every row is new, and a duplicate means a writer
+    // skipped the locks and should fail rather than be silently ignored
+    public void insertFollows(long followerUserId, List<Long> userIds, LocalDateTime createdAt) {
+        Timestamp timestamp = Timestamp.valueOf(createdAt);
+        jdbcTemplate.batchUpdate(
+                "insert into followers (user_id, follower_user_id, created_at) values (?, ?, ?)",
+                userIds, userIds.size(), (ps, userId) -> {
+                    ps.setLong(1, userId);
+                    ps.setLong(2, followerUserId);
+                    ps.setTimestamp(3, timestamp);
+                });
+    }
+
+    public void insertNotifications(long senderId, List<Long> receiverIds, String message,
+                                    Notification.NotificationType type, LocalDateTime createdAt) {
+        Timestamp timestamp = Timestamp.valueOf(createdAt);
+        jdbcTemplate.batchUpdate(
+                "insert into notifications (receiver_id, sender_id, message, type, created_at, is_read) " +
+                        "values (?, ?, ?, ?, ?, false)",
+                receiverIds, receiverIds.size(), (ps, receiverId) -> {
+                    ps.setLong(1, receiverId);
+                    ps.setLong(2, senderId);
+                    ps.setString(3, message);
+                    ps.setString(4, type.name());
+                    ps.setTimestamp(5, timestamp);
+                });
+        if (type.isCoalesced()) {
+            // Counts the sender in each new row, so their churn cannot fold into it again
+            namedParameterJdbcTemplate.update(
+                    "insert ignore into notification_actors (notification_id, actor_id, created_at) " +
+                            "select n.id, n.sender_id, n.created_at from notifications n " +
+                            "where n.receiver_id in (:receiverIds) and n.sender_id = :senderId " +
+                            "and n.type = :type and n.created_at = :createdAt",
+                    new MapSqlParameterSource("receiverIds", receiverIds)
+                            .addValue("senderId", senderId)
+                            .addValue("type", type.name())
+                            .addValue("createdAt", timestamp));
+        }
+    }
+
+    public int deleteFollows(long followerUserId, Collection<Long> userIds) {
+        return namedParameterJdbcTemplate.update(
+                "delete from followers where follower_user_id = :followerUserId and user_id in (:userIds)",
+                new MapSqlParameterSource("followerUserId", followerUserId).addValue("userIds", userIds));
+    }
+}
@@ -1,14 +1,92 @@
 package com.skillshare.platform.repositories;
 
+import com.skillshare.platform.dtos.FollowUserDTO;
 import com.skillshare.platform.models.Follower;
 import com.skillshare.platform.models.User;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Set;
 
-public interface FollowerRepository extends JpaRepository<Follower, Long> {
+public interface FollowerRepository extends JpaRepository<Follower, Follower.Key> {
     List<Follower> findByUser(User user);
     List<Follower> findByFollowerUser(User followerUser);
-    boolean existsByUserAndFollowerUser(User user, User followerUser);
-    void deleteByUserAndFollowerUser(User user, User followerUser);
-}
 
+    // Insert-if-absent against the (user_id, follower_user_id) unique key: 1 when the edge was created,
+    // 0 when it already existed or userId does not exist
+    @Modifying
+    @Query(value = "insert ignore into followers (user_id, follower_user_id, created_at) " +
+            "select u.user_id, :followerUserId, :createdAt from users u where u.user_id = :userId", nativeQuery = true)
+    int insertIfAbsent(@Param("userId") Long userId, @Param("followerUserId") Long followerUserId,
+                       @Param("createdAt") LocalDateTime createdAt);
+
+    @Modifying
+    @Query("delete from Follower f where f.user.userId = :userId and f.followerUser.userId = :followerUserId")
+    int deleteByKey(@Param("userId") Long userId, @Param("followerUserId") Long followerUserId);
+
+    // A page of a user's followers after the (createdAt, follower id) cursor, projected from one join without
+    // loading any entity; a range scan of idx_followers_user_created_follower
+    @Query("select new com.skillshare.platform.dtos.FollowUserDTO(" +
+            "fu.userId, fu.userName, fu.bio, fu.profilePicture, r.roleName, fu.enabled, f.createdAt) " +
+            "from Follower f join f.followerUser fu join fu.role r " +
+            "where f.user.userId = :userId and (f.createdAt > :createdAt " +
+            "or (f.createdAt = :createdAt and fu.userId > :afterUserId)) " +
+            "order by f.createdAt, fu.userId")
+    List<FollowUserDTO> findFollowersPage(@Param("userId") Long userId, @Param("createdAt") LocalDateTime createdAt,
+                                         @Param("afterUserId") Long afterUserId, Limit limit);
+
+    // A page of the users a user follows after the (createdAt, followed id) cursor, projected the same way from
+    // idx_followers_follower_created_user
+    @Query("select new com.skillshare.platform.dtos.FollowUserDTO(" +
+            "u.userId, u.userName, u.bio, u.profilePicture, r.roleName, u.enabled, f.createdAt) " +
+            "from Follower f join f.user u join u.role r " +
+            "where f.followerUser.userId = :userId and (f.createdAt > :createdAt " +
+            "or (f.createdAt = :createdAt and u.userId > :afterUserId)) " +
+            "order by f.createdAt, u.userId")
+    List<FollowUserDTO> findFollowingPage(@Param("userId") Long userId, @Param("createdAt") LocalDateTime createdAt,
+                                         @Param("afterUserId") Long afterUserId, Limit limit);
+
+    // Intersections in user id order, for when the graph index is not loaded. Each walks one user's edges in
+    // key order and checks the other side with a primary key lookup.
+
+    // Users userId follows who follow them back
+    @Query("select new com.skillshare.platform.dtos.FollowUserDTO(" +
+            "u.userId, u.userName, u.bio, u.profilePicture, r.roleName, u.enabled) " +
+            "from Follower f join f.user u join u.role r " +
+            "where f.followerUser.userId = :userId and u.userId > :afterUserId " +
+            "and exists (select 1 from Follower b where b.user.userId = :userId and b.followerUser.userId = u.userId) " +
+            "order by u.userId")
+    List<FollowUserDTO> findMutualFollows(@Param("userId") Long userId, @Param("afterUserId") Long afterUserId,
+                                          Limit limit);
+
+    // Users both viewerId and userId follow
+    @Query("select new com.skillshare.platform.dtos.FollowUserDTO(" +
+            "u.userId, u.userName, u.bio, u.profilePicture, r.roleName, u.enabled) " +
+            "from Follower f join f.user u join u.role r " +
+            "where f.followerUser.userId = :viewerId and u.userId > :afterUserId " +
+            "and exists (select 1 from Follower b where b.user.userId = u.userId and b.followerUser.userId = :userId) " +
+            "order by u.userId")
+    List<FollowUserDTO> findCommonFollowing(@Param("viewerId") Long viewerId, @Param("userId") Long userId,
+                                            @Param("afterUserId") Long afterUserId, Limit limit);
+
+    // userId's followers whom viewerId follows
+    @Query("select new com.skillshare.platform.dtos.FollowUserDTO(" +
+            "u.userId, u.userName, u.bio, u.profilePicture, r.roleName, u.enabled) " +
+            "from Follower f join f.followerUser u join u.role r " +
+            "where f.user.userId = :userId and u.userId > :afterUserId " +
+            "and exists (select 1 from Follower b where b.user.userId = u.userId and b.followerUser.userId = :viewerId) " +
+            "order by u.userId")
+    List<FollowUserDTO> findFollowersFollowedBy(@Param("userId") Long userId, @Param("viewerId") Long viewerId,
+                                                @Param("afterUserId") Long afterUserId, Limit limit);
+
+    // Which of the given users the viewer follows
+    @Query("select f.user.userId from Follower f " +
+            "where f.followerUser.userId = :viewerId and f.user.userId in :userIds")
+    Set<Long> findFollowedIdsAmong(@Param("viewerId") Long viewerId, @Param("userIds") Collection<Long> userIds);
+}
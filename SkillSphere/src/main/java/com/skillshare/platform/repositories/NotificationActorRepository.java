@@ -0,0 +1,28 @@
+package com.skillshare.platform.repositories;
+
+import com.skillshare.platform.models.NotificationActor;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface NotificationActorRepository extends JpaRepository<NotificationActor, NotificationActor.Key> {
+
+    // 0 means the actor is already counted in this notification
+    @Modifying
+    @Query(value = "insert ignore into notification_actors (notification_id, actor_id, created_at) " +
+            "values (:notificationId, :actorId, :createdAt)", nativeQuery = true)
+    int insertIfAbsent(@Param("notificationId") Long notificationId, @Param("actorId") Long actorId,
+                       @Param("createdAt") LocalDateTime createdAt);
+
+    // One chunk of rows too old to matter; called until it deletes fewer than limit
+    @Transactional
+    @Modifying
+    @Query(value = "delete from notification_actors where created_at < :before limit :limit", nativeQuery = true)
+    int deleteOlderThan(@Param("before") LocalDateTime before, @Param("limit") int limit);
+}
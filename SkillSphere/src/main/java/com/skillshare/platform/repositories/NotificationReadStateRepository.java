@@ -0,0 +1,34 @@
+package com.skillshare.platform.repositories;
+
+import com.skillshare.platform.models.NotificationReadState;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface NotificationReadStateRepository extends JpaRepository<NotificationReadState, Long> {
+
+    // Mark-all-read as one single-row upsert: the watermark moves up to the user's newest notification id no higher
+    // than upToId (the newest one the client showed) and never moves back. Ids are allocated before their rows
+    // commit, so the global max could jump past another user's, or this user's, notification still in flight.
+    // The target is one backward step on idx_notifications_receiver_id rather than a max(), which H2 answers by
+    // scanning every id in the range.
+    @Modifying
+    @Query(value = "insert into notification_read_state (user_id, last_read_id) " +
+            "values (:userId, coalesce((select n.id from notifications n " +
+            "where n.receiver_id = :userId and n.id <= :upToId order by n.receiver_id desc, n.id desc limit 1), 0)) " +
+            "on duplicate key update last_read_id = greatest(last_read_id, values(last_read_id))", nativeQuery = true)
+    int advanceTo(@Param("userId") Long userId, @Param("upToId") long upToId);
+
+    // The latest committed watermark, not the transaction's snapshot. The shared lock (FOR SHARE on MySQL) makes
+    // a concurrent advanceToLatest wait until this transaction ends.
+    @Lock(LockModeType.PESSIMISTIC_READ)
+    @Query("select rs.lastReadId from NotificationReadState rs where rs.userId = :userId")
+    Optional<Long> findLastReadIdForShare(@Param("userId") Long userId);
+}
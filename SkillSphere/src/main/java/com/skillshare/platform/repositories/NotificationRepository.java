@@ -1,13 +1,102 @@
 package com.skillshare.platform.repositories;
 
+import com.skillshare.platform.dtos.NotificationDTO;
 import com.skillshare.platform.models.Notification;
-import com.skillshare.platform.models.User;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface NotificationRepository extends JpaRepository<Notification, Long> {
-    List<Notification> findByReceiverOrderByCreatedAtDesc(User receiver);
-    long countByReceiverAndIsReadFalse(User receiver);
-}
\ No newline at end of file
+
+    // A page of a user's feed, newest first, strictly before the (createdAt, id) cursor; the sender comes from the
+    // same join, and idx_notifications_receiver_created serves both the seek and the order. A row is read when it
+    // is at or below the user's watermark or was marked read on its own.
+    @Query("select new com.skillshare.platform.dtos.NotificationDTO(" +
+            "n.id, n.message, " +
+            "case when n.isRead = true or n.id <= coalesce((select rs.lastReadId from NotificationReadState rs " +
+            "where rs.userId = :receiverId), 0) then true else false end, " +
+            "n.createdAt, n.type, s.userId, s.userName, n.actorCount, n.sampleSenders) " +
+            "from Notification n join n.sender s " +
+            "where n.receiver.userId = :receiverId and (n.createdAt < :createdAt " +
+            "or (n.createdAt = :createdAt and n.id < :id)) " +
+            "order by n.createdAt desc, n.id desc")
+    List<NotificationDTO> findPage(@Param("receiverId") Long receiverId, @Param("createdAt") LocalDateTime createdAt,
+                                   @Param("id") Long id, Limit limit);
+
+    // Everything after a given notification, plus anything created since createdSince, oldest first, for the push
+    // streams to send or replay. Ids are allocated before their rows commit, so a row below afterId can become
+    // visible after afterId was sent; the look-back by creation time picks it up.
+    @Query("select new com.skillshare.platform.dtos.NotificationDTO(" +
+            "n.id, n.message, " +
+            "case when n.isRead = true or n.id <= coalesce((select rs.lastReadId from NotificationReadState rs " +
+            "where rs.userId = :receiverId), 0) then true else false end, " +
+            "n.createdAt, n.type, s.userId, s.userName, n.actorCount, n.sampleSenders) " +
+            "from Notification n join n.sender s " +
+            "where n.receiver.userId = :receiverId and (n.id > :afterId or n.createdAt >= :createdSince) " +
+            "order by n.id")
+    List<NotificationDTO> findSince(@Param("receiverId") Long receiverId, @Param("afterId") long afterId,
+                                    @Param("createdSince") LocalDateTime createdSince, Limit limit);
+
+    @Query("select coalesce(max(n.id), 0) from Notification n where n.receiver.userId = :receiverId")
+    long findLatestId(@Param("receiverId") Long receiverId);
+
+    // findLatestId for many receivers at once, as (receiverId, latest id) rows; receivers with no notifications are absent
+    @Query("select n.receiver.userId, max(n.id) from Notification n where n.receiver.userId in :receiverIds " +
+            "group by n.receiver.userId")
+    List<Object[]> findLatestIdsByReceivers(@Param("receiverIds") Collection<Long> receiverIds);
+
+    // Unread = above the watermark and not flagged individually; a range of idx_notifications_receiver_unread
+    @Query("select count(n) from Notification n where n.receiver.userId = :receiverId and n.isRead = false " +
+            "and n.id > coalesce((select rs.lastReadId from NotificationReadState rs where rs.userId = :receiverId), 0)")
+    long countUnread(@Param("receiverId") Long receiverId);
+
+    // countUnread for many receivers at once, as (receiverId, count) rows; receivers with nothing unread are absent
+    @Query("select n.receiver.userId, count(n) from Notification n where n.receiver.userId in :receiverIds " +
+            "and n.isRead = false and n.id > coalesce((select rs.lastReadId from NotificationReadState rs " +
+            "where rs.userId = n.receiver.userId), 0) group by n.receiver.userId")
+    List<Object[]> countUnreadByReceivers(@Param("receiverIds") Collection<Long> receiverIds);
+
+    // Flags one notification as read, only if it belongs to the receiver and is still unread by countUnread's
+    // definition, so the update count says whether the unread count went down
+    @Modifying
+    @Query("update Notification n set n.isRead = true where n.id = :id and n.receiver.userId = :receiverId " +
+            "and n.isRead = false and n.id > coalesce((select rs.lastReadId from NotificationReadState rs " +
+            "where rs.userId = :receiverId), 0)")
+    int markRead(@Param("id") Long id, @Param("receiverId") Long receiverId);
+
+    boolean existsByIdAndReceiverUserId(Long id, Long receiverId);
+
+    // The newest group of a coalesced type that can still take actors: started within the window and unread
+    @Query("select n.id from Notification n where n.receiver.userId = :receiverId and n.type = :type " +
+            "and n.createdAt >= :since and n.isRead = false and n.id > coalesce((select rs.lastReadId " +
+            "from NotificationReadState rs where rs.userId = :receiverId), 0) order by n.id desc")
+    List<Long> findOpenGroupIds(@Param("receiverId") Long receiverId, @Param("type") Notification.NotificationType type,
+                                @Param("since") LocalDateTime since, Limit limit);
+
+    // Row lock on the primary key only, so concurrent folds into one group queue up without gap locks
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select n from Notification n where n.id = :id")
+    Optional<Notification> findByIdForUpdate(@Param("id") Long id);
+
+    // Already-sent notifications that changed since, for the push streams to send again
+    @Query("select new com.skillshare.platform.dtos.NotificationDTO(" +
+            "n.id, n.message, " +
+            "case when n.isRead = true or n.id <= coalesce((select rs.lastReadId from NotificationReadState rs " +
+            "where rs.userId = :receiverId), 0) then true else false end, " +
+            "n.createdAt, n.type, s.userId, s.userName, n.actorCount, n.sampleSenders) " +
+            "from Notification n join n.sender s " +
+            "where n.receiver.userId = :receiverId and n.id in :ids " +
+            "order by n.id")
+    List<NotificationDTO> findByIds(@Param("receiverId") Long receiverId, @Param("ids") Collection<Long> ids);
+}
@@ -1,8 +1,16 @@
 package com.skillshare.platform.repositories;
 
+import com.skillshare.platform.dtos.FollowUserDTO;
 import com.skillshare.platform.models.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -11,5 +19,51 @@ public interface UserRepository extends JpaRepository<User, Long> {
     Boolean existsByEmail(String email);
     Boolean existsByUserName(String username);
     Optional<User> findByEmail(String email);
-}
 
+    @Query("select u.securityVersion from User u where u.userId = :userId")
+    Optional<Integer> findSecurityVersionByUserId(@Param("userId") Long userId);
+
+    // Bulk follow and unfollow lock the users they touch, in id order, before classifying the edges between them;
+    // single follows take the same row locks through their counter update, which also runs before the edge write.
+    // Concurrent changes to the same edges then run one after the other, so what a transaction classified is still
+    // true when it writes. Run under READ COMMITTED so ids that do not exist take no gap locks.
+    @Query(value = "select user_id from users where user_id in (:userIds) order by user_id for update", nativeQuery = true)
+    List<Long> lockForFollowChange(@Param("userIds") Collection<Long> userIds);
+
+    // Both sides of a follow in one statement, so the two rows are always locked in the same (primary key) order
+    @Modifying
+    @Query("update User u set " +
+            "u.followersCount = u.followersCount + case when u.userId = :userId then :delta else 0 end, " +
+            "u.followingCount = u.followingCount + case when u.userId = :followerUserId then :delta else 0 end " +
+            "where u.userId in (:userId, :followerUserId)")
+    int adjustFollowCounts(@Param("userId") Long userId, @Param("followerUserId") Long followerUserId,
+                           @Param("delta") long delta);
+
+    // Bulk variant: each of userIds gains (or loses) one follower and followerUserId's following count moves by
+    // delta per id, again in one statement
+    @Modifying
+    @Query("update User u set " +
+            "u.followersCount = u.followersCount + case when u.userId = :followerUserId then 0 else :delta end, " +
+            "u.followingCount = u.followingCount + case when u.userId = :followerUserId then :delta * :count else 0 end " +
+            "where u.userId in :userIds or u.userId = :followerUserId")
+    int adjustFollowCounts(@Param("followerUserId") Long followerUserId, @Param("userIds") Collection<Long> userIds,
+                           @Param("delta") long delta, @Param("count") long count);
+
+    // Listing rows for users picked elsewhere (e.g. from the graph index), in id order
+    @Query("select new com.skillshare.platform.dtos.FollowUserDTO(" +
+            "u.userId, u.userName, u.bio, u.profilePicture, r.roleName, u.enabled) " +
+            "from User u join u.role r where u.userId in :userIds order by u.userId")
+    List<FollowUserDTO> findFollowUsers(@Param("userIds") Collection<Long> userIds);
+
+    @Query("select coalesce(max(u.userId), 0) from User u")
+    long findMaxUserId();
+
+    // Recounts one id range from the followers table
+    @Modifying
+    @Transactional
+    @Query(value = "update users u set " +
+            "u.followers_count = (select count(*) from followers f where f.user_id = u.user_id), " +
+            "u.following_count = (select count(*) from followers f where f.follower_user_id = u.user_id) " +
+            "where u.user_id > :fromId and u.user_id <= :toId", nativeQuery = true)
+    int recountFollowCounts(@Param("fromId") long fromId, @Param("toId") long toId);
+}
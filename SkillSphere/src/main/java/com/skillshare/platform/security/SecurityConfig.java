@@ -8,10 +8,16 @@ import com.skillshare.platform.repositories.RoleRepository;
 import com.skillshare.platform.repositories.UserRepository;
 import com.skillshare.platform.security.jwt.AuthEntryPointJwt;
 import com.skillshare.platform.security.jwt.AuthTokenFilter;
+import com.skillshare.platform.security.services.BoundedPasswordEncoder;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.DispatcherType;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Lazy;
+import org.springframework.core.annotation.Order;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.Customizer;
@@ -19,15 +25,19 @@ import org.springframework.security.config.annotation.authentication.configurati
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
+import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.security.web.csrf.CookieCsrfTokenRepository;
+import org.springframework.security.web.util.matcher.AndRequestMatcher;
+import org.springframework.security.web.util.matcher.NegatedRequestMatcher;
 
 import java.time.LocalDate;
 
 import static org.springframework.security.config.Customizer.withDefaults;
+import static org.springframework.security.web.util.matcher.AntPathRequestMatcher.antMatcher;
 
 @Configuration
 @EnableWebSecurity
@@ -43,27 +53,78 @@ public class SecurityConfig {
     @Lazy
     OAuth2LoginSuccessHandler oAuth2LoginSuccessHandler;
 
+    // 0 = calibrate against passwordHashTargetMillis at startup
+    @Value("${spring.app.passwordHashStrength:0}")
+    private int passwordHashStrength;
+
+    @Value("${spring.app.passwordHashTargetMillis:250}")
+    private long passwordHashTargetMillis;
+
+    @Value("${spring.app.passwordHashThreads:0}")
+    private int passwordHashThreads;
+
+    @Value("${spring.app.passwordHashQueueCapacity:64}")
+    private int passwordHashQueueCapacity;
+
     @Bean
     public AuthTokenFilter authenticationJwtTokenFilter() {
         return new AuthTokenFilter();
     }
 
+    // The JWT filter only runs inside the API security chain; keep Boot from also adding it to the servlet chain
+    @Bean
+    public FilterRegistrationBean<AuthTokenFilter> authenticationJwtTokenFilterRegistration(AuthTokenFilter filter) {
+        FilterRegistrationBean<AuthTokenFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.setEnabled(false);
+        return registration;
+    }
+
+    /**
+     * JSON API: authenticated by the JWT in the Authorization header only. No session, no CSRF token
+     * (there is no cookie for a forged request to ride on), no form or basic login.
+     */
     @Bean
+    @Order(1)
+    SecurityFilterChain apiSecurityFilterChain(HttpSecurity http) throws Exception {
+        http.securityMatcher(new AndRequestMatcher(
+                antMatcher("/api/**"),
+                new NegatedRequestMatcher(antMatcher("/api/csrf-token"))));
+
+        http.csrf(AbstractHttpConfigurer::disable);
+        http.cors(Customizer.withDefaults());
+        http.sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS));
+        http.requestCache(AbstractHttpConfigurer::disable);
+        http.logout(AbstractHttpConfigurer::disable);
+
+        http.authorizeHttpRequests((requests)
+                -> requests
+                .requestMatchers("/api/admin/**").hasRole("ADMIN")
+                .requestMatchers("/api/auth/public/**").permitAll()
+                // Async dispatches (e.g. a notification stream completing) belong to a request that was
+                // already authorized; the stateless chain has no security context to check them against
+                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+                .anyRequest().authenticated());
+        http.exceptionHandling(exception
+                -> exception.authenticationEntryPoint(unauthorizedHandler));
+        http.addFilterBefore(authenticationJwtTokenFilter(),
+                UsernamePasswordAuthenticationFilter.class);
+        return http.build();
+    }
+
+    // Browser side: OAuth2 login, the login page and the CSRF token endpoint
+    @Bean
+    @Order(2)
     SecurityFilterChain defaultSecurityFilterChain(HttpSecurity http) throws Exception {
         http.csrf(csrf ->
                 csrf.csrfTokenRepository(CookieCsrfTokenRepository.withHttpOnlyFalse())
-                        .ignoringRequestMatchers("/api/auth/public/**")
         );
-        //http.csrf(AbstractHttpConfigurer::disable);
 
         // Enable CORS
         http.cors(Customizer.withDefaults());
 
         http.authorizeHttpRequests((requests)
                 -> requests
-                .requestMatchers("/api/admin/**").hasRole("ADMIN")
                 .requestMatchers("/api/csrf-token").permitAll()
-                .requestMatchers("/api/auth/public/**").permitAll()
                 .requestMatchers("/oauth2/**").permitAll()
                 .anyRequest().authenticated())
                 .oauth2Login(oauth2 ->{
@@ -71,10 +132,7 @@ public class SecurityConfig {
                 });
         http.exceptionHandling(exception
                 -> exception.authenticationEntryPoint(unauthorizedHandler));
-        http.addFilterBefore(authenticationJwtTokenFilter(),
-                UsernamePasswordAuthenticationFilter.class);
         http.formLogin(withDefaults());
-        http.httpBasic(withDefaults());
         return http.build();
     }
 
@@ -85,9 +143,13 @@ public class SecurityConfig {
         return authenticationConfiguration.getAuthenticationManager();
     }
 
-    @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    @Bean(destroyMethod = "shutdown")
+    public PasswordEncoder passwordEncoder(MeterRegistry meterRegistry) {
+        int strength = passwordHashStrength > 0 ? passwordHashStrength
+                : BoundedPasswordEncoder.calibrateStrength(passwordHashTargetMillis, 10, 16);
+        int threads = passwordHashThreads > 0 ? passwordHashThreads
+                : Runtime.getRuntime().availableProcessors();
+        return new BoundedPasswordEncoder(strength, threads, passwordHashQueueCapacity, meterRegistry);
     }
 
     @Bean
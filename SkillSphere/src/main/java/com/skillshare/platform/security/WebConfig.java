@@ -1,5 +1,6 @@
 package com.skillshare.platform.security;
 
+import com.skillshare.platform.dtos.CursorPage;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -21,6 +22,7 @@ public class WebConfig implements WebMvcConfigurer {
                         .allowedOrigins(frontendUrl)
                         .allowedMethods("GET", "POST", "PUT", "DELETE", "OPTIONS")
                         .allowedHeaders("*")
+                        .exposedHeaders(CursorPage.NEXT_CURSOR_HEADER)
                         .allowCredentials(true)
                         .maxAge(3600);
             }
@@ -0,0 +1,221 @@
+package com.skillshare.platform.security.jwt;
+
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.LocatorAdapter;
+import io.jsonwebtoken.ProtectedHeader;
+import io.jsonwebtoken.UnsupportedJwtException;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Jwk;
+import io.jsonwebtoken.security.JwkSet;
+import io.jsonwebtoken.security.Jwks;
+import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.PrivateJwk;
+import io.jsonwebtoken.security.PublicJwk;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.SecretKey;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.Key;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Signing and verification keys for JWTs.
+ * <p>
+ * HS256 (the default) signs with the shared spring.app.jwtSecret exactly as before. ES256 and EdDSA
+ * sign with keys read from spring.app.jwtKeysFile, a JWK set every node shares (mounted config or a
+ * secret store), re-read every spring.app.jwtKeysReloadMs. Each key carries a {@code kid} and may carry
+ * an {@code nbf} (epoch seconds): nodes sign with the newest key of the configured algorithm whose nbf
+ * has passed, and verify with every key in the set. To rotate, add a key with an nbf at least one reload
+ * interval ahead, so every node can verify it before any node signs with it; remove the old key once
+ * jwtExpirationMs has passed since the new one took over. Public keys are published through
+ * {@link #publicJwks()}.
+ * <p>
+ * Tokens without a {@code kid} are HMAC tokens. After switching to an asymmetric algorithm they are
+ * accepted only while spring.app.jwtLegacyHmacTokens is on and spring.app.jwtLegacyHmacUntil has not
+ * passed, so the shared secret stops being able to mint tokens once existing sessions have moved over.
+ */
+@Component
+public class JwtKeyRing {
+
+    private static final Logger logger = LoggerFactory.getLogger(JwtKeyRing.class);
+
+    @Value("${spring.app.jwtSecret}")
+    private String jwtSecret;
+
+    @Value("${spring.app.jwtAlgorithm:HS256}")
+    private String algorithm;
+
+    @Value("${spring.app.jwtKeysFile:}")
+    private String keysFile;
+
+    @Value("${spring.app.jwtLegacyHmacTokens:false}")
+    private boolean legacyHmacTokens;
+
+    // ISO-8601 instant, e.g. 2026-11-01T00:00:00Z; required when jwtLegacyHmacTokens is on
+    @Value("${spring.app.jwtLegacyHmacUntil:}")
+    private String legacyHmacUntil;
+
+    private SecretKey hmacKey;
+    private Instant legacyHmacDeadline;
+    private volatile KeySet keys = new KeySet(null, Map.of());
+
+    private record SigningKey(String kid, PrivateKey privateKey) {
+    }
+
+    private record KeySet(SigningKey signingKey, Map<String, PublicKey> verificationKeys) {
+    }
+
+    @PostConstruct
+    void init() {
+        hmacKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret));
+        if (!isAsymmetric()) {
+            return;
+        }
+        if (keysFile == null || keysFile.isBlank()) {
+            throw new IllegalStateException("spring.app.jwtAlgorithm " + algorithm
+                    + " needs spring.app.jwtKeysFile so every node signs and verifies with the same keys");
+        }
+        if (legacyHmacTokens) {
+            if (legacyHmacUntil == null || legacyHmacUntil.isBlank()) {
+                throw new IllegalStateException("spring.app.jwtLegacyHmacTokens needs spring.app.jwtLegacyHmacUntil");
+            }
+            legacyHmacDeadline = Instant.parse(legacyHmacUntil.trim());
+            logger.info("Accepting tokens without a key id until {}", legacyHmacDeadline);
+        }
+        keys = load();
+        logger.info("Loaded {} JWT keys, signing with {}", keys.verificationKeys().size(), keys.signingKey().kid());
+    }
+
+    public boolean isAsymmetric() {
+        return !"HS256".equalsIgnoreCase(algorithm);
+    }
+
+    public JwtBuilder sign(JwtBuilder builder) {
+        SigningKey key = keys.signingKey();
+        if (key == null) {
+            return builder.signWith(hmacKey);
+        }
+        return builder.header().keyId(key.kid()).and()
+                .signWith(key.privateKey());
+    }
+
+    public LocatorAdapter<Key> keyLocator() {
+        return new LocatorAdapter<>() {
+            @Override
+            protected Key locate(ProtectedHeader header) {
+                String kid = header.getKeyId();
+                Key key = verificationKey(kid);
+                if (key == null) {
+                    throw new UnsupportedJwtException(kid == null
+                            ? "Tokens without a signing key id are no longer accepted"
+                            : "Unknown signing key id: " + kid);
+                }
+                return key;
+            }
+        };
+    }
+
+    /**
+     * The key that tokens signed with this kid (null for HMAC tokens) verify against right now, or {@code null}
+     * if they are no longer accepted: the key was removed from the set, or the legacy HMAC window has closed.
+     */
+    public Key verificationKey(String kid) {
+        if (kid == null) {
+            return !isAsymmetric() || acceptsLegacyHmac() ? hmacKey : null;
+        }
+        return keys.verificationKeys().get(kid);
+    }
+
+    // Picks up keys added to or removed from the shared file, and activates staged keys once their nbf passes.
+    // A file that fails to load leaves the current keys in place.
+    @Scheduled(fixedDelayString = "${spring.app.jwtKeysReloadMs:60000}",
+            initialDelayString = "${spring.app.jwtKeysReloadMs:60000}")
+    public synchronized void reload() {
+        if (!isAsymmetric()) {
+            return;
+        }
+        String previous = keys.signingKey().kid();
+        try {
+            keys = load();
+        } catch (RuntimeException e) {
+            logger.error("Keeping current JWT keys, could not reload {}: {}", keysFile, e.getMessage());
+            return;
+        }
+        if (!previous.equals(keys.signingKey().kid())) {
+            logger.info("Activated {} signing key {}", algorithm, keys.signingKey().kid());
+        }
+    }
+
+    public Map<String, Object> publicJwks() {
+        List<Map<String, Object>> published = new ArrayList<>();
+        keys.verificationKeys().forEach((kid, key) ->
+                published.add(new LinkedHashMap<>(Jwks.builder().key(key).id(kid).build())));
+        return Map.of("keys", published);
+    }
+
+    private boolean acceptsLegacyHmac() {
+        return legacyHmacDeadline != null && Instant.now().isBefore(legacyHmacDeadline);
+    }
+
+    private KeySet load() {
+        JwkSet set;
+        try {
+            set = Jwks.setParser().build().parse(Files.readString(Path.of(keysFile)));
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to read " + keysFile, e);
+        }
+
+        long now = Instant.now().getEpochSecond();
+        Map<String, PublicKey> verificationKeys = new HashMap<>();
+        SigningKey signingKey = null;
+        long signingNotBefore = Long.MIN_VALUE;
+        String curve = curve();
+        for (Jwk<?> jwk : set) {
+            String kid = jwk.getId();
+            if (kid == null) {
+                logger.warn("Ignoring a JWT key without a kid in {}", keysFile);
+                continue;
+            }
+            if (jwk instanceof PrivateJwk<?, ?, ?> privateJwk) {
+                PublicKey publicKey = (PublicKey) privateJwk.toPublicJwk().toKey();
+                verificationKeys.put(kid, publicKey);
+                long notBefore = jwk.get("nbf") instanceof Number number ? number.longValue() : 0;
+                // Ties go to the greater kid, so every node picks the same key
+                boolean newer = notBefore > signingNotBefore
+                        || notBefore == signingNotBefore && kid.compareTo(signingKey.kid()) > 0;
+                if (notBefore <= now && newer && curve.equals(jwk.get("crv"))) {
+                    signingKey = new SigningKey(kid, (PrivateKey) privateJwk.toKey());
+                    signingNotBefore = notBefore;
+                }
+            } else if (jwk instanceof PublicJwk<?> publicJwk) {
+                verificationKeys.put(kid, (PublicKey) publicJwk.toKey());
+            }
+        }
+        if (signingKey == null) {
+            throw new IllegalStateException("No active " + algorithm + " private key in " + keysFile);
+        }
+        return new KeySet(signingKey, Map.copyOf(verificationKeys));
+    }
+
+    private String curve() {
+        return switch (algorithm.toUpperCase()) {
+            case "ES256" -> "P-256";
+            case "EDDSA" -> "Ed25519";
+            default -> throw new IllegalStateException("Unsupported spring.app.jwtAlgorithm: " + algorithm);
+        };
+    }
+}
@@ -0,0 +1,79 @@
+package com.skillshare.platform.security.jwt;
+
+import com.skillshare.platform.security.services.TokenRevocationService;
+import com.skillshare.platform.security.services.UserDetailsImpl;
+import com.skillshare.platform.security.services.UserDetailsServiceImpl;
+import com.skillshare.platform.security.services.UserSecurityVersionService;
+import io.jsonwebtoken.Claims;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Turns the claims of a verified token into the user it stands for, or null if the token was revoked
+ * or the user's security version has moved on. Anything that accepts a token outside the Authorization
+ * header must go through here too, not just through signature verification.
+ */
+@Component
+public class JwtPrincipalResolver {
+
+    private static final Logger logger = LoggerFactory.getLogger(JwtPrincipalResolver.class);
+
+    @Autowired
+    private UserDetailsServiceImpl userDetailsService;
+
+    @Autowired
+    private UserSecurityVersionService securityVersionService;
+
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+
+    @Value("${spring.app.jwtStatelessPrincipal:true}")
+    private boolean statelessPrincipal;
+
+    public UserDetailsImpl resolve(Claims claims) {
+        String username = claims.getSubject();
+        if (tokenRevocationService.isRevoked(claims.getId())) {
+            logger.debug("Rejecting revoked token {} for {}", claims.getId(), username);
+            return null;
+        }
+
+        Long userId = claims.get("uid", Long.class);
+        Integer securityVersion = claims.get("sv", Integer.class);
+
+        // Tokens issued before uid/sv were added (or with the mode switched off) still go through the database
+        if (!statelessPrincipal || userId == null || securityVersion == null) {
+            try {
+                return (UserDetailsImpl) userDetailsService.loadUserByUsername(username);
+            } catch (UsernameNotFoundException e) {
+                logger.debug("Rejecting token for deleted user {}", username);
+                return null;
+            }
+        }
+
+        if (!securityVersionService.isCurrent(userId, securityVersion)) {
+            logger.debug("Rejecting token for {}: security version {} is stale", username, securityVersion);
+            return null;
+        }
+
+        String roles = claims.get("roles", String.class);
+        List<GrantedAuthority> authorities = roles == null || roles.isEmpty() ? List.of() :
+                Arrays.stream(roles.split(","))
+                        .map(role -> (GrantedAuthority) new SimpleGrantedAuthority(role))
+                        .toList();
+        Boolean is2faEnabled = claims.get("is2faEnabled", Boolean.class);
+
+        UserDetailsImpl userDetails = new UserDetailsImpl(userId, username, null, null,
+                Boolean.TRUE.equals(is2faEnabled), null, null, authorities);
+        userDetails.setSecurityVersion(securityVersion);
+        return userDetails;
+    }
+}
@@ -2,28 +2,77 @@ package com.skillshare.platform.security.jwt;
 
 import com.skillshare.platform.security.services.UserDetailsImpl;
 import io.jsonwebtoken.*;
-import io.jsonwebtoken.io.Decoders;
-import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
 import jakarta.servlet.http.HttpServletRequest;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
-import javax.crypto.SecretKey;
+
 import java.security.Key;
 import java.util.Date;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.stream.Collectors;
 
 @Component
 public class JwtUtils {
     private static final Logger logger = LoggerFactory.getLogger(JwtUtils.class);
 
-    @Value("${spring.app.jwtSecret}")
-    private String jwtSecret;
-
     @Value("${spring.app.jwtExpirationMs}")
     private int jwtExpirationMs;
 
+    @Value("${spring.app.jwtCacheMaxSize:10000}")
+    private int jwtCacheMaxSize;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private JwtKeyRing keyRing;
+
+    // Built once; resolves the verification key per token through the key ring and is safe to share across threads
+    private JwtParser jwtParser;
+
+    // Tokens whose signature has already been checked, keyed by the raw compact string
+    private final Map<String, Verified> verifiedTokens = new ConcurrentHashMap<>();
+    private final AtomicBoolean evicting = new AtomicBoolean();
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder cacheMisses = new LongAdder();
+    private Timer verifyTimer;
+
+    // The key a cached token was verified with; a hit counts only while the key ring still verifies its kid with
+    // that key, so removing a key or closing the legacy HMAC window also rejects tokens already in the cache
+    private record Verified(Claims claims, String kid, Key key) {
+    }
+
+    @PostConstruct
+    void init() {
+        jwtParser = Jwts.parser().keyLocator(keyRing.keyLocator()).build();
+
+        FunctionCounter.builder("jwt.verify.cache", cacheHits, LongAdder::sum)
+                .tag("result", "hit")
+                .register(meterRegistry);
+        FunctionCounter.builder("jwt.verify.cache", cacheMisses, LongAdder::sum)
+                .tag("result", "miss")
+                .register(meterRegistry);
+        Gauge.builder("jwt.verify.cache.size", verifiedTokens, Map::size)
+                .register(meterRegistry);
+        verifyTimer = Timer.builder("jwt.verify.signature")
+                .description("Time spent parsing and signature-checking tokens not found in the cache")
+                .register(meterRegistry);
+    }
+
     public String getJwtFromHeader(HttpServletRequest request) {
         String bearerToken = request.getHeader("Authorization");
         logger.debug("Authorization Header: {}", bearerToken);
@@ -38,32 +87,33 @@ public class JwtUtils {
         String roles = userDetails.getAuthorities().stream()
                 .map(authority -> authority.getAuthority())
                 .collect(Collectors.joining(","));
-        return Jwts.builder()
+        JwtBuilder builder = Jwts.builder()
+                .id(UUID.randomUUID().toString())
                 .subject(username)
                 .claim("roles", roles)
                 .claim("is2faEnabled", userDetails.is2faEnabled())
+                .claim("uid", userDetails.getId())
+                .claim("sv", userDetails.getId() != null ? userDetails.getSecurityVersion() : null)
                 .issuedAt(new Date())
-                .expiration(new Date((new Date()).getTime() + jwtExpirationMs))
-                .signWith(key())
-                .compact();
+                .expiration(new Date((new Date()).getTime() + jwtExpirationMs));
+        return keyRing.sign(builder).compact();
     }
 
     public String getUserNameFromJwtToken(String token) {
-        return Jwts.parser()
-                        .verifyWith((SecretKey) key())
-                .build().parseSignedClaims(token)
-                .getPayload().getSubject();
+        return verify(token).getSubject();
     }
 
-    private Key key() {
-        return Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret));
+    public Long getUserIdFromJwtToken(String token) {
+        return verify(token).get("uid", Long.class);
     }
 
-    public boolean validateJwtToken(String authToken) {
+    /**
+     * Parses and verifies the token at most once per token string, returning its claims,
+     * or {@code null} if the token is malformed, expired or carries a bad signature.
+     */
+    public Claims getVerifiedClaims(String authToken) {
         try {
-            System.out.println("Validate");
-            Jwts.parser().verifyWith((SecretKey) key()).build().parseSignedClaims(authToken);
-            return true;
+            return verify(authToken);
         } catch (MalformedJwtException e) {
             logger.error("Invalid JWT token: {}", e.getMessage());
         } catch (ExpiredJwtException e) {
@@ -72,7 +122,59 @@ public class JwtUtils {
             logger.error("JWT token is unsupported: {}", e.getMessage());
         } catch (IllegalArgumentException e) {
             logger.error("JWT claims string is empty: {}", e.getMessage());
+        } catch (JwtException e) {
+            logger.error("JWT token is invalid: {}", e.getMessage());
+        }
+        return null;
+    }
+
+    public boolean validateJwtToken(String authToken) {
+        return getVerifiedClaims(authToken) != null;
+    }
+
+    private Claims verify(String token) {
+        Verified cached = token != null ? verifiedTokens.get(token) : null;
+        if (cached != null) {
+            if (cached.claims().getExpiration().getTime() > System.currentTimeMillis()
+                    && cached.key().equals(keyRing.verificationKey(cached.kid()))) {
+                cacheHits.increment();
+                return cached.claims();
+            }
+            // Expired, or its key is gone: the parse below rejects it, or verifies it against a replaced key
+            verifiedTokens.remove(token, cached);
+        }
+        cacheMisses.increment();
+
+        long start = System.nanoTime();
+        Jws<Claims> jws = jwtParser.parseSignedClaims(token);
+        verifyTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+
+        Claims claims = jws.getPayload();
+        String kid = jws.getHeader().getKeyId();
+        Key key = keyRing.verificationKey(kid);
+        if (claims.getExpiration() != null && key != null) {
+            cacheVerifiedClaims(token, new Verified(claims, kid, key));
+        }
+        return claims;
+    }
+
+    private void cacheVerifiedClaims(String token, Verified verified) {
+        if (verifiedTokens.size() >= jwtCacheMaxSize && evicting.compareAndSet(false, true)) {
+            try {
+                long now = System.currentTimeMillis();
+                verifiedTokens.values().removeIf(v -> v.claims().getExpiration().getTime() <= now);
+                // Still full of live tokens: drop an arbitrary tenth rather than grow past the bound
+                Iterator<String> it = verifiedTokens.keySet().iterator();
+                for (int i = verifiedTokens.size() - jwtCacheMaxSize * 9 / 10; i > 0 && it.hasNext(); i--) {
+                    it.next();
+                    it.remove();
+                }
+            } finally {
+                evicting.set(false);
+            }
+        }
+        if (verifiedTokens.size() < jwtCacheMaxSize) {
+            verifiedTokens.put(token, verified);
         }
-        return false;
     }
 }
@@ -0,0 +1,223 @@
+package com.skillshare.platform.security.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-username and per-client-IP sign-in throttle, consulted before the password encoder runs.
+ * Each key has a GCRA token bucket (one CAS per attempt) plus an exponential backoff that grows
+ * with consecutive failures. Every loginLockoutFailures consecutive failures against one username
+ * block it for loginLockoutMillis on top of the backoff. The lockout lives only in the bucket and
+ * lifts by itself, so a stranger guessing passwords can delay an account but never disable it.
+ * <p>
+ * An address is often shared by many people (NAT, a campus, an office), so the IP buckets have their
+ * own, much looser limits, and a successful sign-in from an address halves its failure streak. The
+ * address is the client's as resolved from the proxy's forwarding headers (server.forward-headers-strategy).
+ */
+@Service
+public class LoginAttemptThrottle {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoginAttemptThrottle.class);
+
+    @Value("${spring.app.loginThrottleRatePerMinute:10}")
+    private int ratePerMinute;
+
+    @Value("${spring.app.loginThrottleBurst:5}")
+    private int burst;
+
+    @Value("${spring.app.loginBackoffFreeFailures:3}")
+    private int freeFailures;
+
+    @Value("${spring.app.loginThrottleIpRatePerMinute:300}")
+    private int ipRatePerMinute;
+
+    @Value("${spring.app.loginThrottleIpBurst:100}")
+    private int ipBurst;
+
+    @Value("${spring.app.loginIpBackoffFreeFailures:50}")
+    private int ipFreeFailures;
+
+    @Value("${spring.app.loginBackoffBaseMillis:1000}")
+    private long backoffBaseMillis;
+
+    @Value("${spring.app.loginBackoffMaxMillis:900000}")
+    private long backoffMaxMillis;
+
+    // 0 disables account lockout
+    @Value("${spring.app.loginLockoutFailures:20}")
+    private int lockoutFailures;
+
+    @Value("${spring.app.loginLockoutMillis:1800000}")
+    private long lockoutMillis;
+
+    @Value("${spring.app.loginThrottleMaxKeys:100000}")
+    private int maxKeys;
+
+    @Value("${spring.app.loginThrottleIdleMillis:900000}")
+    private long idleMillis;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
+    private final AtomicBoolean evicting = new AtomicBoolean();
+    private Counter throttled;
+    private Counter lockouts;
+
+    private static final class Bucket {
+        // GCRA "theoretical arrival time": the bucket is empty until this instant
+        final AtomicLong tat = new AtomicLong();
+        final AtomicLong blockedUntil = new AtomicLong();
+        final AtomicInteger failures = new AtomicInteger();
+        volatile long lastSeen;
+    }
+
+    @PostConstruct
+    void init() {
+        throttled = Counter.builder("login.throttle.rejected").register(meterRegistry);
+        lockouts = Counter.builder("login.throttle.lockouts").register(meterRegistry);
+        Gauge.builder("login.throttle.keys", buckets, Map::size).register(meterRegistry);
+    }
+
+    /**
+     * Takes one attempt from both the username and the client IP bucket.
+     *
+     * @return 0 if the attempt may proceed, otherwise the number of milliseconds to wait
+     */
+    public long tryAcquire(String username, String clientIp) {
+        long now = System.currentTimeMillis();
+        long wait = Math.max(acquire(bucket(userKey(username), now), now, ratePerMinute, burst),
+                acquire(bucket(ipKey(clientIp), now), now, ipRatePerMinute, ipBurst));
+        if (wait > 0) {
+            throttled.increment();
+        }
+        return wait;
+    }
+
+    public void recordFailure(String username, String clientIp) {
+        long now = System.currentTimeMillis();
+        int userFailures = backOff(bucket(userKey(username), now), now, freeFailures);
+        backOff(bucket(ipKey(clientIp), now), now, ipFreeFailures);
+
+        if (lockoutFailures > 0 && userFailures % lockoutFailures == 0) {
+            lockOut(bucket(userKey(username), now), username, now);
+        }
+    }
+
+    // Clears the username's streak, and halves the address's so failures from others behind it decay
+    // without a single valid account being able to wipe the streak of a guesser sharing the address
+    public void recordSuccess(String username, String clientIp) {
+        Bucket bucket = buckets.get(userKey(username));
+        if (bucket != null) {
+            bucket.failures.set(0);
+            bucket.blockedUntil.set(0);
+        }
+        Bucket ipBucket = buckets.get(ipKey(clientIp));
+        if (ipBucket != null) {
+            ipBucket.failures.updateAndGet(failures -> failures / 2);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${spring.app.loginThrottleIdleMillis:900000}")
+    public void evictIdle() {
+        long cutoff = System.currentTimeMillis() - idleMillis;
+        buckets.values().removeIf(bucket -> bucket.lastSeen < cutoff
+                && bucket.blockedUntil.get() < cutoff);
+    }
+
+    private long acquire(Bucket bucket, long now, int ratePerMinute, int burst) {
+        long blockedUntil = bucket.blockedUntil.get();
+        if (blockedUntil > now) {
+            return blockedUntil - now;
+        }
+        long emissionInterval = 60_000L / Math.max(1, ratePerMinute);
+        long tolerance = emissionInterval * Math.max(1, burst);
+        while (true) {
+            long tat = bucket.tat.get();
+            long newTat = Math.max(tat, now) + emissionInterval;
+            long allowAt = newTat - tolerance;
+            if (now < allowAt) {
+                return allowAt - now;
+            }
+            if (bucket.tat.compareAndSet(tat, newTat)) {
+                return 0;
+            }
+        }
+    }
+
+    private int backOff(Bucket bucket, long now, int freeFailures) {
+        int failures = bucket.failures.incrementAndGet();
+        if (failures > freeFailures) {
+            int doublings = Math.min(failures - freeFailures - 1, 30);
+            long delay = Math.min(backoffMaxMillis, backoffBaseMillis << doublings);
+            bucket.blockedUntil.accumulateAndGet(now + delay, Math::max);
+        }
+        return failures;
+    }
+
+    // Failures keep counting through the lockout, so the backoff stays at its cap and the next
+    // lockoutFailures failures after it lifts lock the username again
+    private void lockOut(Bucket bucket, String username, long now) {
+        bucket.blockedUntil.accumulateAndGet(now + lockoutMillis, Math::max);
+        lockouts.increment();
+        logger.warn("Locked out sign-ins for {} for {} ms after {} consecutive failures",
+                username, lockoutMillis, bucket.failures.get());
+    }
+
+    private Bucket bucket(String key, long now) {
+        Bucket bucket = buckets.get(key);
+        if (bucket == null) {
+            if (buckets.size() >= maxKeys) {
+                shrink();
+            }
+            bucket = buckets.computeIfAbsent(key, k -> new Bucket());
+        }
+        bucket.lastSeen = now;
+        return bucket;
+    }
+
+    private void shrink() {
+        if (!evicting.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            evictIdle();
+            // Still full: drop arbitrary unblocked keys down to 90% so memory stays bounded under a
+            // key-spraying attack without lifting anyone's backoff or lockout
+            long now = System.currentTimeMillis();
+            Iterator<Bucket> it = buckets.values().iterator();
+            for (int i = buckets.size() - maxKeys * 9 / 10; i > 0 && it.hasNext(); ) {
+                if (it.next().blockedUntil.get() <= now) {
+                    it.remove();
+                    i--;
+                }
+            }
+        } finally {
+            evicting.set(false);
+        }
+    }
+
+    private static String userKey(String username) {
+        return "u:" + (username == null ? "" : username.trim().toLowerCase(Locale.ROOT));
+    }
+
+    private static String ipKey(String clientIp) {
+        return "ip:" + clientIp;
+    }
+}
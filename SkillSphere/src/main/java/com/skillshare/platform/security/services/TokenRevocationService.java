@@ -0,0 +1,208 @@
+package com.skillshare.platform.security.services;
+
+import com.skillshare.platform.models.RevokedToken;
+import com.skillshare.platform.repositories.RevokedTokenRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Revoked JWT ids, persisted in revoked_tokens and mirrored in memory. Lookups go through a Bloom
+ * filter first, so the usual "not revoked" answer is a handful of bit probes; only filter hits
+ * consult the exact set.
+ * <p>
+ * Every node polls for rows revoked since its last sync, so a logout on one node takes effect on the
+ * others within jwtRevocationSyncMs. Compaction reloads the whole set from the table.
+ */
+@Service
+public class TokenRevocationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenRevocationService.class);
+
+    @Autowired
+    RevokedTokenRepository revokedTokenRepository;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Value("${spring.app.jwtRevocationExpectedTokens:10000}")
+    private int expectedTokens;
+
+    // Each sync re-reads this far behind the last one, covering clock skew between nodes and slow commits
+    @Value("${spring.app.jwtRevocationSyncOverlapMs:60000}")
+    private long syncOverlapMs;
+
+    // tokenId -> expiry in epoch millis
+    private final Map<String, Long> revoked = new ConcurrentHashMap<>();
+    private volatile BloomFilter filter;
+    private Instant syncedThrough = Instant.EPOCH;
+    private Counter falsePositives;
+
+    @PostConstruct
+    void init() {
+        filter = new BloomFilter(expectedTokens, 0.01);
+        falsePositives = Counter.builder("jwt.revocation.filter.false.positives").register(meterRegistry);
+        Gauge.builder("jwt.revocation.tokens", revoked, Map::size).register(meterRegistry);
+    }
+
+    public boolean isRevoked(String tokenId) {
+        if (tokenId == null || !filter.mightContain(tokenId)) {
+            return false;
+        }
+        if (revoked.containsKey(tokenId)) {
+            return true;
+        }
+        falsePositives.increment();
+        return false;
+    }
+
+    public synchronized void revoke(String tokenId, Instant expiresAt) {
+        if (tokenId == null || expiresAt == null || !expiresAt.isAfter(Instant.now())) {
+            return;
+        }
+        revokedTokenRepository.save(new RevokedToken(tokenId, expiresAt, Instant.now()));
+        add(tokenId, expiresAt.toEpochMilli());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void loadFromDatabase() {
+        reload();
+        logger.info("Loaded {} revoked tokens", revoked.size());
+    }
+
+    // Picks up tokens revoked on other nodes
+    @Scheduled(fixedDelayString = "${spring.app.jwtRevocationSyncMs:5000}",
+            initialDelayString = "${spring.app.jwtRevocationSyncMs:5000}")
+    public synchronized void sync() {
+        Instant now = Instant.now();
+        long nowMillis = now.toEpochMilli();
+        int added = 0;
+        for (RevokedToken token : revokedTokenRepository.findByRevokedAtAfter(syncedThrough.minusMillis(syncOverlapMs))) {
+            long expiresAt = token.getExpiresAt().toEpochMilli();
+            if (expiresAt > nowMillis && !revoked.containsKey(token.getTokenId())) {
+                add(token.getTokenId(), expiresAt);
+                added++;
+            }
+        }
+        syncedThrough = now;
+        if (added > 0) {
+            logger.debug("Synced {} tokens revoked on other nodes", added);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${spring.app.jwtRevocationCompactMs:3600000}",
+            initialDelayString = "${spring.app.jwtRevocationCompactMs:3600000}")
+    public synchronized void compact() {
+        Instant now = Instant.now();
+        int deleted = revokedTokenRepository.deleteExpired(now);
+        reload();
+        logger.debug("Compacted {} expired revoked tokens, {} remain", deleted, revoked.size());
+    }
+
+    // Replaces the set with the table's live rows without ever emptying it, so no revoked token slips
+    // through mid-reload
+    private void reload() {
+        Instant now = Instant.now();
+        Map<String, Long> live = new HashMap<>();
+        for (RevokedToken token : revokedTokenRepository.findByExpiresAtAfter(now)) {
+            live.put(token.getTokenId(), token.getExpiresAt().toEpochMilli());
+        }
+        revoked.putAll(live);
+        revoked.keySet().retainAll(live.keySet());
+        rebuild();
+        syncedThrough = now;
+    }
+
+    private void add(String tokenId, long expiresAt) {
+        revoked.put(tokenId, expiresAt);
+        if (revoked.size() > filter.capacity()) {
+            rebuild();
+        } else {
+            filter.add(tokenId);
+        }
+    }
+
+    // Callers hold the monitor, so no revoke() can slip in between copying the set and swapping the filter
+    private void rebuild() {
+        BloomFilter rebuilt = new BloomFilter(Math.max(expectedTokens, revoked.size() * 2), 0.01);
+        revoked.keySet().forEach(rebuilt::add);
+        filter = rebuilt;
+    }
+
+    private static final class BloomFilter {
+        private final AtomicLongArray bits;
+        private final int bitCount;
+        private final int hashCount;
+        private final int capacity;
+
+        BloomFilter(int capacity, double falsePositiveRate) {
+            this.capacity = capacity;
+            long m = (long) Math.ceil(-capacity * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+            this.bitCount = (int) Math.max(64, Math.min(m, Integer.MAX_VALUE - 63));
+            this.hashCount = Math.max(1, (int) Math.round((double) bitCount / capacity * Math.log(2)));
+            this.bits = new AtomicLongArray((bitCount + 63) >>> 6);
+        }
+
+        int capacity() {
+            return capacity;
+        }
+
+        void add(String key) {
+            long hash = hash64(key);
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int i = 0; i < hashCount; i++) {
+                int bit = ((h1 + i * h2) & Integer.MAX_VALUE) % bitCount;
+                int word = bit >>> 6;
+                long mask = 1L << bit;
+                long current;
+                do {
+                    current = bits.get(word);
+                } while ((current & mask) == 0 && !bits.compareAndSet(word, current, current | mask));
+            }
+        }
+
+        boolean mightContain(String key) {
+            long hash = hash64(key);
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int i = 0; i < hashCount; i++) {
+                int bit = ((h1 + i * h2) & Integer.MAX_VALUE) % bitCount;
+                if ((bits.get(bit >>> 6) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        // FNV-1a over the chars followed by a murmur3 finalizer to spread the bits
+        private static long hash64(String key) {
+            long h = 0xcbf29ce484222325L;
+            for (int i = 0; i < key.length(); i++) {
+                h ^= key.charAt(i);
+                h *= 0x100000001b3L;
+            }
+            h ^= h >>> 33;
+            h *= 0xff51afd7ed558ccdL;
+            h ^= h >>> 33;
+            h *= 0xc4ceb9fe1a85ec53L;
+            h ^= h >>> 33;
+            return h;
+        }
+    }
+}
@@ -4,14 +4,67 @@ import com.skillshare.platform.services.TotpService;
 import com.warrenstrange.googleauth.GoogleAuthenticator;
 import com.warrenstrange.googleauth.GoogleAuthenticatorKey;
 import com.warrenstrange.googleauth.GoogleAuthenticatorQRGenerator;
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.EncodeHintType;
+import com.google.zxing.WriterException;
+import com.google.zxing.common.BitMatrix;
+import com.google.zxing.qrcode.QRCodeWriter;
+import org.apache.commons.codec.binary.Base32;
 import org.springframework.stereotype.Service;
 
+import javax.crypto.Mac;
+import javax.crypto.ShortBufferException;
+import javax.crypto.spec.SecretKeySpec;
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.security.GeneralSecurityException;
+import java.security.InvalidKeyException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
 @Service
 public class TotpServicesImpl implements TotpService {
 
+    // Same parameters GoogleAuthenticator uses by default, so existing enrollments keep working
+    private static final long TIME_STEP_MILLIS = TimeUnit.SECONDS.toMillis(30);
+    private static final int WINDOW = 1; // accept codes from one step either side of now
+    private static final int CODE_MODULUS = 1_000_000;
+    private static final int MAX_CACHED_USERS = 10_000;
+    private static final int QR_CODE_SIZE = 200;
+    private static final long QR_CODE_TTL_MILLIS = TimeUnit.MINUTES.toMillis(5);
+
+    // One Mac and output buffer per thread; HMAC-SHA1 output is 20 bytes
+    private static final ThreadLocal<HmacState> HMAC = ThreadLocal.withInitial(HmacState::new);
 
     private final GoogleAuthenticator gAuth;
 
+    // userId -> decoded secret, so repeat verifications skip both the DB lookup and Base32 decoding;
+    // least recently used first out once MAX_CACHED_USERS are cached
+    private final Map<Long, SecretKeySpec> userKeys = Collections.synchronizedMap(
+            new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Long, SecretKeySpec> eldest) {
+                    return size() > MAX_CACHED_USERS;
+                }
+            });
+
+    // userId -> last time step a code was accepted for; a step is never accepted twice
+    private final Map<Long, AtomicLong> lastAcceptedStep = new ConcurrentHashMap<>();
+
+    // userId -> QR image for an enrollment in progress; only lives long enough to be scanned
+    private final Map<Long, CachedQrCode> qrCodes = new ConcurrentHashMap<>();
+
+    private record CachedQrCode(byte[] png, long expiresAt) {
+    }
+
     public TotpServicesImpl(GoogleAuthenticator gAuth) {
         this.gAuth = gAuth;
     }
@@ -26,12 +79,153 @@ public class TotpServicesImpl implements TotpService {
     }
 
     @Override
-    public String getQrCodeUrl(GoogleAuthenticatorKey secret, String username){
-        return GoogleAuthenticatorQRGenerator.getOtpAuthURL("SkillSphere", username, secret);
+    public byte[] generateQrCode(Long userId, GoogleAuthenticatorKey secret, String username) {
+        String otpAuthUri = GoogleAuthenticatorQRGenerator.getOtpAuthTotpURL("SkillSphere", username, secret);
+        byte[] png = renderPng(otpAuthUri);
+
+        long now = System.currentTimeMillis();
+        if (qrCodes.size() >= MAX_CACHED_USERS) {
+            qrCodes.values().removeIf(qr -> qr.expiresAt() <= now);
+        }
+        qrCodes.put(userId, new CachedQrCode(png, now + QR_CODE_TTL_MILLIS));
+        return png;
+    }
+
+    @Override
+    public byte[] getCachedQrCode(Long userId) {
+        CachedQrCode qr = qrCodes.get(userId);
+        if (qr == null) {
+            return null;
+        }
+        if (qr.expiresAt() <= System.currentTimeMillis()) {
+            qrCodes.remove(userId, qr);
+            return null;
+        }
+        return qr.png();
+    }
+
+    // Draws the otpauth URI as a QR code in-process, so enrollment never depends on an external chart service
+    private static byte[] renderPng(String content) {
+        try {
+            BitMatrix matrix = new QRCodeWriter().encode(content, BarcodeFormat.QR_CODE, QR_CODE_SIZE, QR_CODE_SIZE,
+                    Map.of(EncodeHintType.MARGIN, 1));
+            BufferedImage image = new BufferedImage(matrix.getWidth(), matrix.getHeight(), BufferedImage.TYPE_BYTE_BINARY);
+            for (int y = 0; y < matrix.getHeight(); y++) {
+                for (int x = 0; x < matrix.getWidth(); x++) {
+                    image.setRGB(x, y, matrix.get(x, y) ? 0xFF000000 : 0xFFFFFFFF);
+                }
+            }
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            ImageIO.write(image, "png", out);
+            return out.toByteArray();
+        } catch (WriterException | IOException e) {
+            throw new IllegalStateException("Unable to render QR code", e);
+        }
     }
 
     @Override
     public boolean verifyCode(String secret, int code){
-        return gAuth.authorize(secret, code);
+        if (secret == null) {
+            return false;
+        }
+        return matchingStep(decode(secret), code, currentStep()) != Long.MIN_VALUE;
+    }
+
+    @Override
+    public boolean verifyCode(Long userId, int code, Supplier<String> secretLoader) {
+        SecretKeySpec key = userKeys.get(userId);
+        if (key == null) {
+            String secret = secretLoader.get();
+            if (secret == null) {
+                return false;
+            }
+            key = decode(secret);
+            userKeys.put(userId, key);
+        }
+
+        long now = currentStep();
+        long step = matchingStep(key, code, now);
+        if (step == Long.MIN_VALUE) {
+            return false;
+        }
+
+        if (lastAcceptedStep.size() >= MAX_CACHED_USERS) {
+            // Entries older than the window can no longer block a replay
+            lastAcceptedStep.values().removeIf(last -> last.get() < now - WINDOW);
+        }
+        AtomicLong last = lastAcceptedStep.computeIfAbsent(userId, id -> new AtomicLong(Long.MIN_VALUE));
+        while (true) {
+            long previous = last.get();
+            if (step <= previous) {
+                return false; // replay of an already used (or older) code
+            }
+            if (last.compareAndSet(previous, step)) {
+                return true;
+            }
+        }
+    }
+
+    @Override
+    public void evictSecret(Long userId) {
+        userKeys.remove(userId);
+        lastAcceptedStep.remove(userId);
+        qrCodes.remove(userId);
+    }
+
+    private long currentStep() {
+        return currentTimeMillis() / TIME_STEP_MILLIS;
+    }
+
+    // Overridden by tests to verify codes at fixed instants
+    long currentTimeMillis() {
+        return System.currentTimeMillis();
+    }
+
+    private static SecretKeySpec decode(String secret) {
+        return new SecretKeySpec(new Base32().decode(secret.toUpperCase(Locale.ROOT)), "HmacSHA1");
+    }
+
+    // Returns the time step within the window that produces this code, or Long.MIN_VALUE if none does
+    private static long matchingStep(SecretKeySpec key, int code, long now) {
+        if (code <= 0 || code >= CODE_MODULUS) {
+            return Long.MIN_VALUE;
+        }
+        for (long step = now - WINDOW; step <= now + WINDOW; step++) {
+            if (HMAC.get().code(key, step) == code) {
+                return step;
+            }
+        }
+        return Long.MIN_VALUE;
+    }
+
+    private static final class HmacState {
+        private final Mac mac;
+        private final byte[] hash = new byte[20];
+
+        HmacState() {
+            try {
+                mac = Mac.getInstance("HmacSHA1");
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("HmacSHA1 is not available", e);
+            }
+        }
+
+        int code(SecretKeySpec key, long step) {
+            try {
+                mac.init(key);
+                for (int shift = 56; shift >= 0; shift -= 8) {
+                    mac.update((byte) (step >>> shift));
+                }
+                mac.doFinal(hash, 0);
+            } catch (InvalidKeyException | ShortBufferException e) {
+                throw new IllegalStateException("Unable to compute TOTP code", e);
+            }
+            int offset = hash[hash.length - 1] & 0xF;
+            int truncated = ((hash[offset] & 0x7F) << 24)
+                    | ((hash[offset + 1] & 0xFF) << 16)
+                    | ((hash[offset + 2] & 0xFF) << 8)
+                    | (hash[offset + 3] & 0xFF);
+            return truncated % CODE_MODULUS;
+        }
     }
 }
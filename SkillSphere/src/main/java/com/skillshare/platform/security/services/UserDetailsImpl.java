@@ -27,6 +27,10 @@ public class UserDetailsImpl implements UserDetails {
 
     private boolean is2faEnabled;
 
+    private int securityVersion;
+
+    private boolean accountNonLocked = true;
+
     // New fields
     private String bio;
     private String profilePicture;
@@ -49,7 +53,7 @@ public class UserDetailsImpl implements UserDetails {
     public static UserDetailsImpl build(User user) {
         GrantedAuthority authority = new SimpleGrantedAuthority(user.getRole().getRoleName().name());
 
-        return new UserDetailsImpl(
+        UserDetailsImpl userDetails = new UserDetailsImpl(
                 user.getUserId(),
                 user.getUserName(),
                 user.getEmail(),
@@ -59,6 +63,9 @@ public class UserDetailsImpl implements UserDetails {
                 user.getProfilePicture(), // New
                 List.of(authority) // Wrapping the single authority in a list
         );
+        userDetails.setSecurityVersion(user.getSecurityVersion());
+        userDetails.setAccountNonLocked(user.isAccountNonLocked());
+        return userDetails;
     }
 
 
@@ -92,7 +99,7 @@ public class UserDetailsImpl implements UserDetails {
 
     @Override
     public boolean isAccountNonLocked() {
-        return true;
+        return accountNonLocked;
     }
 
     @Override
@@ -0,0 +1,95 @@
+package com.skillshare.platform.security.services;
+
+import com.skillshare.platform.repositories.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Current User.securityVersion per user, checked against the "sv" claim of every stateless token.
+ * <p>
+ * Versions are cached for a short TTL and then re-read, so a bump made on another node (a password change,
+ * a lockout) takes effect here within securityVersionTtlMs; publish() makes a local bump take effect at
+ * once. A token carrying a newer version than the cached one forces a re-read, so a token issued after a
+ * bump on another node is never rejected because of this node's cache. The cache is bounded by dropping
+ * the entries closest to expiry.
+ */
+@Service
+public class UserSecurityVersionService {
+
+    @Autowired
+    UserRepository userRepository;
+
+    @Value("${spring.app.securityVersionTtlMs:30000}")
+    private long ttlMs;
+
+    @Value("${spring.app.securityVersionCacheMaxSize:100000}")
+    private int maxSize;
+
+    private record Cached(int version, long expiresAt) {
+    }
+
+    private final Map<Long, Cached> versions = new ConcurrentHashMap<>();
+    private final AtomicBoolean evicting = new AtomicBoolean();
+
+    public boolean isCurrent(Long userId, int tokenVersion) {
+        long now = System.currentTimeMillis();
+        Cached cached = versions.get(userId);
+        // A token newer than the cached version was issued after a bump, possibly on another node, so the
+        // cache is what's stale
+        if (cached == null || cached.expiresAt() <= now || tokenVersion > cached.version()) {
+            Integer current = userRepository.findSecurityVersionByUserId(userId).orElse(null);
+            if (current == null) {
+                versions.remove(userId);
+                return false;
+            }
+            cached = new Cached(current, now + ttlMs);
+            put(userId, cached, now);
+        }
+        return cached.version() == tokenVersion;
+    }
+
+    public void publish(Long userId, int version) {
+        long now = System.currentTimeMillis();
+        put(userId, new Cached(version, now + ttlMs), now);
+    }
+
+    public int size() {
+        return versions.size();
+    }
+
+    private void put(Long userId, Cached cached, long now) {
+        if (versions.size() >= maxSize && !versions.containsKey(userId)) {
+            shrink(now);
+        }
+        versions.put(userId, cached);
+    }
+
+    // Drops expired entries, then those closest to expiry until the map is back to nine tenths of its cap
+    private void shrink(long now) {
+        if (!evicting.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            versions.values().removeIf(entry -> entry.expiresAt() <= now);
+            int toDrop = versions.size() - maxSize * 9 / 10;
+            if (toDrop <= 0) {
+                return;
+            }
+            List<Map.Entry<Long, Cached>> entries = new ArrayList<>(versions.entrySet());
+            entries.sort(Comparator.comparingLong(entry -> entry.getValue().expiresAt()));
+            for (int i = 0; i < toDrop && i < entries.size(); i++) {
+                versions.remove(entries.get(i).getKey(), entries.get(i).getValue());
+            }
+        } finally {
+            evicting.set(false);
+        }
+    }
+}
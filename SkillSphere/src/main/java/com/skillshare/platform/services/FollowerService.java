@@ -1,11 +1,31 @@
 package com.skillshare.platform.services;
 
+import com.skillshare.platform.dtos.BulkFollowOutcome;
+import com.skillshare.platform.dtos.CursorPage;
+import com.skillshare.platform.dtos.FollowUserDTO;
 import com.skillshare.platform.models.Follower;
+import com.skillshare.platform.util.KeysetCursor;
+
 import java.util.List;
 
 public interface FollowerService {
-    Follower followUser(Long userId, Long followerUserId);
-    void unfollowUser(Long userId, Long followerUserId);
+    // Idempotent: true when the call changed anything, false when the edge was already in that state
+    boolean followUser(Long userId, Long followerUserId, String followerUserName);
+    boolean unfollowUser(Long userId, Long followerUserId);
+
+    // Duplicate ids are collapsed and every remaining id gets one outcome, in request order
+    List<BulkFollowOutcome> followUsers(Long followerUserId, String followerUserName, List<Long> userIds);
+    List<BulkFollowOutcome> unfollowUsers(Long followerUserId, List<Long> userIds);
     List<Follower> getFollowers(Long userId);
     List<Follower> getFollowing(Long userId);
+
+    // Keyset-paginated listings with the "followed" flag resolved for the viewer; limit may be null
+    CursorPage<FollowUserDTO> getFollowerDetails(Long userId, Long viewerId, KeysetCursor after, Integer limit);
+    CursorPage<FollowUserDTO> getFollowingDetails(Long userId, Long viewerId, KeysetCursor after, Integer limit);
+
+    // Intersections of follow lists, paginated in user id order; the cursor is the last id of the previous page
+    // (0 to start). The viewer follows everyone listed, so each row comes back with followed set.
+    CursorPage<FollowUserDTO> getMutualFollows(Long userId, long afterUserId, Integer limit);
+    CursorPage<FollowUserDTO> getCommonFollowing(Long viewerId, Long userId, long afterUserId, Integer limit);
+    CursorPage<FollowUserDTO> getFollowersYouKnow(Long viewerId, Long userId, long afterUserId, Integer limit);
 }
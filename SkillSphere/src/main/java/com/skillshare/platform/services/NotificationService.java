@@ -1,14 +1,27 @@
 package com.skillshare.platform.services;
 
+import com.skillshare.platform.dtos.CursorPage;
+import com.skillshare.platform.dtos.NotificationDTO;
 import com.skillshare.platform.models.Notification;
 import com.skillshare.platform.models.User;
+import com.skillshare.platform.util.KeysetCursor;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
-import java.util.List;
+import java.util.Collection;
 
 public interface NotificationService {
-    Notification createNotification(User receiver, User sender, String message, Notification.NotificationType type);
-    List<Notification> getNotificationsForUser(Long userId);
-    void markNotificationAsRead(Long notificationId);
-    void markAllNotificationsAsRead(Long userId);
+    // Coalesced types fold into the receiver's open notification of that type instead of adding a row
+    Notification createNotification(User receiver, User sender, String senderName, Notification.NotificationType type);
+    // Accounts for notifications inserted in bulk without going through createNotification
+    void recordInserted(Collection<Long> receiverIds);
+    // Newest first; before is the cursor of the previous page (KeysetCursor.END to start) and limit may be null
+    CursorPage<NotificationDTO> getNotifications(Long userId, KeysetCursor before, Integer limit);
+    // Only the receiver can mark a notification read
+    void markNotificationAsRead(Long userId, Long notificationId);
+    // Marks read everything up to upToId, the newest notification the client displayed (null for all of the user's)
+    void markAllNotificationsAsRead(Long userId, Long upToId);
     long getUnreadNotificationCount(Long userId);
+    // Server-sent events for the user's new notifications and unread count; lastEventId resumes after a
+    // reconnect and may be null. Throws IllegalStateException when this node has no room for another stream.
+    SseEmitter openStream(Long userId, Long lastEventId);
 }
\ No newline at end of file
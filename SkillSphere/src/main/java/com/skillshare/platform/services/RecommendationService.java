@@ -0,0 +1,10 @@
+package com.skillshare.platform.services;
+
+import com.skillshare.platform.dtos.RecommendationDTO;
+
+import java.util.List;
+
+public interface RecommendationService {
+    // "People you may know": users followed by the people userId follows, best first
+    List<RecommendationDTO> getRecommendations(Long userId, Integer limit);
+}
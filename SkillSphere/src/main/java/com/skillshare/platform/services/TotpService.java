@@ -2,8 +2,13 @@ package com.skillshare.platform.services;
 
 import com.warrenstrange.googleauth.GoogleAuthenticatorKey;
 
+import java.util.function.Supplier;
+
 public interface TotpService {
     GoogleAuthenticatorKey generateSecret();
-    String getQrCodeUrl(GoogleAuthenticatorKey secret, String username);
+    byte[] generateQrCode(Long userId, GoogleAuthenticatorKey secret, String username);
+    byte[] getCachedQrCode(Long userId);
     boolean verifyCode(String secret, int code);
+    boolean verifyCode(Long userId, int code, Supplier<String> secretLoader);
+    void evictSecret(Long userId);
 }
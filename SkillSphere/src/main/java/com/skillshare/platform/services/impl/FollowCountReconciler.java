@@ -0,0 +1,35 @@
+package com.skillshare.platform.services.impl;
+
+import com.skillshare.platform.repositories.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Recomputes users.followers_count / following_count from the followers table in primary key
+ * ranges, one short transaction per range, to repair any drift in the incrementally maintained values.
+ */
+@Component
+public class FollowCountReconciler {
+
+    private static final Logger logger = LoggerFactory.getLogger(FollowCountReconciler.class);
+
+    @Autowired
+    UserRepository userRepository;
+
+    @Value("${spring.app.followCountReconcileChunk:1000}")
+    private int chunkSize;
+
+    @Scheduled(fixedDelayString = "${spring.app.followCountReconcileMs:21600000}", initialDelay = 60000)
+    public void reconcile() {
+        long maxId = userRepository.findMaxUserId();
+        int updated = 0;
+        for (long from = 0; from < maxId; from += chunkSize) {
+            updated += userRepository.recountFollowCounts(from, Math.min(from + chunkSize, maxId));
+        }
+        logger.debug("Reconciled follow counts for {} users", updated);
+    }
+}
@@ -1,19 +1,36 @@
 package com.skillshare.platform.services.impl;
 
+import com.skillshare.platform.dtos.BulkFollowOutcome;
+import com.skillshare.platform.dtos.BulkFollowOutcome.Status;
+import com.skillshare.platform.dtos.CursorPage;
+import com.skillshare.platform.dtos.FollowUserDTO;
+import com.skillshare.platform.graph.SocialGraphIndex;
 import com.skillshare.platform.models.Follower;
 import com.skillshare.platform.models.Notification;
 import com.skillshare.platform.models.User;
 
+import com.skillshare.platform.repositories.FollowBatchRepository;
 import com.skillshare.platform.repositories.FollowerRepository;
 import com.skillshare.platform.repositories.UserRepository;
 import com.skillshare.platform.services.FollowerService;
 import com.skillshare.platform.services.NotificationService;
 import com.skillshare.platform.services.UserService;
+import com.skillshare.platform.util.KeysetCursor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 
 @Service
 public class FollowerServiceImpl implements FollowerService {
@@ -30,54 +47,144 @@ public class FollowerServiceImpl implements FollowerService {
     @Autowired
     private NotificationService notificationService;
 
+    @Autowired
+    private SocialGraphIndex socialGraphIndex;
+
+    @Autowired
+    private FollowBatchRepository followBatchRepository;
+
+    @Value("${spring.app.followPageSize:50}")
+    private int defaultPageSize;
+
+    @Value("${spring.app.followPageMaxSize:200}")
+    private int maxPageSize;
+
+    @Value("${spring.app.bulkFollowMaxSize:1000}")
+    private int bulkMaxSize;
+
+    // Two statements for a new edge. The counter update goes first: it takes both users' row locks in primary
+    // key order, the same order the bulk paths lock them in, and its row count says whether the target exists.
+    // The unique key then decides whether the edge is new; when it already existed the counters are put back.
+    // The notification is the only other write. User references are proxies and never loaded.
     @Override
-    @Transactional
-    public Follower followUser(Long userId, Long followerUserId) {
+    @Transactional(isolation = Isolation.READ_COMMITTED)
+    public boolean followUser(Long userId, Long followerUserId, String followerUserName) {
         if (userId.equals(followerUserId)) {
             throw new IllegalArgumentException("Users cannot follow themselves");
         }
 
-        // Validate users exist via UserService
-        userService.getUserById(userId); // Assuming this throws if not found
-        userService.getUserById(followerUserId);
+        adjustFollowCounts(userId, followerUserId, 1);
+        if (followerRepository.insertIfAbsent(userId, followerUserId, LocalDateTime.now()) == 0) {
+            userRepository.adjustFollowCounts(userId, followerUserId, -1);
+            return false;
+        }
 
-        // Fetch User entities for JPA
-        User user = userRepository.findById(userId)
-            .orElseThrow(() -> new RuntimeException("User not found"));
-        User followerUser = userRepository.findById(followerUserId)
-            .orElseThrow(() -> new RuntimeException("Follower user not found"));
+        notificationService.createNotification(userRepository.getReferenceById(userId),
+                userRepository.getReferenceById(followerUserId), followerUserName, Notification.NotificationType.FOLLOW);
+        socialGraphIndex.recordFollow(userId, followerUserId);
+        return true;
+    }
 
-        if (followerRepository.existsByUserAndFollowerUser(user, followerUser)) {
-            throw new IllegalStateException("Already following this user");
+    @Override
+    @Transactional(isolation = Isolation.READ_COMMITTED)
+    public boolean unfollowUser(Long userId, Long followerUserId) {
+        adjustFollowCounts(userId, followerUserId, -1);
+        if (followerRepository.deleteByKey(userId, followerUserId) == 0) {
+            userRepository.adjustFollowCounts(userId, followerUserId, 1);
+            return false;
         }
 
-        Follower follower = new Follower();
-        follower.setUser(user);
-        follower.setFollowerUser(followerUser);
+        socialGraphIndex.recordUnfollow(userId, followerUserId);
+        return true;
+    }
+
+    // Locks the follower and targets, then one query to classify the ids, one JDBC batch each for followers and
+    // notifications and a single counter update. Under the locks no other follow of these users can land between
+    // the classification and the insert, so the side effects cover exactly the edges this request created.
+    @Override
+    @Transactional(isolation = Isolation.READ_COMMITTED)
+    public List<BulkFollowOutcome> followUsers(Long followerUserId, String followerUserName, List<Long> userIds) {
+        Set<Long> ids = distinctIds(userIds);
+        lockForFollowChange(followerUserId, ids);
+        Map<Long, Boolean> targets = findTargets(followerUserId, ids);
 
-        String message = followerUser.getUserName() + " started following you";
-        notificationService.createNotification(user, followerUser, message, Notification.NotificationType.FOLLOW);
+        List<BulkFollowOutcome> outcomes = new ArrayList<>(ids.size());
+        List<Long> toFollow = new ArrayList<>();
+        for (Long id : ids) {
+            Boolean followed = targets.get(id);
+            Status status = id.equals(followerUserId) ? Status.SELF
+                    : followed == null ? Status.NOT_FOUND
+                    : followed ? Status.ALREADY_FOLLOWING
+                    : Status.FOLLOWED;
+            if (status == Status.FOLLOWED) {
+                toFollow.add(id);
+            }
+            outcomes.add(new BulkFollowOutcome(id, status));
+        }
 
-        return followerRepository.save(follower);
+        if (!toFollow.isEmpty()) {
+            LocalDateTime now = LocalDateTime.now();
+            followBatchRepository.insertFollows(followerUserId, toFollow, now);
+            followBatchRepository.insertNotifications(followerUserId, toFollow,
+                    Notification.NotificationType.FOLLOW.describe(List.of(followerUserName), 1),
+                    Notification.NotificationType.FOLLOW, now);
+            notificationService.recordInserted(toFollow);
+            userRepository.adjustFollowCounts(followerUserId, toFollow, 1, toFollow.size());
+            toFollow.forEach(id -> socialGraphIndex.recordFollow(id, followerUserId));
+        }
+        return outcomes;
     }
 
     @Override
-    @Transactional
-    public void unfollowUser(Long userId, Long followerUserId) {
-        // Validate users exist
-        userService.getUserById(userId);
-        userService.getUserById(followerUserId);
+    @Transactional(isolation = Isolation.READ_COMMITTED)
+    public List<BulkFollowOutcome> unfollowUsers(Long followerUserId, List<Long> userIds) {
+        Set<Long> ids = distinctIds(userIds);
+        lockForFollowChange(followerUserId, ids);
+        Map<Long, Boolean> targets = findTargets(followerUserId, ids);
 
-        User user = userRepository.findById(userId)
-            .orElseThrow(() -> new RuntimeException("User not found"));
-        User followerUser = userRepository.findById(followerUserId)
-            .orElseThrow(() -> new RuntimeException("Follower user not found"));
+        List<BulkFollowOutcome> outcomes = new ArrayList<>(ids.size());
+        List<Long> toUnfollow = new ArrayList<>();
+        for (Long id : ids) {
+            Boolean followed = targets.get(id);
+            Status status = id.equals(followerUserId) ? Status.SELF
+                    : followed == null ? Status.NOT_FOUND
+                    : followed ? Status.UNFOLLOWED
+                    : Status.NOT_FOLLOWING;
+            if (status == Status.UNFOLLOWED) {
+                toUnfollow.add(id);
+            }
+            outcomes.add(new BulkFollowOutcome(id, status));
+        }
 
-        if (!followerRepository.existsByUserAndFollowerUser(user, followerUser)) {
-            throw new IllegalStateException("Not following this user");
+        if (!toUnfollow.isEmpty()) {
+            followBatchRepository.deleteFollows(followerUserId, toUnfollow);
+            userRepository.adjustFollowCounts(followerUserId, toUnfollow, -1, toUnfollow.size());
+            toUnfollow.forEach(id -> socialGraphIndex.recordUnfollow(id, followerUserId));
         }
+        return outcomes;
+    }
 
-        followerRepository.deleteByUserAndFollowerUser(user, followerUser);
+    private Set<Long> distinctIds(List<Long> userIds) {
+        Set<Long> ids = new LinkedHashSet<>();
+        if (userIds != null) {
+            userIds.stream().filter(Objects::nonNull).forEach(ids::add);
+        }
+        if (ids.size() > bulkMaxSize) {
+            throw new IllegalArgumentException("At most " + bulkMaxSize + " users per request");
+        }
+        return ids;
+    }
+
+    private void lockForFollowChange(Long followerUserId, Set<Long> ids) {
+        if (!ids.isEmpty()) {
+            Set<Long> locked = new LinkedHashSet<>(ids);
+            locked.add(followerUserId);
+            userRepository.lockForFollowChange(locked);
+        }
+    }
+
+    private Map<Long, Boolean> findTargets(Long followerUserId, Set<Long> ids) {
+        return ids.isEmpty() ? Map.of() : followBatchRepository.findFollowTargets(followerUserId, ids);
     }
 
     @Override
@@ -95,4 +202,128 @@ public class FollowerServiceImpl implements FollowerService {
             .orElseThrow(() -> new RuntimeException("User not found"));
         return followerRepository.findByFollowerUser(user);
     }
-}
\ No newline at end of file
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<FollowUserDTO> getFollowerDetails(Long userId, Long viewerId, KeysetCursor after, Integer limit) {
+        requireUser(userId);
+        int pageSize = pageSize(limit);
+        List<FollowUserDTO> rows = followerRepository.findFollowersPage(
+                userId, after.createdAt(), after.id(), Limit.of(pageSize + 1));
+        return toPage(rows, pageSize, viewerId);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<FollowUserDTO> getFollowingDetails(Long userId, Long viewerId, KeysetCursor after, Integer limit) {
+        requireUser(userId);
+        int pageSize = pageSize(limit);
+        List<FollowUserDTO> rows = followerRepository.findFollowingPage(
+                userId, after.createdAt(), after.id(), Limit.of(pageSize + 1));
+        return toPage(rows, pageSize, viewerId);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<FollowUserDTO> getMutualFollows(Long userId, long afterUserId, Integer limit) {
+        int pageSize = pageSize(limit);
+        if (socialGraphIndex.isReady()) {
+            return idPage(socialGraphIndex.mutualFollows(userId), afterUserId, pageSize);
+        }
+        return intersectionPage(followerRepository.findMutualFollows(userId, afterUserId, Limit.of(pageSize + 1)), pageSize);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<FollowUserDTO> getCommonFollowing(Long viewerId, Long userId, long afterUserId, Integer limit) {
+        requireUser(userId);
+        int pageSize = pageSize(limit);
+        if (socialGraphIndex.isReady()) {
+            return idPage(socialGraphIndex.commonFollowing(viewerId, userId), afterUserId, pageSize);
+        }
+        return intersectionPage(followerRepository.findCommonFollowing(
+                viewerId, userId, afterUserId, Limit.of(pageSize + 1)), pageSize);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<FollowUserDTO> getFollowersYouKnow(Long viewerId, Long userId, long afterUserId, Integer limit) {
+        requireUser(userId);
+        int pageSize = pageSize(limit);
+        if (socialGraphIndex.isReady()) {
+            return idPage(socialGraphIndex.followersFollowedBy(userId, viewerId), afterUserId, pageSize);
+        }
+        return intersectionPage(followerRepository.findFollowersFollowedBy(
+                userId, viewerId, afterUserId, Limit.of(pageSize + 1)), pageSize);
+    }
+
+    private int pageSize(Integer limit) {
+        if (limit == null || limit <= 0) {
+            return Math.min(defaultPageSize, maxPageSize);
+        }
+        return Math.min(limit, maxPageSize);
+    }
+
+    // One extra row is fetched to learn whether another page exists
+    private CursorPage<FollowUserDTO> toPage(List<FollowUserDTO> rows, int pageSize, Long viewerId) {
+        String nextCursor = null;
+        if (rows.size() > pageSize) {
+            rows = rows.subList(0, pageSize);
+            FollowUserDTO last = rows.get(pageSize - 1);
+            nextCursor = new KeysetCursor(last.getFollowedAt(), last.getId()).encode();
+        }
+        markFollowed(rows, viewerId);
+        return new CursorPage<>(rows, nextCursor);
+    }
+
+    // One page of a sorted id list from the graph index, hydrated with a single query
+    private CursorPage<FollowUserDTO> idPage(long[] ids, long afterUserId, int pageSize) {
+        int from = Arrays.binarySearch(ids, afterUserId);
+        from = from >= 0 ? from + 1 : -from - 1;
+        int to = Math.min(ids.length, from + pageSize);
+        if (from >= to) {
+            return new CursorPage<>(List.of(), null);
+        }
+        List<FollowUserDTO> rows = userRepository.findFollowUsers(Arrays.stream(ids, from, to).boxed().toList());
+        rows.forEach(row -> row.setFollowed(true));
+        return new CursorPage<>(rows, to < ids.length ? String.valueOf(ids[to - 1]) : null);
+    }
+
+    // The SQL fallback fetches one extra row to learn whether another page exists
+    private CursorPage<FollowUserDTO> intersectionPage(List<FollowUserDTO> rows, int pageSize) {
+        String nextCursor = null;
+        if (rows.size() > pageSize) {
+            rows = rows.subList(0, pageSize);
+            nextCursor = String.valueOf(rows.get(pageSize - 1).getId());
+        }
+        rows.forEach(row -> row.setFollowed(true));
+        return new CursorPage<>(rows, nextCursor);
+    }
+
+    private void requireUser(Long userId) {
+        if (!userRepository.existsById(userId)) {
+            throw new RuntimeException("User not found");
+        }
+    }
+
+    // Both rows are updated only when both users exist; the exception rolls the one-sided update back
+    private void adjustFollowCounts(Long userId, Long followerUserId, long delta) {
+        if (userRepository.adjustFollowCounts(userId, followerUserId, delta) < 2) {
+            throw new RuntimeException("User not found");
+        }
+    }
+
+    // The viewer's follow state from the graph index, or one set query until it has loaded
+    private void markFollowed(List<FollowUserDTO> rows, Long viewerId) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        if (socialGraphIndex.isReady()) {
+            rows.forEach(row -> row.setFollowed(socialGraphIndex.isFollowing(viewerId, row.getId())));
+            return;
+        }
+        Set<Long> followed = followerRepository.findFollowedIdsAmong(viewerId,
+                rows.stream().map(FollowUserDTO::getId).toList());
+        rows.forEach(row -> row.setFollowed(followed.contains(row.getId())));
+    }
+}
@@ -1,66 +1,189 @@
 package com.skillshare.platform.services.impl;
 
+import com.skillshare.platform.dtos.CursorPage;
+import com.skillshare.platform.dtos.NotificationDTO;
 import com.skillshare.platform.models.Notification;
 import com.skillshare.platform.models.User;
+import com.skillshare.platform.repositories.NotificationActorRepository;
+import com.skillshare.platform.repositories.NotificationReadStateRepository;
 import com.skillshare.platform.repositories.NotificationRepository;
-import com.skillshare.platform.repositories.UserRepository;
 import com.skillshare.platform.services.NotificationService;
+import com.skillshare.platform.util.KeysetCursor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 
 @Service
 public class NotificationServiceImpl implements NotificationService {
 
+    private static final int SAMPLE_SENDERS = 3;
+    private static final int ACTOR_PURGE_CHUNK = 10_000;
+
     @Autowired
     private NotificationRepository notificationRepository;
     
     @Autowired
-    private UserRepository userRepository;
+    private NotificationReadStateRepository notificationReadStateRepository;
+
+    @Autowired
+    private UnreadNotificationCounters unreadNotificationCounters;
+
+    @Autowired
+    private NotificationStreams notificationStreams;
+
+    @Autowired
+    private NotificationActorRepository notificationActorRepository;
+
+    @Value("${spring.app.notificationCoalesceWindowMs:3600000}")
+    private long coalesceWindowMs;
+
+    @Value("${spring.app.notificationPageSize:20}")
+    private int defaultPageSize;
 
+    @Value("${spring.app.notificationPageMaxSize:100}")
+    private int maxPageSize;
+
+    // A coalesced type folds into the receiver's newest unread notification of that type started within the
+    // window, if there is one; an actor already counted there changes nothing. Only a new row changes the
+    // unread count.
     @Override
     @Transactional
-    public Notification createNotification(User receiver, User sender, String message, Notification.NotificationType type) {
+    public Notification createNotification(User receiver, User sender, String senderName,
+                                           Notification.NotificationType type) {
+        LocalDateTime now = LocalDateTime.now();
+        if (type.isCoalesced()) {
+            Notification group = findOpenGroup(receiver.getUserId(), type, now);
+            if (group != null) {
+                if (notificationActorRepository.insertIfAbsent(group.getId(), sender.getUserId(), now) == 1) {
+                    fold(group, sender, senderName);
+                    notificationStreams.updated(receiver.getUserId(), group.getId());
+                }
+                return group;
+            }
+        }
+
         Notification notification = new Notification();
         notification.setReceiver(receiver);
         notification.setSender(sender);
-        notification.setMessage(message);
+        notification.setSampleSenders(List.of(senderName));
+        notification.setMessage(type.describe(notification.getSampleSenders(), 1));
         notification.setType(type);
-        return notificationRepository.save(notification);
+        notification.setCreatedAt(now);
+        Notification saved = notificationRepository.save(notification);
+        if (type.isCoalesced()) {
+            notificationActorRepository.insertIfAbsent(saved.getId(), sender.getUserId(), now);
+        }
+        unreadNotificationCounters.increment(receiver.getUserId());
+        notificationStreams.changed(receiver.getUserId());
+        return saved;
+    }
+
+    @Override
+    public void recordInserted(Collection<Long> receiverIds) {
+        for (Long receiverId : receiverIds) {
+            unreadNotificationCounters.increment(receiverId);
+            notificationStreams.changed(receiverId);
+        }
+    }
+
+    // Actor rows only matter while their notification can still take actors
+    @Scheduled(fixedDelayString = "${spring.app.notificationActorPurgeMs:600000}", initialDelay = 600000)
+    public void purgeNotificationActors() {
+        LocalDateTime before = LocalDateTime.now().minus(Duration.ofMillis(coalesceWindowMs));
+        int deleted;
+        do {
+            deleted = notificationActorRepository.deleteOlderThan(before, ACTOR_PURGE_CHUNK);
+        } while (deleted == ACTOR_PURGE_CHUNK);
     }
 
+    // One query per page, with one extra row fetched to learn whether another page exists
     @Override
-    public List<Notification> getNotificationsForUser(Long userId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        return notificationRepository.findByReceiverOrderByCreatedAtDesc(user);
+    @Transactional(readOnly = true)
+    public CursorPage<NotificationDTO> getNotifications(Long userId, KeysetCursor before, Integer limit) {
+        int pageSize = limit == null || limit <= 0 ? Math.min(defaultPageSize, maxPageSize) : Math.min(limit, maxPageSize);
+        List<NotificationDTO> rows = notificationRepository.findPage(
+                userId, before.createdAt(), before.id(), Limit.of(pageSize + 1));
+
+        String nextCursor = null;
+        if (rows.size() > pageSize) {
+            rows = rows.subList(0, pageSize);
+            NotificationDTO last = rows.get(pageSize - 1);
+            nextCursor = new KeysetCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+        return new CursorPage<>(rows, nextCursor);
     }
 
     @Override
     @Transactional
-    public void markNotificationAsRead(Long notificationId) {
-        Notification notification = notificationRepository.findById(notificationId)
-                .orElseThrow(() -> new RuntimeException("Notification not found"));
-        notification.setRead(true);
-        notificationRepository.save(notification);
+    public void markNotificationAsRead(Long userId, Long notificationId) {
+        if (notificationRepository.markRead(notificationId, userId) == 1) {
+            unreadNotificationCounters.decrement(userId);
+            notificationStreams.changed(userId);
+        } else if (!notificationRepository.existsByIdAndReceiverUserId(notificationId, userId)) {
+            throw new RuntimeException("Notification not found");
+        }
     }
 
+    // Notifications newer than upToId stay unread, so the cached count is reloaded rather than zeroed
     @Override
     @Transactional
-    public void markAllNotificationsAsRead(Long userId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        List<Notification> notifications = notificationRepository.findByReceiverOrderByCreatedAtDesc(user);
-        notifications.forEach(notification -> notification.setRead(true));
-        notificationRepository.saveAll(notifications);
+    public void markAllNotificationsAsRead(Long userId, Long upToId) {
+        notificationReadStateRepository.advanceTo(userId, upToId != null ? upToId : Long.MAX_VALUE);
+        unreadNotificationCounters.invalidate(userId);
+        notificationStreams.changed(userId);
     }
 
+    // Not transactional: a cached count must not cost a connection checkout
     @Override
     public long getUnreadNotificationCount(Long userId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        return notificationRepository.countByReceiverAndIsReadFalse(user);
+        return unreadNotificationCounters.get(userId);
+    }
+
+    @Override
+    public SseEmitter openStream(Long userId, Long lastEventId) {
+        return notificationStreams.open(userId, lastEventId);
+    }
+
+    // Found without locking, then locked by primary key and re-checked, since it may have been read meanwhile:
+    // marked read on its own, or covered by a mark-all-read that moved the watermark past it
+    private Notification findOpenGroup(Long receiverId, Notification.NotificationType type, LocalDateTime now) {
+        List<Long> ids = notificationRepository.findOpenGroupIds(receiverId, type,
+                now.minus(Duration.ofMillis(coalesceWindowMs)), Limit.of(1));
+        if (ids.isEmpty()) {
+            return null;
+        }
+        return notificationRepository.findByIdForUpdate(ids.get(0))
+                .filter(group -> !group.isRead() && group.getId()
+                        > notificationReadStateRepository.findLastReadIdForShare(receiverId).orElse(0L))
+                .orElse(null);
+    }
+
+    private static void fold(Notification group, User sender, String senderName) {
+        List<String> previous = group.getSampleSenders() != null ? group.getSampleSenders()
+                : List.of(group.getSender().getUserName());
+        List<String> samples = new ArrayList<>(SAMPLE_SENDERS);
+        samples.add(senderName);
+        for (String name : previous) {
+            if (samples.size() == SAMPLE_SENDERS) {
+                break;
+            }
+            if (!name.equals(senderName)) {
+                samples.add(name);
+            }
+        }
+        group.setSender(sender);
+        group.setActorCount(group.getActorCount() + 1);
+        group.setSampleSenders(samples);
+        group.setMessage(group.getType().describe(samples, group.getActorCount()));
     }
-}
\ No newline at end of file
+}
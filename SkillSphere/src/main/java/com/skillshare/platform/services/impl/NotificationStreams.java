@@ -0,0 +1,435 @@
+package com.skillshare.platform.services.impl;
+
+import com.skillshare.platform.dtos.NotificationDTO;
+import com.skillshare.platform.repositories.NotificationRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Open server-sent event streams, pushing each user's new notifications and unread count changes.
+ * <p>
+ * Writers only signal that a user's notifications changed, after their transaction commits. If that user
+ * has a stream open, a small refresh pool reads everything newer than what each of their streams has been sent
+ * (one indexed query per signal, with bursts coalesced) and queues it. The same read replays what a reconnecting
+ * client missed after its Last-Event-ID. Each stream has a bounded buffer drained by a separate drain pool, so a
+ * client whose socket stalls a write only holds a drain thread and never delays the queries. A stream whose
+ * buffer fills, because its client reads too slowly, is closed. The client reconnects and resumes. Idle streams
+ * hold no thread, only a socket and a few small objects.
+ * <p>
+ * Ids are allocated before their rows commit, so a notification can become visible after one with a higher id
+ * was already sent. Every read therefore also looks back over the notifications created in the last
+ * notificationStreamLookBackMs, and each stream remembers which of those it sent. A late one goes out without an
+ * event id, so the client's Last-Event-ID stays at the newest notification it has seen. A reconnect replays the
+ * look-back window as well, so the client may receive a notification it already has and should de-duplicate by
+ * id.
+ * <p>
+ * Signals only reach streams on the node that made the write. Streams on other nodes catch up through poll(),
+ * which checks the newest notification id of every user with a stream here in batched queries, and compares
+ * each user's cached unread count with what their streams were sent. New notifications from other nodes
+ * therefore arrive within notificationStreamPollMs, and count changes once UnreadNotificationCounters has
+ * reconciled. In-place updates of an already sent notification (updated()) are only pushed by the node that
+ * made them; other nodes' clients see them on their next feed reload.
+ */
+@Component
+public class NotificationStreams {
+
+    private static final Logger logger = LoggerFactory.getLogger(NotificationStreams.class);
+
+    public static final String NOTIFICATION_EVENT = "notification";
+    public static final String UNREAD_COUNT_EVENT = "unread-count";
+    // Sent instead of a replay that would exceed replayLimit; the client should reload the feed over REST
+    public static final String RESYNC_EVENT = "resync";
+
+    @Autowired
+    NotificationRepository notificationRepository;
+
+    @Autowired
+    UnreadNotificationCounters unreadNotificationCounters;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Value("${spring.app.notificationStreamTimeoutMs:900000}")
+    private long timeoutMs;
+
+    @Value("${spring.app.notificationStreamBufferSize:64}")
+    private int bufferSize;
+
+    @Value("${spring.app.notificationStreamMaxConnections:20000}")
+    private int maxConnections;
+
+    @Value("${spring.app.notificationStreamMaxPerUser:5}")
+    private int maxPerUser;
+
+    @Value("${spring.app.notificationStreamReplayLimit:100}")
+    private int replayLimit;
+
+    @Value("${spring.app.notificationStreamDrainThreads:4}")
+    private int drainThreads;
+
+    @Value("${spring.app.notificationStreamRefreshThreads:2}")
+    private int refreshThreads;
+
+    @Value("${spring.app.notificationStreamPollBatch:500}")
+    private int pollBatch;
+
+    @Value("${spring.app.notificationStreamLookBackMs:60000}")
+    private long lookBackMs;
+
+    private final Map<Long, UserStreams> streams = new ConcurrentHashMap<>();
+    private final AtomicInteger connections = new AtomicInteger();
+    private ThreadPoolExecutor refreshExecutor;
+    private ThreadPoolExecutor drainExecutor;
+    private Counter evictions;
+
+    private static final class UserStreams {
+        final List<Connection> connections = new CopyOnWriteArrayList<>();
+        final AtomicBoolean refreshPending = new AtomicBoolean();
+        // Notifications changed in place since the last refresh
+        final Set<Long> updatedIds = ConcurrentHashMap.newKeySet();
+    }
+
+    private static final class Connection {
+        final long userId;
+        final SseEmitter emitter;
+        final BlockingQueue<SseEmitter.SseEventBuilder> buffer;
+        final AtomicBoolean draining = new AtomicBoolean();
+        final AtomicBoolean closed = new AtomicBoolean();
+        // Notifications created before this were never this stream's to send (the client loaded them over REST)
+        final LocalDateTime lookBackFloor;
+        // Written only under the owning UserStreams' monitor; poll() reads them without it
+        volatile long lastSentId;
+        volatile long lastSentCount = -1;
+        // Sent notifications still inside the look-back window, with their creation time; guarded like lastSentId
+        final Map<Long, LocalDateTime> recentIds = new HashMap<>();
+
+        Connection(long userId, SseEmitter emitter, int bufferSize, long lastSentId, LocalDateTime lookBackFloor) {
+            this.userId = userId;
+            this.emitter = emitter;
+            this.buffer = new ArrayBlockingQueue<>(bufferSize);
+            this.lastSentId = lastSentId;
+            this.lookBackFloor = lookBackFloor;
+        }
+    }
+
+    @PostConstruct
+    void init() {
+        // Queued tasks are bounded by users with streams (one refresh each) and by open streams (one drain each)
+        refreshExecutor = newExecutor("notification-stream-refresh-", refreshThreads);
+        drainExecutor = newExecutor("notification-stream-drain-", drainThreads);
+        evictions = Counter.builder("notifications.stream.evicted")
+                .description("Streams closed because their client fell a full buffer behind")
+                .register(meterRegistry);
+        Gauge.builder("notifications.stream.connections", connections, AtomicInteger::get).register(meterRegistry);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        refreshExecutor.shutdownNow();
+        drainExecutor.shutdownNow();
+        streams.values().forEach(user -> user.connections.forEach(this::close));
+    }
+
+    /**
+     * Opens a stream for the user. Without lastEventId it starts at their newest notification; with it,
+     * everything after that notification is replayed first. The current unread count is always sent.
+     *
+     * @throws IllegalStateException if this node already holds maxConnections streams
+     */
+    public SseEmitter open(long userId, Long lastEventId) {
+        if (connections.incrementAndGet() > maxConnections) {
+            connections.decrementAndGet();
+            throw new IllegalStateException("Too many open notification streams");
+        }
+        SseEmitter emitter = createEmitter();
+        Connection connection;
+        try {
+            long startAfter = lastEventId != null ? lastEventId : notificationRepository.findLatestId(userId);
+            LocalDateTime lookBackFloor = lastEventId != null ? LocalDateTime.MIN : LocalDateTime.now();
+            connection = new Connection(userId, emitter, bufferSize, startAfter, lookBackFloor);
+        } catch (RuntimeException e) {
+            connections.decrementAndGet();
+            throw e;
+        }
+        emitter.onCompletion(() -> remove(connection));
+        emitter.onTimeout(() -> remove(connection));
+        emitter.onError(e -> remove(connection));
+
+        UserStreams user = streams.compute(userId, (id, existing) -> {
+            UserStreams current = existing != null ? existing : new UserStreams();
+            current.connections.add(connection);
+            return current;
+        });
+        // Oldest first, e.g. tabs the user has long since forgotten
+        List<Connection> open = List.copyOf(user.connections);
+        for (int i = 0; i < open.size() - maxPerUser; i++) {
+            close(open.get(i));
+        }
+        requestRefresh(userId);
+        return emitter;
+    }
+
+    // The user's notifications or unread count changed; takes effect once the surrounding transaction commits
+    public void changed(long userId) {
+        afterCommit(() -> requestRefresh(userId));
+    }
+
+    // A notification changed in place, e.g. a coalesced one took another actor. Streams that already sent it get
+    // it again without an event id, so their Last-Event-ID stays put.
+    public void updated(long userId, long notificationId) {
+        afterCommit(() -> {
+            UserStreams user = streams.get(userId);
+            if (user != null) {
+                user.updatedIds.add(notificationId);
+                requestRefresh(userId);
+            }
+        });
+    }
+
+    // Picks up notifications and unread counts changed by writes on other nodes, which never call changed() here
+    @Scheduled(fixedDelayString = "${spring.app.notificationStreamPollMs:5000}",
+            initialDelayString = "${spring.app.notificationStreamPollMs:5000}")
+    public void poll() {
+        List<Long> userIds = new ArrayList<>(streams.keySet());
+        for (int from = 0; from < userIds.size(); from += pollBatch) {
+            List<Long> batch = userIds.subList(from, Math.min(from + pollBatch, userIds.size()));
+            Map<Long, Long> latestIds = new HashMap<>();
+            try {
+                for (Object[] row : notificationRepository.findLatestIdsByReceivers(batch)) {
+                    latestIds.put((Long) row[0], (Long) row[1]);
+                }
+                for (Long userId : batch) {
+                    UserStreams user = streams.get(userId);
+                    if (user != null && isBehind(user, latestIds.getOrDefault(userId, 0L),
+                            unreadNotificationCounters.get(userId))) {
+                        requestRefresh(userId);
+                    }
+                }
+            } catch (RuntimeException e) {
+                logger.warn("Could not poll notification streams: {}", e.getMessage());
+                return;
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${spring.app.notificationStreamHeartbeatMs:25000}")
+    public void heartbeat() {
+        for (UserStreams user : streams.values()) {
+            for (Connection connection : user.connections) {
+                send(connection, SseEmitter.event().comment("heartbeat"));
+            }
+        }
+    }
+
+    public int connectionCount() {
+        return connections.get();
+    }
+
+    // Overridden by tests to capture what is sent
+    SseEmitter createEmitter() {
+        return new SseEmitter(timeoutMs);
+    }
+
+    private static boolean isBehind(UserStreams user, long latestId, long count) {
+        for (Connection connection : user.connections) {
+            if (connection.lastSentId < latestId || connection.lastSentCount != count) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void requestRefresh(long userId) {
+        UserStreams user = streams.get(userId);
+        if (user == null || !user.refreshPending.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            refreshExecutor.execute(() -> refresh(userId, user));
+        } catch (RejectedExecutionException e) {
+            user.refreshPending.set(false);
+        }
+    }
+
+    // Changes signalled while this runs schedule another refresh, so nothing committed is missed
+    private void refresh(long userId, UserStreams user) {
+        user.refreshPending.set(false);
+        synchronized (user) {
+            List<Connection> open = user.connections;
+            if (open.isEmpty()) {
+                return;
+            }
+            try {
+                long after = Long.MAX_VALUE;
+                for (Connection connection : open) {
+                    after = Math.min(after, connection.lastSentId);
+                }
+                LocalDateTime lookBack = LocalDateTime.now().minus(Duration.ofMillis(lookBackMs));
+                List<NotificationDTO> rows = notificationRepository.findSince(userId, after, lookBack,
+                        Limit.of(replayLimit + 1));
+                List<Long> updatedIds = List.copyOf(user.updatedIds);
+                updatedIds.forEach(user.updatedIds::remove);
+                List<NotificationDTO> updated = updatedIds.isEmpty() ? List.of()
+                        : notificationRepository.findByIds(userId, updatedIds);
+                long count = unreadNotificationCounters.get(userId);
+                long latestId = rows.size() > replayLimit ? notificationRepository.findLatestId(userId) : 0;
+
+                for (Connection connection : open) {
+                    connection.recentIds.values().removeIf(createdAt -> createdAt.isBefore(lookBack));
+                    for (NotificationDTO row : updated) {
+                        if (row.getId() <= connection.lastSentId) {
+                            send(connection, SseEmitter.event().name(NOTIFICATION_EVENT).data(row));
+                        }
+                    }
+                    if (rows.size() > replayLimit) {
+                        connection.lastSentId = latestId;
+                        send(connection, SseEmitter.event().name(RESYNC_EVENT).data(Map.of()));
+                    } else {
+                        for (NotificationDTO row : rows) {
+                            if (row.getId() > connection.lastSentId) {
+                                connection.lastSentId = row.getId();
+                                remember(connection, row, lookBack);
+                                send(connection, SseEmitter.event()
+                                        .id(String.valueOf(row.getId()))
+                                        .name(NOTIFICATION_EVENT)
+                                        .data(row));
+                            } else if (!row.getCreatedAt().isBefore(connection.lookBackFloor)
+                                    && remember(connection, row, lookBack)) {
+                                // Committed after a newer notification was sent
+                                send(connection, SseEmitter.event().name(NOTIFICATION_EVENT).data(row));
+                            }
+                        }
+                    }
+                    if (count != connection.lastSentCount) {
+                        connection.lastSentCount = count;
+                        send(connection, SseEmitter.event().name(UNREAD_COUNT_EVENT).data(Map.of("count", count)));
+                    }
+                }
+            } catch (RuntimeException e) {
+                logger.warn("Could not refresh notification streams for user {}: {}", userId, e.getMessage());
+            }
+        }
+    }
+
+    // Records a sent notification that later look-back reads will return again; false if it was already sent
+    private static boolean remember(Connection connection, NotificationDTO row, LocalDateTime lookBack) {
+        if (row.getCreatedAt().isBefore(lookBack)) {
+            return true;
+        }
+        return connection.recentIds.putIfAbsent(row.getId(), row.getCreatedAt()) == null;
+    }
+
+    private void send(Connection connection, SseEmitter.SseEventBuilder event) {
+        if (connection.closed.get()) {
+            return;
+        }
+        if (!connection.buffer.offer(event)) {
+            evictions.increment();
+            logger.debug("Closing notification stream for user {}: client is {} events behind",
+                    connection.userId, bufferSize);
+            close(connection);
+            return;
+        }
+        if (connection.draining.compareAndSet(false, true)) {
+            try {
+                drainExecutor.execute(() -> drain(connection));
+            } catch (RejectedExecutionException e) {
+                connection.draining.set(false);
+            }
+        }
+    }
+
+    private void drain(Connection connection) {
+        try {
+            while (true) {
+                SseEmitter.SseEventBuilder event;
+                while (!connection.closed.get() && (event = connection.buffer.poll()) != null) {
+                    connection.emitter.send(event);
+                }
+                connection.draining.set(false);
+                // An event queued after the last poll but before the flag was cleared would otherwise wait
+                if (connection.buffer.isEmpty() || connection.closed.get()
+                        || !connection.draining.compareAndSet(false, true)) {
+                    return;
+                }
+            }
+        } catch (IOException | IllegalStateException e) {
+            // The client went away or the emitter already completed
+            remove(connection);
+        }
+    }
+
+    private void close(Connection connection) {
+        if (remove(connection)) {
+            connection.emitter.complete();
+        }
+    }
+
+    private boolean remove(Connection connection) {
+        if (!connection.closed.compareAndSet(false, true)) {
+            return false;
+        }
+        connections.decrementAndGet();
+        connection.buffer.clear();
+        streams.computeIfPresent(connection.userId, (id, user) -> {
+            user.connections.remove(connection);
+            return user.connections.isEmpty() ? null : user;
+        });
+        return true;
+    }
+
+    private static ThreadPoolExecutor newExecutor(String namePrefix, int threads) {
+        AtomicInteger threadCount = new AtomicInteger();
+        return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, namePrefix + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -0,0 +1,308 @@
+package com.skillshare.platform.services.impl;
+
+import com.skillshare.platform.dtos.RecommendationDTO;
+import com.skillshare.platform.graph.LongIntHashMap;
+import com.skillshare.platform.graph.SocialGraphIndex;
+import com.skillshare.platform.models.AppRole;
+import com.skillshare.platform.models.User;
+import com.skillshare.platform.repositories.UserRepository;
+import com.skillshare.platform.services.RecommendationService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Friends-of-friends recommendations computed on {@link SocialGraphIndex}. A candidate's score is
+ * the number of the viewer's followees who follow them; users the viewer already follows, the viewer
+ * and admins are excluded. Counting fans out over the viewer's followees on a fork/join pool.
+ * <p>
+ * Results are cached per viewer. When the viewer follows or unfollows someone their entry is dropped;
+ * when someone they follow does, the affected candidate's score in their cached list is adjusted in
+ * place, and anything else is picked up when the entry expires.
+ */
+@Service
+public class RecommendationServiceImpl implements RecommendationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RecommendationServiceImpl.class);
+
+    // Followees per fork/join leaf
+    private static final int LEAF_SIZE = 64;
+
+    @Autowired
+    SocialGraphIndex socialGraphIndex;
+
+    @Autowired
+    UserRepository userRepository;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Value("${spring.app.recommendationLimit:20}")
+    private int defaultLimit;
+
+    @Value("${spring.app.recommendationMaxLimit:50}")
+    private int maxLimit;
+
+    @Value("${spring.app.recommendationCacheTtlMs:600000}")
+    private long cacheTtlMs;
+
+    @Value("${spring.app.recommendationCacheMaxSize:10000}")
+    private int cacheMaxSize;
+
+    @Value("${spring.app.recommendationBudgetMs:30}")
+    private long budgetMs;
+
+    private final Map<Long, Cached> cache = new ConcurrentHashMap<>();
+    private final ForkJoinPool pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+    private Timer computeTimer;
+
+    private record Cached(List<RecommendationDTO> items, long expiresAt) {
+    }
+
+    @PostConstruct
+    void init() {
+        computeTimer = Timer.builder("recommendations.compute")
+                .publishPercentiles(0.5, 0.99)
+                .serviceLevelObjectives(Duration.ofMillis(budgetMs))
+                .register(meterRegistry);
+        socialGraphIndex.addListener(this::onGraphChange);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        pool.shutdownNow();
+    }
+
+    @Override
+    public List<RecommendationDTO> getRecommendations(Long userId, Integer limit) {
+        int size = limit == null || limit <= 0 ? Math.min(defaultLimit, maxLimit) : Math.min(limit, maxLimit);
+        if (!socialGraphIndex.isReady()) {
+            return List.of();
+        }
+
+        long now = System.currentTimeMillis();
+        Cached cached = cache.get(userId);
+        if (cached == null || cached.expiresAt() <= now) {
+            long start = System.nanoTime();
+            List<RecommendationDTO> items = compute(userId);
+            long elapsed = System.nanoTime() - start;
+            computeTimer.record(elapsed, TimeUnit.NANOSECONDS);
+            if (elapsed > TimeUnit.MILLISECONDS.toNanos(budgetMs)) {
+                logger.debug("Recommendations for user {} took {} ms", userId, TimeUnit.NANOSECONDS.toMillis(elapsed));
+            }
+
+            if (cache.size() >= cacheMaxSize) {
+                cache.values().removeIf(entry -> entry.expiresAt() <= now);
+                if (cache.size() >= cacheMaxSize) {
+                    cache.clear();
+                }
+            }
+            cached = new Cached(items, now + cacheTtlMs);
+            cache.put(userId, cached);
+        }
+        List<RecommendationDTO> items = cached.items();
+        return items.size() <= size ? items : items.subList(0, size);
+    }
+
+    private List<RecommendationDTO> compute(long userId) {
+        long[] followees = socialGraphIndex.following(userId);
+        if (followees.length == 0) {
+            return List.of();
+        }
+        LongIntHashMap scores = pool.invoke(new CountTask(followees, 0, followees.length));
+
+        // A few spare candidates so that dropping admins still leaves a full list
+        int wanted = maxLimit + Math.max(4, maxLimit / 4);
+        long[] topIds = topByScore(scores, wanted, userId, followees);
+        if (topIds.length == 0) {
+            return List.of();
+        }
+
+        Map<Long, User> users = userRepository.findAllById(Arrays.stream(topIds).boxed().toList()).stream()
+                .collect(Collectors.toMap(User::getUserId, Function.identity()));
+        List<RecommendationDTO> result = new ArrayList<>(maxLimit);
+        for (long id : topIds) {
+            User user = users.get(id);
+            if (user == null || user.getRole().getRoleName() == AppRole.ROLE_ADMIN) {
+                continue;
+            }
+            result.add(new RecommendationDTO(user.getUserId(), user.getUserName(), user.getBio(),
+                    user.getProfilePicture(), scores.get(id)));
+            if (result.size() == maxLimit) {
+                break;
+            }
+        }
+        return List.copyOf(result);
+    }
+
+    // The k best-scoring candidates, best first (ties go to the lower id), via a bounded min-heap.
+    // The viewer and the users they already follow are skipped here, once per distinct candidate,
+    // rather than on every increment; followees is sorted, so that check is a binary search.
+    private static long[] topByScore(LongIntHashMap scores, int k, long userId, long[] followees) {
+        long[] heapIds = new long[k];
+        int[] heapScores = new int[k];
+        int[] size = {0};
+        scores.forEach((id, score) -> {
+            if (id == userId || Arrays.binarySearch(followees, id) >= 0) {
+                return;
+            }
+            if (size[0] < k) {
+                int i = size[0]++;
+                heapIds[i] = id;
+                heapScores[i] = score;
+                siftUp(heapIds, heapScores, i);
+            } else if (better(score, id, heapScores[0], heapIds[0])) {
+                heapIds[0] = id;
+                heapScores[0] = score;
+                siftDown(heapIds, heapScores, 0, k);
+            }
+        });
+
+        int n = size[0];
+        long[] result = new long[n];
+        for (int last = n - 1; last >= 0; last--) {
+            result[last] = heapIds[0];
+            heapIds[0] = heapIds[last];
+            heapScores[0] = heapScores[last];
+            siftDown(heapIds, heapScores, 0, last);
+        }
+        return result;
+    }
+
+    private static boolean better(int score, long id, int otherScore, long otherId) {
+        return score > otherScore || (score == otherScore && id < otherId);
+    }
+
+    private static void siftUp(long[] ids, int[] scores, int i) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!better(scores[parent], ids[parent], scores[i], ids[i])) {
+                break;
+            }
+            swap(ids, scores, i, parent);
+            i = parent;
+        }
+    }
+
+    private static void siftDown(long[] ids, int[] scores, int i, int size) {
+        while (true) {
+            int left = 2 * i + 1;
+            if (left >= size) {
+                return;
+            }
+            int worst = left;
+            int right = left + 1;
+            if (right < size && better(scores[left], ids[left], scores[right], ids[right])) {
+                worst = right;
+            }
+            if (!better(scores[i], ids[i], scores[worst], ids[worst])) {
+                return;
+            }
+            swap(ids, scores, i, worst);
+            i = worst;
+        }
+    }
+
+    private static void swap(long[] ids, int[] scores, int a, int b) {
+        long id = ids[a];
+        ids[a] = ids[b];
+        ids[b] = id;
+        int score = scores[a];
+        scores[a] = scores[b];
+        scores[b] = score;
+    }
+
+    // followerUserId started (or stopped) following userId
+    private void onGraphChange(long userId, long followerUserId, boolean follow) {
+        cache.remove(followerUserId);
+
+        // Viewers who follow followerUserId see userId's score move by one
+        int delta = follow ? 1 : -1;
+        if (cache.size() <= socialGraphIndex.followerCount(followerUserId)) {
+            for (Long viewerId : cache.keySet()) {
+                if (socialGraphIndex.isFollowing(viewerId, followerUserId)) {
+                    adjust(viewerId, userId, delta);
+                }
+            }
+        } else {
+            for (long viewerId : socialGraphIndex.followers(followerUserId)) {
+                adjust(viewerId, userId, delta);
+            }
+        }
+    }
+
+    private void adjust(long viewerId, long candidateId, int delta) {
+        cache.computeIfPresent(viewerId, (id, cached) -> {
+            List<RecommendationDTO> items = new ArrayList<>(cached.items().size());
+            boolean changed = false;
+            for (RecommendationDTO item : cached.items()) {
+                if (item.getUserId() == candidateId) {
+                    changed = true;
+                    int score = item.getSharedFollowees() + delta;
+                    if (score > 0) {
+                        items.add(new RecommendationDTO(item.getUserId(), item.getUserName(), item.getBio(),
+                                item.getProfilePicture(), score));
+                    }
+                } else {
+                    items.add(item);
+                }
+            }
+            if (!changed) {
+                return cached;
+            }
+            items.sort(Comparator.comparingInt(RecommendationDTO::getSharedFollowees).reversed()
+                    .thenComparingLong(RecommendationDTO::getUserId));
+            return new Cached(List.copyOf(items), cached.expiresAt());
+        });
+    }
+
+    private final class CountTask extends RecursiveTask<LongIntHashMap> {
+        private final long[] followees;
+        private final int from;
+        private final int to;
+
+        CountTask(long[] followees, int from, int to) {
+            this.followees = followees;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected LongIntHashMap compute() {
+            if (to - from <= LEAF_SIZE) {
+                LongIntHashMap counts = new LongIntHashMap();
+                for (int i = from; i < to; i++) {
+                    socialGraphIndex.forEachFollowing(followees[i], candidate -> counts.increment(candidate, 1));
+                }
+                return counts;
+            }
+            int mid = (from + to) >>> 1;
+            CountTask left = new CountTask(followees, from, mid);
+            left.fork();
+            LongIntHashMap right = new CountTask(followees, mid, to).compute();
+            LongIntHashMap leftCounts = left.join();
+            // Fold the smaller map into the larger one
+            if (leftCounts.size() < right.size()) {
+                right.addAll(leftCounts);
+                return right;
+            }
+            leftCounts.addAll(right);
+            return leftCounts;
+        }
+    }
+}
@@ -0,0 +1,311 @@
+package com.skillshare.platform.services.impl;
+
+import com.skillshare.platform.repositories.NotificationRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-user unread notification counts held in memory, so the navbar's polling never reaches the database
+ * once a user's count is known.
+ * <p>
+ * A count is loaded from the database on first use and then adjusted by the notification write paths once
+ * their transaction commits. A load starts by parking a placeholder in the map; any write that arrives while
+ * it is in flight spoils it and the loaded value is returned without being cached, so a count is never
+ * cached missing a write it raced with. Writes are also tracked from the moment they are made until their
+ * adjustment has been applied: a row may be committed, and so counted by a load, before its adjustment runs,
+ * so a load that finishes while a write for that user is pending is not cached either. Otherwise the
+ * adjustment would be applied on top of a count that already includes it.
+ * <p>
+ * Counts are per node and only see this node's writes, so each entry is reloaded on the first read after it is
+ * unreadCountTtlMs old; that bounds how stale a count can be after writes on other nodes (or writes that bypass
+ * the service). Every unreadCountReconcileMs the entries read since the previous pass are recounted in batches,
+ * which renews them without a query per user, and entries nobody read are dropped rather than recounted. The
+ * map is bounded by dropping the least recently read entries.
+ */
+@Component
+public class UnreadNotificationCounters {
+
+    private static final Logger logger = LoggerFactory.getLogger(UnreadNotificationCounters.class);
+
+    // Placeholder states; real counts are never negative
+    private static final long LOADING = -1;
+    private static final long SPOILED = -2;
+
+    @Autowired
+    NotificationRepository notificationRepository;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Value("${spring.app.unreadCountCacheMaxSize:100000}")
+    private int maxSize;
+
+    @Value("${spring.app.unreadCountTtlMs:300000}")
+    private long ttlMs;
+
+    @Value("${spring.app.unreadCountReconcileBatch:500}")
+    private int reconcileBatch;
+
+    private final Map<Long, Counter> counters = new ConcurrentHashMap<>();
+    // Users with writes made in an open transaction whose adjustment has not been applied yet
+    private final Map<Long, Integer> pendingWrites = new ConcurrentHashMap<>();
+    private final AtomicBoolean evicting = new AtomicBoolean();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private volatile long lastReconcile = System.nanoTime();
+
+    private static final class Counter {
+        final AtomicLong value;
+        // When the load started, so a write from another node committed during it still expires the entry
+        final long loadedAt = System.nanoTime();
+        volatile long lastRead = loadedAt;
+
+        Counter(long value) {
+            this.value = new AtomicLong(value);
+        }
+    }
+
+    private record Candidate(Long userId, Counter counter, long lastRead) {
+    }
+
+    @PostConstruct
+    void init() {
+        FunctionCounter.builder("notifications.unread.cache", hits, LongAdder::sum)
+                .tag("result", "hit")
+                .register(meterRegistry);
+        FunctionCounter.builder("notifications.unread.cache", misses, LongAdder::sum)
+                .tag("result", "miss")
+                .register(meterRegistry);
+        Gauge.builder("notifications.unread.cache.size", counters, Map::size)
+                .register(meterRegistry);
+    }
+
+    public long get(long userId) {
+        Counter counter = counters.get(userId);
+        long now = System.nanoTime();
+        if (counter != null) {
+            long value = counter.value.get();
+            if (value >= 0 && now - counter.loadedAt < TimeUnit.MILLISECONDS.toNanos(ttlMs)) {
+                counter.lastRead = now;
+                hits.increment();
+                return value;
+            }
+        }
+
+        misses.increment();
+        Counter placeholder = new Counter(LOADING);
+        if (counter != null) {
+            // An expired count is swapped for a placeholder and reloaded; a placeholder means someone else is
+            // already loading this user's count
+            if (counter.value.get() < 0 || !counters.replace(userId, counter, placeholder)) {
+                return notificationRepository.countUnread(userId);
+            }
+        } else {
+            if (counters.size() >= maxSize) {
+                shrink();
+            }
+            if (counters.putIfAbsent(userId, placeholder) != null) {
+                return notificationRepository.countUnread(userId);
+            }
+        }
+        long count;
+        try {
+            count = notificationRepository.countUnread(userId);
+        } catch (RuntimeException e) {
+            counters.remove(userId, placeholder);
+            throw e;
+        }
+        install(userId, placeholder, count);
+        return count;
+    }
+
+    // New unread notifications for the user, applied once the surrounding transaction commits
+    public void increment(long userId) {
+        afterCommit(userId, () -> adjust(userId, 1));
+    }
+
+    public void decrement(long userId) {
+        afterCommit(userId, () -> adjust(userId, -1));
+    }
+
+    // The count changed by an amount only the database knows; the next read loads it again
+    public void invalidate(long userId) {
+        afterCommit(userId, () -> {
+            Counter counter = counters.get(userId);
+            if (counter != null && !spoil(counter)) {
+                counters.remove(userId, counter);
+            }
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${spring.app.unreadCountReconcileMs:600000}",
+            initialDelayString = "${spring.app.unreadCountReconcileMs:600000}")
+    public void reconcile() {
+        long since = lastReconcile;
+        lastReconcile = System.nanoTime();
+        List<Long> userIds = new ArrayList<>();
+        int dropped = 0;
+        for (Map.Entry<Long, Counter> entry : counters.entrySet()) {
+            Counter counter = entry.getValue();
+            if (counter.lastRead - since >= 0) {
+                userIds.add(entry.getKey());
+            } else if (counter.value.get() >= 0 && counters.remove(entry.getKey(), counter)) {
+                // Idle: loaded again on the next read instead of recounted now
+                dropped++;
+            }
+        }
+        int corrected = 0;
+        for (int from = 0; from < userIds.size(); from += reconcileBatch) {
+            corrected += reconcile(userIds.subList(from, Math.min(from + reconcileBatch, userIds.size())));
+        }
+        logger.debug("Reconciled {} recently read unread counts, {} corrected, {} idle dropped",
+                userIds.size(), corrected, dropped);
+    }
+
+    // Swaps each entry for a placeholder, recounts the batch in one query and installs the results unless a
+    // write raced with the recount (that user is simply loaded again on their next poll)
+    private int reconcile(List<Long> userIds) {
+        Map<Long, Counter> placeholders = new HashMap<>();
+        Map<Long, Long> previous = new HashMap<>();
+        for (Long userId : userIds) {
+            Counter current = counters.get(userId);
+            if (current == null || current.value.get() < 0) {
+                continue;
+            }
+            Counter placeholder = new Counter(LOADING);
+            placeholder.lastRead = current.lastRead;
+            if (counters.replace(userId, current, placeholder)) {
+                placeholders.put(userId, placeholder);
+                previous.put(userId, current.value.get());
+            }
+        }
+        if (placeholders.isEmpty()) {
+            return 0;
+        }
+
+        Map<Long, Long> counts = new HashMap<>();
+        try {
+            for (Object[] row : notificationRepository.countUnreadByReceivers(placeholders.keySet())) {
+                counts.put((Long) row[0], (Long) row[1]);
+            }
+        } catch (RuntimeException e) {
+            placeholders.forEach(counters::remove);
+            throw e;
+        }
+
+        int corrected = 0;
+        for (Map.Entry<Long, Counter> entry : placeholders.entrySet()) {
+            long count = counts.getOrDefault(entry.getKey(), 0L);
+            if (install(entry.getKey(), entry.getValue(), count) && count != previous.get(entry.getKey())) {
+                corrected++;
+            }
+        }
+        return corrected;
+    }
+
+    public int size() {
+        return counters.size();
+    }
+
+    // Caches a loaded count unless a write spoiled the placeholder during the load or is still pending. A pending
+    // write may already be in the count, and its adjustment would then be applied a second time.
+    private boolean install(long userId, Counter placeholder, long count) {
+        if (!pendingWrites.containsKey(userId) && placeholder.value.compareAndSet(LOADING, count)) {
+            return true;
+        }
+        counters.remove(userId, placeholder);
+        return false;
+    }
+
+    private void adjust(long userId, long delta) {
+        Counter counter = counters.get(userId);
+        if (counter == null) {
+            return;
+        }
+        while (true) {
+            long value = counter.value.get();
+            if (value < 0) {
+                spoil(counter);
+                return;
+            }
+            if (counter.value.compareAndSet(value, Math.max(0, value + delta))) {
+                return;
+            }
+        }
+    }
+
+    // Spoils an in-flight load; returns false if the counter holds a real count instead
+    private static boolean spoil(Counter counter) {
+        while (true) {
+            long value = counter.value.get();
+            if (value >= 0) {
+                return false;
+            }
+            if (value == SPOILED || counter.value.compareAndSet(LOADING, SPOILED)) {
+                return true;
+            }
+        }
+    }
+
+    // Drops the least recently read tenth of the entries
+    private void shrink() {
+        if (!evicting.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            // Snapshot the read times so concurrent reads can't reorder entries mid-sort
+            List<Candidate> candidates = new ArrayList<>(counters.size());
+            counters.forEach((userId, counter) -> candidates.add(new Candidate(userId, counter, counter.lastRead)));
+            candidates.sort(Comparator.comparingLong(Candidate::lastRead));
+            int toDrop = candidates.size() - maxSize * 9 / 10;
+            for (int i = 0; i < toDrop; i++) {
+                counters.remove(candidates.get(i).userId(), candidates.get(i).counter());
+            }
+        } finally {
+            evicting.set(false);
+        }
+    }
+
+    // The write stays pending until its adjustment has run (or its transaction rolled back), so no load that
+    // could have counted its row gets cached before the adjustment lands
+    private void afterCommit(long userId, Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        pendingWrites.merge(userId, 1, Integer::sum);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                try {
+                    if (status == STATUS_COMMITTED) {
+                        action.run();
+                    }
+                } finally {
+                    pendingWrites.computeIfPresent(userId, (id, pending) -> pending > 1 ? pending - 1 : null);
+                }
+            }
+        });
+    }
+}
@@ -1,11 +1,14 @@
 package com.skillshare.platform.services.impl;
 
 import com.skillshare.platform.dtos.UserDTO;
+import com.skillshare.platform.graph.SocialGraphIndex;
 import com.skillshare.platform.models.PasswordResetToken;
 import com.skillshare.platform.repositories.FollowerRepository;
 import com.skillshare.platform.repositories.PasswordResetTokenRepository;
 import com.skillshare.platform.repositories.RoleRepository;
 import com.skillshare.platform.repositories.UserRepository;
+import com.skillshare.platform.security.services.PasswordHashingRejectedException;
+import com.skillshare.platform.security.services.UserSecurityVersionService;
 import com.skillshare.platform.services.CloudinaryService;
 import com.skillshare.platform.services.TotpService;
 import com.skillshare.platform.services.UserService;
@@ -25,6 +28,7 @@ import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -46,6 +50,9 @@ public class UserServiceImpl implements UserService {
     @Autowired
     FollowerRepository followerRepository;
 
+    @Autowired
+    SocialGraphIndex socialGraphIndex;
+
     @Autowired
     PasswordResetTokenRepository passwordResetTokenRepository;
 
@@ -58,6 +65,9 @@ public class UserServiceImpl implements UserService {
     @Autowired
     private CloudinaryService cloudinaryService;
 
+    @Autowired
+    UserSecurityVersionService securityVersionService;
+
     @Override
     public void updateUserRole(Long userId, String roleName) {
         User user = userRepository.findById(userId).orElseThrow(() -> new RuntimeException("User not found"));
@@ -65,7 +75,14 @@ public class UserServiceImpl implements UserService {
         Role role = roleRepository.findByRoleName(appRole)
                 .orElseThrow(() -> new RuntimeException("Role not found"));
         user.setRole(role);
+        saveSecurityChange(user);
+    }
+
+    // Persists an account-state change and invalidates every token issued before it
+    private void saveSecurityChange(User user) {
+        user.setSecurityVersion(user.getSecurityVersion() + 1);
         userRepository.save(user);
+        securityVersionService.publish(user.getUserId(), user.getSecurityVersion());
     }
 
     @Override
@@ -106,7 +123,9 @@ public class UserServiceImpl implements UserService {
                 user.getProfilePicture(),
                 user.getCreatedDate(),
                 user.getUpdatedDate(),
-                false
+                false,
+                user.getFollowersCount(),
+                user.getFollowingCount()
         );
     }
 
@@ -121,7 +140,7 @@ public class UserServiceImpl implements UserService {
         User user = userRepository.findById(userId).orElseThrow(()
                 -> new RuntimeException("User not found"));
         user.setAccountNonLocked(!lock);
-        userRepository.save(user);
+        saveSecurityChange(user);
     }
 
     @Override
@@ -134,7 +153,7 @@ public class UserServiceImpl implements UserService {
         User user = userRepository.findById(userId).orElseThrow(()
                 -> new RuntimeException("User not found"));
         user.setAccountNonExpired(!expire);
-        userRepository.save(user);
+        saveSecurityChange(user);
     }
 
     @Override
@@ -142,7 +161,7 @@ public class UserServiceImpl implements UserService {
         User user = userRepository.findById(userId).orElseThrow(()
                 -> new RuntimeException("User not found"));
         user.setEnabled(enabled);
-        userRepository.save(user);
+        saveSecurityChange(user);
     }
 
     @Override
@@ -150,7 +169,7 @@ public class UserServiceImpl implements UserService {
         User user = userRepository.findById(userId).orElseThrow(()
                 -> new RuntimeException("User not found"));
         user.setCredentialsNonExpired(!expire);
-        userRepository.save(user);
+        saveSecurityChange(user);
     }
 
     @Override
@@ -159,7 +178,9 @@ public class UserServiceImpl implements UserService {
             User user = userRepository.findById(userId)
                     .orElseThrow(() -> new RuntimeException("User not found"));
             user.setPassword(passwordEncoder.encode(password));
-            userRepository.save(user);
+            saveSecurityChange(user);
+        } catch (PasswordHashingRejectedException e) {
+            throw e;
         } catch (Exception e) {
             throw new RuntimeException("Failed to update password");
         }
@@ -190,7 +211,7 @@ public class UserServiceImpl implements UserService {
             throw  new RuntimeException("Password reset token has expired");
         User user = resetToken.getUser();
         user.setPassword(passwordEncoder.encode(newPassword));
-        userRepository.save(user);
+        saveSecurityChange(user);
 
         resetToken.setUsed(true);
         passwordResetTokenRepository.save(resetToken);
@@ -215,14 +236,16 @@ public class UserServiceImpl implements UserService {
         GoogleAuthenticatorKey key = totpService.generateSecret();
         user.setTwoFactorSecret(key.getKey());
         userRepository.save(user);
+        totpService.evictSecret(userId);
         return key;
     }
 
     @Override
     public boolean validate2FACode(Long userId, int code){
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        return totpService.verifyCode(user.getTwoFactorSecret(), code);
+        // The secret is only read from the DB the first time; TotpService caches it until it changes
+        return totpService.verifyCode(userId, code, () -> userRepository.findById(userId)
+                .orElseThrow(() -> new RuntimeException("User not found"))
+                .getTwoFactorSecret());
     }
 
     @Override
@@ -239,6 +262,7 @@ public class UserServiceImpl implements UserService {
                 .orElseThrow(() -> new RuntimeException("User not found"));
         user.setTwoFactorEnabled(false);
         userRepository.save(user);
+        totpService.evictSecret(userId);
     }
 
     @Override
@@ -252,15 +276,16 @@ public class UserServiceImpl implements UserService {
         dto.setBio(user.getBio());
         dto.setRole(user.getRole());
         dto.setProfilePicture(user.getProfilePicture());
+        dto.setFollowersCount(user.getFollowersCount());
+        dto.setFollowingCount(user.getFollowingCount());
         // Leave other fields null or default to exclude them from public view
 
-        if (authenticatedUserId != null) {
-            User followerUser = userRepository.findById(authenticatedUserId)
-                    .orElse(null);
-            dto.setFollowed(followerUser != null &&
-                    followerRepository.existsByUserAndFollowerUser(user, followerUser));
-        } else {
+        if (authenticatedUserId == null) {
             dto.setFollowed(false);
+        } else if (socialGraphIndex.isReady()) {
+            dto.setFollowed(socialGraphIndex.isFollowing(authenticatedUserId, userId));
+        } else {
+            dto.setFollowed(!followerRepository.findFollowedIdsAmong(authenticatedUserId, List.of(userId)).isEmpty());
         }
 
         return dto;
@@ -268,10 +293,16 @@ public class UserServiceImpl implements UserService {
 
     @Override
     public List<UserDTO> getAllPublicProfiles(Long authenticatedUserId) {
-        List<User> users = userRepository.findAll();
-        return users.stream()
+        List<User> users = userRepository.findAll().stream()
                 .filter(user -> !user.getUserId().equals(authenticatedUserId)) // Exclude authenticated user
                 .filter(user -> !user.getRole().getRoleName().name().equalsIgnoreCase("ROLE_ADMIN"))
+                .toList();
+
+        // Until the graph index has loaded, one set query instead of one per profile
+        Set<Long> followedIds = authenticatedUserId == null || users.isEmpty() || socialGraphIndex.isReady() ? Set.of()
+                : followerRepository.findFollowedIdsAmong(authenticatedUserId, users.stream().map(User::getUserId).toList());
+
+        return users.stream()
                 .map(user -> {
                     UserDTO dto = new UserDTO();
                     dto.setUserId(user.getUserId());
@@ -279,15 +310,16 @@ public class UserServiceImpl implements UserService {
                     dto.setBio(user.getBio());
                     dto.setRole(user.getRole());
                     dto.setProfilePicture(user.getProfilePicture());
+                    dto.setFollowersCount(user.getFollowersCount());
+                    dto.setFollowingCount(user.getFollowingCount());
                     // Leave other fields null or default for public view
 
-                    if (authenticatedUserId != null) {
-                        User followerUser = userRepository.findById(authenticatedUserId)
-                                .orElse(null);
-                        dto.setFollowed(followerUser != null &&
-                                followerRepository.existsByUserAndFollowerUser(user, followerUser));
-                    } else {
+                    if (authenticatedUserId == null) {
                         dto.setFollowed(false);
+                    } else if (socialGraphIndex.isReady()) {
+                        dto.setFollowed(socialGraphIndex.isFollowing(authenticatedUserId, user.getUserId()));
+                    } else {
+                        dto.setFollowed(followedIds.contains(user.getUserId()));
                     }
                     return dto;
                 })
@@ -2,6 +2,7 @@ package com.skillshare.platform.util;
 
 import com.skillshare.platform.models.User;
 import com.skillshare.platform.repositories.UserRepository;
+import com.skillshare.platform.security.services.UserDetailsImpl;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -15,6 +16,10 @@ public class AuthUtil {
 
     public Long loggedInUserId(){
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        // JWT-authenticated requests already carry the id in the principal
+        if (authentication.getPrincipal() instanceof UserDetailsImpl userDetails && userDetails.getId() != null) {
+            return userDetails.getId();
+        }
         User user = userRepository.findByUserName(authentication.getName())
                 .orElseThrow(() -> new RuntimeException("User not found"));
         return user.getUserId();
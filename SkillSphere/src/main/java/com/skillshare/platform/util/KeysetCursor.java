@@ -0,0 +1,43 @@
+package com.skillshare.platform.util;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Position in a list ordered by (createdAt, id). Clients only ever see it as an opaque
+ * URL-safe string, so the encoding can change without breaking them.
+ */
+public record KeysetCursor(LocalDateTime createdAt, long id) {
+
+    // Sorts before every real row; also a valid DATETIME, unlike LocalDateTime.MIN
+    public static final KeysetCursor START = new KeysetCursor(LocalDateTime.of(1970, 1, 1, 0, 0), 0L);
+
+    // Sorts after every real row, for lists walked newest first
+    public static final KeysetCursor END = new KeysetCursor(LocalDateTime.of(9999, 12, 31, 0, 0), Long.MAX_VALUE);
+
+    public String encode() {
+        String raw = createdAt + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static KeysetCursor decode(String cursor) {
+        return decode(cursor, START);
+    }
+
+    // ifAbsent is returned for a missing cursor, i.e. a request for the first page
+    public static KeysetCursor decode(String cursor, KeysetCursor ifAbsent) {
+        if (cursor == null || cursor.isBlank()) {
+            return ifAbsent;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf('|');
+            return new KeysetCursor(LocalDateTime.parse(raw.substring(0, separator)),
+                    Long.parseLong(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
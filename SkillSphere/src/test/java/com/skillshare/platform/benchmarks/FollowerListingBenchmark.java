@@ -0,0 +1,154 @@
+package com.skillshare.platform.benchmarks;
+
+import com.skillshare.platform.dtos.FollowUserDTO;
+import com.skillshare.platform.models.AppRole;
+import com.skillshare.platform.models.Follower;
+import com.skillshare.platform.models.Role;
+import com.skillshare.platform.models.User;
+import com.skillshare.platform.repositories.FollowerRepository;
+import com.skillshare.platform.security.response.UserInfoResponse;
+import com.skillshare.platform.util.KeysetCursor;
+import jakarta.persistence.EntityManager;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// One page of a user's followers in a read-only transaction, on H2 in MySQL mode through Hibernate: the old
+// fetch-join of both Follower sides and their roles copied into UserInfoResponse, against the FollowUserDTO
+// projection in FollowerRepository. Run with -prof gc for the bytes allocated per page; the viewer's followed
+// flags are left out of both, since they come from the graph index.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FollowerListingBenchmark {
+
+    private static final int FOLLOWERS = 1_000;
+
+    // FollowerRepository.findFollowersPage before the projection, with the other user's id as tie-breaker
+    private static final String ENTITY_PAGE = "select f from Follower f join fetch f.user u join fetch u.role "
+            + "join fetch f.followerUser fu join fetch fu.role "
+            + "where u.userId = :userId and (f.createdAt > :createdAt "
+            + "or (f.createdAt = :createdAt and fu.userId > :afterUserId)) "
+            + "order by f.createdAt, fu.userId";
+
+    @Param({"50", "200"})
+    public int pageSize;
+
+    private ConfigurableApplicationContext context;
+    private EntityManager entityManager;
+    private FollowerRepository followerRepository;
+    private TransactionTemplate readOnly;
+    private Long userId;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(Jpa.class)
+                .web(WebApplicationType.NONE)
+                // Arguments, so they win over the MySQL settings in application.properties
+                .run(
+                        // H2 would otherwise hand back its previous result for a repeated query on unchanged tables
+                        "--spring.datasource.url=jdbc:h2:mem:listing;MODE=MySQL;DATABASE_TO_LOWER=TRUE;"
+                                + "DB_CLOSE_DELAY=-1;OPTIMIZE_REUSE_RESULTS=FALSE",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.jpa.hibernate.ddl-auto=create-drop",
+                        "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                        "--spring.jpa.open-in-view=false",
+                        "--logging.level.root=WARN");
+        entityManager = context.getBean(EntityManager.class);
+        followerRepository = context.getBean(FollowerRepository.class);
+        PlatformTransactionManager transactionManager = context.getBean(PlatformTransactionManager.class);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+
+        userId = new TransactionTemplate(transactionManager).execute(status -> {
+            Role role = new Role(AppRole.ROLE_USER);
+            entityManager.persist(role);
+            User user = user("popular", role);
+            LocalDateTime followedAt = LocalDateTime.of(2024, 1, 1, 0, 0);
+            for (int i = 0; i < FOLLOWERS; i++) {
+                Follower follower = new Follower();
+                follower.setUser(user);
+                follower.setFollowerUser(user("follower" + i, role));
+                follower.setCreatedAt(followedAt.plusMinutes(i));
+                entityManager.persist(follower);
+            }
+            return user.getUserId();
+        });
+
+        if (entityPage().size() != pageSize || projectionPage().size() != pageSize) {
+            throw new IllegalStateException("Expected full pages");
+        }
+    }
+
+    private User user(String name, Role role) {
+        User user = new User(name, name + "@example.com", "hash", "Bio of " + name,
+                "https://cdn.example.com/" + name + ".png");
+        user.setRole(role);
+        entityManager.persist(user);
+        return user;
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<UserInfoResponse> entityPage() {
+        return readOnly.execute(status -> entityManager.createQuery(ENTITY_PAGE, Follower.class)
+                .setParameter("userId", userId)
+                .setParameter("createdAt", KeysetCursor.START.createdAt())
+                .setParameter("afterUserId", KeysetCursor.START.id())
+                .setMaxResults(pageSize + 1)
+                .getResultList().stream()
+                .limit(pageSize)
+                .map(Follower::getFollowerUser)
+                .map(user -> new UserInfoResponse(
+                        user.getUserId(),
+                        user.getUserName(),
+                        user.getEmail(),
+                        user.isAccountNonLocked(),
+                        user.isAccountNonExpired(),
+                        user.isCredentialsNonExpired(),
+                        user.isEnabled(),
+                        user.getCredentialsExpiryDate(),
+                        user.getAccountExpiryDate(),
+                        user.isTwoFactorEnabled(),
+                        List.of(user.getRole().getRoleName().name()),
+                        user.getBio(),
+                        user.getProfilePicture()))
+                .toList());
+    }
+
+    @Benchmark
+    public List<FollowUserDTO> projectionPage() {
+        return readOnly.execute(status -> {
+            List<FollowUserDTO> rows = followerRepository.findFollowersPage(userId, KeysetCursor.START.createdAt(),
+                    KeysetCursor.START.id(), Limit.of(pageSize + 1));
+            return rows.subList(0, pageSize);
+        });
+    }
+
+    @SpringBootConfiguration
+    @EnableAutoConfiguration
+    @EntityScan(basePackageClasses = User.class)
+    @EnableJpaRepositories(basePackageClasses = FollowerRepository.class)
+    static class Jpa {
+    }
+}
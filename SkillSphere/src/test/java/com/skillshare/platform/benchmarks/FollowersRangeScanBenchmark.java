@@ -0,0 +1,182 @@
+package com.skillshare.platform.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+// Range scans of the followers table for high-degree users on both sides, on H2 in MySQL mode: the surrogate
+// follower_id layout with its (side, created_at, follower_id) indexes, against the (user_id, follower_user_id)
+// key with the covering (side, created_at, other side) indexes. 1M edges in follow-time order; followees are
+// Zipf-distributed over 100k users, and one extra user follows 5,000 accounts.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class FollowersRangeScanBenchmark {
+
+    private static final int USERS = 100_000;
+    private static final int EDGES = 1_000_000;
+    private static final long HUB = 1;
+    private static final long HEAVY_FOLLOWER = USERS + 1;
+    private static final int HEAVY_FOLLOWING = 5_000;
+    private static final int PAGE = 50;
+
+    @Param({"surrogateKey", "compositeKey"})
+    public String layout;
+
+    private Connection connection;
+    private PreparedStatement followersPage;
+    private PreparedStatement followers;
+    private PreparedStatement following;
+    private Timestamp midCursor;
+
+    @Setup
+    public void setUp() throws SQLException {
+        // H2 would otherwise hand back its previous result for a repeated query on unchanged tables
+        connection = DriverManager.getConnection("jdbc:h2:mem:followers_" + layout
+                + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1;OPTIMIZE_REUSE_RESULTS=FALSE");
+        try (Statement ddl = connection.createStatement()) {
+            if (layout.equals("surrogateKey")) {
+                ddl.execute("create table followers (follower_id bigint auto_increment primary key, "
+                        + "user_id bigint not null, follower_user_id bigint not null, created_at timestamp not null, "
+                        + "unique (user_id, follower_user_id))");
+                ddl.execute("create index idx_followers_user_created on followers (user_id, created_at, follower_id)");
+                ddl.execute("create index idx_followers_follower_created "
+                        + "on followers (follower_user_id, created_at, follower_id)");
+            } else {
+                ddl.execute("create table followers (user_id bigint not null, follower_user_id bigint not null, "
+                        + "created_at timestamp not null, primary key (user_id, follower_user_id))");
+                ddl.execute("create index idx_followers_user_created_follower "
+                        + "on followers (user_id, created_at, follower_user_id)");
+                ddl.execute("create index idx_followers_follower_created_user "
+                        + "on followers (follower_user_id, created_at, user_id)");
+            }
+        }
+        load();
+
+        // The cursor for a page from the middle of the hub's followers
+        try (PreparedStatement median = connection.prepareStatement("select created_at from followers "
+                + "where user_id = ? order by created_at limit 1 offset (select count(*) / 2 from followers "
+                + "where user_id = ?)")) {
+            median.setLong(1, HUB);
+            median.setLong(2, HUB);
+            try (ResultSet rs = median.executeQuery()) {
+                rs.next();
+                midCursor = rs.getTimestamp(1);
+            }
+        }
+
+        // Each ORDER BY leads with the column fixed by the WHERE clause: H2 only reads an index in order (and stops
+        // at the LIMIT) when the ORDER BY starts at the index's first column. The page also repeats the cursor as
+        // created_at >= ?, since H2 cannot seek on the OR. MySQL needs neither.
+        String other = layout.equals("surrogateKey") ? "follower_id" : "follower_user_id";
+        followersPage = connection.prepareStatement("select follower_user_id, created_at from followers "
+                + "where user_id = ? and created_at >= ? "
+                + "and (created_at > ? or (created_at = ? and " + other + " > ?)) "
+                + "order by user_id, created_at, " + other + " limit " + PAGE);
+        followers = connection.prepareStatement("select follower_user_id, created_at from followers "
+                + "where user_id = ? order by user_id, created_at");
+        following = connection.prepareStatement("select user_id, created_at from followers "
+                + "where follower_user_id = ? order by follower_user_id, created_at");
+
+        try (Statement count = connection.createStatement();
+             ResultSet rs = count.executeQuery("select count(*), count(case when user_id = " + HUB + " then 1 end) "
+                     + "from followers")) {
+            rs.next();
+            System.out.printf("%nedges=%d hubFollowers=%d%n", rs.getLong(1), rs.getLong(2));
+        }
+    }
+
+    // Edges arrive in follow-time order, so the surrogate key orders rows by time, not by user
+    private void load() throws SQLException {
+        SplittableRandom random = new SplittableRandom(42);
+        Set<Long> seen = new HashSet<>();
+        LocalDateTime time = LocalDateTime.of(2024, 1, 1, 0, 0);
+        connection.setAutoCommit(false);
+        try (PreparedStatement insert = connection.prepareStatement(
+                "insert into followers (user_id, follower_user_id, created_at) values (?, ?, ?)")) {
+            int edgesLeft = EDGES;
+            int heavyLeft = HEAVY_FOLLOWING;
+            while (edgesLeft > 0 || heavyLeft > 0) {
+                boolean heavy = heavyLeft > 0 && (edgesLeft == 0 || random.nextInt(EDGES / HEAVY_FOLLOWING) == 0);
+                long followerUserId = heavy ? HEAVY_FOLLOWER : 1 + random.nextInt(USERS);
+                long userId = (long) Math.pow(USERS, random.nextDouble());
+                if (!seen.add(userId * (USERS + 2) + followerUserId)) {
+                    continue;
+                }
+                if (heavy) {
+                    heavyLeft--;
+                } else {
+                    edgesLeft--;
+                }
+                time = time.plusSeconds(1);
+                insert.setLong(1, userId);
+                insert.setLong(2, followerUserId);
+                insert.setTimestamp(3, Timestamp.valueOf(time));
+                insert.addBatch();
+                if (seen.size() % 10_000 == 0) {
+                    insert.executeBatch();
+                }
+            }
+            insert.executeBatch();
+        }
+        connection.commit();
+        connection.setAutoCommit(true);
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        try (Statement drop = connection.createStatement()) {
+            drop.execute("drop all objects");
+        }
+        connection.close();
+    }
+
+    // One keyset page of the hub's followers
+    @Benchmark
+    public void hubFollowersPage(Blackhole blackhole) throws SQLException {
+        followersPage.setLong(1, HUB);
+        followersPage.setTimestamp(2, midCursor);
+        followersPage.setTimestamp(3, midCursor);
+        followersPage.setTimestamp(4, midCursor);
+        followersPage.setLong(5, 0);
+        consume(followersPage, blackhole);
+    }
+
+    // Every follower of the hub
+    @Benchmark
+    public void hubFollowersScan(Blackhole blackhole) throws SQLException {
+        followers.setLong(1, HUB);
+        consume(followers, blackhole);
+    }
+
+    // Everyone the heavy follower follows
+    @Benchmark
+    public void heavyFollowingScan(Blackhole blackhole) throws SQLException {
+        following.setLong(1, HEAVY_FOLLOWER);
+        consume(following, blackhole);
+    }
+
+    private static void consume(PreparedStatement query, Blackhole blackhole) throws SQLException {
+        try (ResultSet rs = query.executeQuery()) {
+            while (rs.next()) {
+                blackhole.consume(rs.getLong(1));
+                blackhole.consume(rs.getTimestamp(2));
+            }
+        }
+    }
+}
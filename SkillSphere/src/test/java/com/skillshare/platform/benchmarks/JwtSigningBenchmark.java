@@ -0,0 +1,67 @@
+package com.skillshare.platform.benchmarks;
+
+import com.skillshare.platform.security.jwt.JwtKeyRing;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Jwks;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+// Signing and full signature verification (no verified-token cache) through JwtKeyRing for each algorithm
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtSigningBenchmark {
+
+    @Param({"HS256", "ES256", "EdDSA"})
+    public String algorithm;
+
+    private Path keysFile;
+    private JwtKeyRing keyRing;
+    private JwtParser parser;
+    private String token;
+
+    @Setup
+    public void setUp() throws IOException {
+        keysFile = Files.createTempFile("jwt-keys", ".json");
+        Files.writeString(keysFile, "{\"keys\":["
+                + Jwks.UNSAFE_JSON(Jwks.builder().keyPair(Jwts.SIG.ES256.keyPair().build())
+                        .id("ec").add("nbf", 0L).build()) + ","
+                + Jwks.UNSAFE_JSON(Jwks.builder().keyPair(Jwks.CRV.Ed25519.keyPair().build())
+                        .id("ed").add("nbf", 0L).build())
+                + "]}");
+        keyRing = new JwtKeyRing();
+        ReflectionTestUtils.setField(keyRing, "jwtSecret", JwtVerifyBenchmark.SECRET);
+        ReflectionTestUtils.setField(keyRing, "algorithm", algorithm);
+        ReflectionTestUtils.setField(keyRing, "keysFile", algorithm.equals("HS256") ? "" : keysFile.toString());
+        ReflectionTestUtils.setField(keyRing, "legacyHmacTokens", false);
+        ReflectionTestUtils.setField(keyRing, "legacyHmacUntil", "");
+        ReflectionTestUtils.invokeMethod(keyRing, "init");
+        parser = Jwts.parser().keyLocator(keyRing.keyLocator()).build();
+        token = sign();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(keysFile);
+    }
+
+    @Benchmark
+    public String sign() {
+        return keyRing.sign(Jwts.builder().subject("alice").claim("roles", "ROLE_USER")).compact();
+    }
+
+    @Benchmark
+    public Claims verify() {
+        return parser.parseSignedClaims(token).getPayload();
+    }
+}
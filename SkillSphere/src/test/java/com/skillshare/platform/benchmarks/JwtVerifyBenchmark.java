@@ -0,0 +1,90 @@
+package com.skillshare.platform.benchmarks;
+
+import com.skillshare.platform.security.jwt.JwtKeyRing;
+import com.skillshare.platform.security.jwt.JwtUtils;
+import com.skillshare.platform.security.services.UserDetailsImpl;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.crypto.SecretKey;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Per-request JWT cost in AuthTokenFilter: the old path (key rebuilt and the token parsed twice) against
+// JwtUtils with a cold and a warm verified-token cache
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtVerifyBenchmark {
+
+    static final String SECRET = "mySecretKey123912738aopsgjnspkmndfsopkvajoirjg94gf2opfng2moknm";
+
+    private JwtUtils cached;
+    private JwtUtils uncached;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        JwtKeyRing keyRing = keyRing("HS256");
+        cached = jwtUtils(keyRing, 10_000);
+        // A cache that never admits an entry, so every call parses and checks the signature
+        uncached = jwtUtils(keyRing, 0);
+        token = cached.generateTokenFromUsername(user());
+    }
+
+    // What validateJwtToken followed by getUserNameFromJwtToken did before the verified-claims API
+    @Benchmark
+    public String doubleParseWithFreshKeys() {
+        Jwts.parser().verifyWith((SecretKey) key()).build().parseSignedClaims(token);
+        return Jwts.parser().verifyWith((SecretKey) key()).build().parseSignedClaims(token).getPayload().getSubject();
+    }
+
+    @Benchmark
+    public Claims singleParse() {
+        return uncached.getVerifiedClaims(token);
+    }
+
+    @Benchmark
+    public Claims cacheHit() {
+        return cached.getVerifiedClaims(token);
+    }
+
+    private static SecretKey key() {
+        return Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET));
+    }
+
+    static JwtKeyRing keyRing(String algorithm) {
+        JwtKeyRing keyRing = new JwtKeyRing();
+        ReflectionTestUtils.setField(keyRing, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(keyRing, "algorithm", algorithm);
+        ReflectionTestUtils.setField(keyRing, "keysFile", "");
+        ReflectionTestUtils.setField(keyRing, "legacyHmacTokens", false);
+        ReflectionTestUtils.setField(keyRing, "legacyHmacUntil", "");
+        ReflectionTestUtils.invokeMethod(keyRing, "init");
+        return keyRing;
+    }
+
+    static JwtUtils jwtUtils(JwtKeyRing keyRing, int cacheMaxSize) {
+        JwtUtils utils = new JwtUtils();
+        ReflectionTestUtils.setField(utils, "jwtExpirationMs", 3_600_000);
+        ReflectionTestUtils.setField(utils, "jwtCacheMaxSize", cacheMaxSize);
+        ReflectionTestUtils.setField(utils, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(utils, "keyRing", keyRing);
+        ReflectionTestUtils.invokeMethod(utils, "init");
+        return utils;
+    }
+
+    static UserDetailsImpl user() {
+        return new UserDetailsImpl(1L, "alice", "alice@example.com", "hash", false, null, null,
+                List.of(new SimpleGrantedAuthority("ROLE_USER")));
+    }
+}
@@ -0,0 +1,179 @@
+package com.skillshare.platform.benchmarks;
+
+import com.skillshare.platform.models.Notification;
+import com.skillshare.platform.models.User;
+import com.skillshare.platform.repositories.NotificationReadStateRepository;
+import com.skillshare.platform.repositories.NotificationRepository;
+import jakarta.persistence.EntityManager;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Mark-all-read and the unread count for a user with 100k notifications, the newest 20 of them unread, on H2 in
+// MySQL mode through Hibernate. "flags" is the old path (every entity loaded, flagged and saved back; a count of
+// unread flags with no index on is_read), "watermark" the NotificationReadState upsert and the count above it.
+// Mark-all-read starts each invocation from the same 20 unread.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class NotificationReadBenchmark {
+
+    private static final int NOTIFICATIONS = 100_000;
+    private static final int UNREAD = 20;
+
+    @Param({"flags", "watermark"})
+    public String model;
+
+    private ConfigurableApplicationContext context;
+    private EntityManager entityManager;
+    private NotificationRepository notificationRepository;
+    private NotificationReadStateRepository readStateRepository;
+    private JdbcTemplate jdbc;
+    private TransactionTemplate transaction;
+    private TransactionTemplate readOnly;
+    private Long userId;
+    private long lastReadId;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(Jpa.class)
+                .web(WebApplicationType.NONE)
+                // Arguments, so they win over the MySQL settings in application.properties
+                .run(
+                        // H2 would otherwise hand back its previous result for a repeated query on unchanged tables
+                        "--spring.datasource.url=jdbc:h2:mem:notifications;MODE=MySQL;DATABASE_TO_LOWER=TRUE;"
+                                + "DB_CLOSE_DELAY=-1;OPTIMIZE_REUSE_RESULTS=FALSE",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.jpa.hibernate.ddl-auto=create-drop",
+                        "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                        "--spring.jpa.open-in-view=false",
+                        "--logging.level.root=WARN");
+        entityManager = context.getBean(EntityManager.class);
+        notificationRepository = context.getBean(NotificationRepository.class);
+        readStateRepository = context.getBean(NotificationReadStateRepository.class);
+        jdbc = context.getBean(JdbcTemplate.class);
+        PlatformTransactionManager transactionManager = context.getBean(PlatformTransactionManager.class);
+        transaction = new TransactionTemplate(transactionManager);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+
+        if (model.equals("flags")) {
+            // The old schema had no index on is_read
+            jdbc.execute("drop index idx_notifications_receiver_unread");
+        }
+        userId = transaction.execute(status -> {
+            User user = new User("reader", "reader@example.com");
+            entityManager.persist(user);
+            return user.getUserId();
+        });
+        Long senderId = transaction.execute(status -> {
+            User sender = new User("sender", "sender@example.com");
+            entityManager.persist(sender);
+            return sender.getUserId();
+        });
+
+        LocalDateTime createdAt = LocalDateTime.of(2024, 1, 1, 0, 0);
+        List<Object[]> rows = new ArrayList<>(NOTIFICATIONS);
+        for (int i = 0; i < NOTIFICATIONS; i++) {
+            rows.add(new Object[]{userId, senderId, "sender started following you", "FOLLOW",
+                    Timestamp.valueOf(createdAt.plusSeconds(i))});
+        }
+        jdbc.batchUpdate("insert into notifications (receiver_id, sender_id, message, type, created_at, is_read, "
+                + "actor_count) values (?, ?, ?, ?, ?, false, 1)", rows);
+        lastReadId = jdbc.queryForObject("select id from notifications where receiver_id = ? order by id desc "
+                + "limit 1 offset " + UNREAD, Long.class, userId);
+        if (model.equals("flags")) {
+            jdbc.update("update notifications set is_read = true where receiver_id = ? and id <= ?", userId,
+                    lastReadId);
+        }
+        restoreUnread();
+
+        if (unreadCount() != UNREAD) {
+            throw new IllegalStateException("Expected " + UNREAD + " unread");
+        }
+    }
+
+    // Back to the newest UNREAD notifications unread
+    void restoreUnread() {
+        if (model.equals("flags")) {
+            jdbc.update("update notifications set is_read = false where receiver_id = ? and id > ?", userId,
+                    lastReadId);
+        } else {
+            jdbc.update("merge into notification_read_state (user_id, last_read_id) key (user_id) values (?, ?)",
+                    userId, lastReadId);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @State(Scope.Benchmark)
+    public static class Unread {
+        @Setup(Level.Invocation)
+        public void reset(NotificationReadBenchmark benchmark) {
+            benchmark.restoreUnread();
+        }
+    }
+
+    @Benchmark
+    public void markAllRead(Unread unread) {
+        transaction.executeWithoutResult(status -> {
+            if (model.equals("flags")) {
+                // NotificationServiceImpl.markAllNotificationsAsRead before the watermark
+                User user = entityManager.find(User.class, userId);
+                List<Notification> notifications = entityManager.createQuery(
+                                "select n from Notification n where n.receiver = :receiver order by n.createdAt desc",
+                                Notification.class)
+                        .setParameter("receiver", user)
+                        .getResultList();
+                notifications.forEach(notification -> notification.setRead(true));
+                notificationRepository.saveAll(notifications);
+            } else {
+                readStateRepository.advanceTo(userId, Long.MAX_VALUE);
+            }
+        });
+    }
+
+    @Benchmark
+    public long unreadCount() {
+        return readOnly.execute(status -> {
+            if (model.equals("flags")) {
+                // NotificationServiceImpl.getUnreadNotificationCount before the watermark
+                User user = entityManager.find(User.class, userId);
+                return entityManager.createQuery(
+                                "select count(n) from Notification n where n.receiver = :receiver and n.isRead = false",
+                                Long.class)
+                        .setParameter("receiver", user)
+                        .getSingleResult();
+            }
+            return notificationRepository.countUnread(userId);
+        });
+    }
+
+    @SpringBootConfiguration
+    @EnableAutoConfiguration
+    @EntityScan(basePackageClasses = User.class)
+    @EnableJpaRepositories(basePackageClasses = NotificationRepository.class)
+    static class Jpa {
+    }
+}
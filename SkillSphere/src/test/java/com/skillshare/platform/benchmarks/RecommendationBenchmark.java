@@ -0,0 +1,98 @@
+package com.skillshare.platform.benchmarks;
+
+import com.skillshare.platform.dtos.RecommendationDTO;
+import com.skillshare.platform.graph.SocialGraphIndex;
+import com.skillshare.platform.models.AppRole;
+import com.skillshare.platform.models.Role;
+import com.skillshare.platform.models.User;
+import com.skillshare.platform.repositories.UserRepository;
+import com.skillshare.platform.services.impl.RecommendationServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// One uncached RecommendationServiceImpl.getRecommendations call for a viewer with thousands of followees, on
+// a graph of 200k users who follow ~15 Zipf-distributed accounts each. The cache TTL is zero so every call
+// recomputes; the user lookup for the winners is a stub, so database time is not included.
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+@State(Scope.Benchmark)
+public class RecommendationBenchmark {
+
+    private static final int USERS = 200_000;
+    private static final int EDGES = 3_000_000;
+    private static final long VIEWER = USERS + 1;
+
+    @Param({"1000", "5000"})
+    public int followees;
+
+    private RecommendationServiceImpl service;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        SocialGraphIndex index = new SocialGraphIndex();
+        for (int i = 0; i < EDGES; i++) {
+            index.recordFollow(zipf(random), 1 + random.nextInt(USERS));
+        }
+        while (index.followingCount(VIEWER) < followees) {
+            index.recordFollow(zipf(random), VIEWER);
+        }
+        ReflectionTestUtils.setField(index, "ready", true);
+
+        UserRepository userRepository = mock(UserRepository.class);
+        when(userRepository.findAllById(anyIterable())).thenAnswer(inv -> {
+            Iterable<Long> ids = inv.getArgument(0);
+            return ((Collection<Long>) ids).stream().map(RecommendationBenchmark::user).toList();
+        });
+
+        service = new RecommendationServiceImpl();
+        ReflectionTestUtils.setField(service, "socialGraphIndex", index);
+        ReflectionTestUtils.setField(service, "userRepository", userRepository);
+        ReflectionTestUtils.setField(service, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(service, "defaultLimit", 20);
+        ReflectionTestUtils.setField(service, "maxLimit", 50);
+        ReflectionTestUtils.setField(service, "cacheTtlMs", 0L);
+        ReflectionTestUtils.setField(service, "cacheMaxSize", 10_000);
+        ReflectionTestUtils.setField(service, "budgetMs", 30L);
+        ReflectionTestUtils.invokeMethod(service, "init");
+
+        if (getRecommendations().size() != 20) {
+            throw new IllegalStateException("Expected a full page of recommendations");
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        ReflectionTestUtils.invokeMethod(service, "shutdown");
+    }
+
+    // Rank r with probability proportional to 1/r
+    private static long zipf(SplittableRandom random) {
+        return (long) Math.pow(USERS, random.nextDouble());
+    }
+
+    private static User user(Long id) {
+        User user = new User("user" + id, "user" + id + "@example.com");
+        user.setUserId(id);
+        user.setRole(new Role(AppRole.ROLE_USER));
+        return user;
+    }
+
+    @Benchmark
+    public List<RecommendationDTO> getRecommendations() {
+        return service.getRecommendations(VIEWER, null);
+    }
+}
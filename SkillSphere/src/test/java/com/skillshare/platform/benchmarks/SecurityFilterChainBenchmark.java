@@ -0,0 +1,202 @@
+package com.skillshare.platform.benchmarks;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.skillshare.platform.config.OAuth2LoginSuccessHandler;
+import com.skillshare.platform.repositories.RoleRepository;
+import com.skillshare.platform.repositories.UserRepository;
+import com.skillshare.platform.security.SecurityConfig;
+import com.skillshare.platform.security.jwt.AuthEntryPointJwt;
+import com.skillshare.platform.security.jwt.AuthTokenFilter;
+import com.skillshare.platform.security.jwt.JwtKeyRing;
+import com.skillshare.platform.security.jwt.JwtPrincipalResolver;
+import com.skillshare.platform.security.jwt.JwtUtils;
+import com.skillshare.platform.security.services.TokenRevocationService;
+import com.skillshare.platform.security.services.UserDetailsServiceImpl;
+import com.skillshare.platform.security.services.UserSecurityVersionService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.Filter;
+import org.openjdk.jmh.annotations.*;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.support.PropertySourcesPlaceholderConfigurer;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockServletContext;
+import org.springframework.security.config.Customizer;
+import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
+import org.springframework.security.config.oauth2.client.CommonOAuth2Provider;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.client.registration.ClientRegistrationRepository;
+import org.springframework.security.oauth2.client.registration.InMemoryClientRegistrationRepository;
+import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.security.web.csrf.CookieCsrfTokenRepository;
+import org.springframework.web.context.support.AnnotationConfigWebApplicationContext;
+import org.springframework.web.servlet.config.annotation.EnableWebMvc;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.security.config.Customizer.withDefaults;
+
+// One authenticated API request (Bearer token, token already in the verified cache) through Spring Security:
+// the single session-backed chain with form, basic and OAuth2 login that served every path before, against the
+// stateless API chain in SecurityConfig. The servlet behind the chain does nothing.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SecurityFilterChainBenchmark {
+
+    @Param({"before", "after"})
+    public String chain;
+
+    private AnnotationConfigWebApplicationContext context;
+    private Filter filterChainProxy;
+    private String authorization;
+
+    @Setup
+    public void setUp() throws Exception {
+        // Without Spring Boot's logging setup Logback defaults to DEBUG, and the filters' debug lines would be measured
+        ((Logger) LoggerFactory.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME)).setLevel(Level.WARN);
+        context = new AnnotationConfigWebApplicationContext();
+        context.setServletContext(new MockServletContext());
+        context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("benchmark", Map.of(
+                "spring.app.jwtSecret", JwtVerifyBenchmark.SECRET,
+                "spring.app.jwtExpirationMs", "3600000",
+                "spring.app.passwordHashStrength", "10")));
+        // Registered as finished objects, so Spring does not try to autowire the mocks' fields
+        context.addBeanFactoryPostProcessor(beanFactory -> {
+            UserSecurityVersionService securityVersions = mock(UserSecurityVersionService.class);
+            when(securityVersions.isCurrent(anyLong(), anyInt())).thenReturn(true);
+            beanFactory.registerSingleton("userSecurityVersionService", securityVersions);
+            beanFactory.registerSingleton("tokenRevocationService", mock(TokenRevocationService.class));
+            beanFactory.registerSingleton("userDetailsService", mock(UserDetailsServiceImpl.class));
+            beanFactory.registerSingleton("oAuth2LoginSuccessHandler", mock(OAuth2LoginSuccessHandler.class));
+            beanFactory.registerSingleton("roleRepository", mock(RoleRepository.class));
+            beanFactory.registerSingleton("userRepository", mock(UserRepository.class));
+        });
+        context.register(Infrastructure.class, chain.equals("before") ? SingleChainConfig.class : SecurityConfig.class);
+        context.refresh();
+        filterChainProxy = context.getBean("springSecurityFilterChain", Filter.class);
+        authorization = "Bearer " + context.getBean(JwtUtils.class).generateTokenFromUsername(JwtVerifyBenchmark.user());
+
+        MockHttpServletResponse response = request();
+        if (response.getStatus() != 200) {
+            throw new IllegalStateException(chain + " chain answered " + response.getStatus());
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public MockHttpServletResponse authenticatedApiRequest() throws Exception {
+        return request();
+    }
+
+    private MockHttpServletResponse request() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest(context.getServletContext(), "GET",
+                "/api/auth/user");
+        request.setServletPath("/api/auth/user");
+        request.addHeader("Authorization", authorization);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        try {
+            filterChainProxy.doFilter(request, response, new MockFilterChain());
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+        return response;
+    }
+
+    @Configuration
+    @EnableWebMvc
+    static class Infrastructure {
+
+        @Bean
+        static PropertySourcesPlaceholderConfigurer placeholders() {
+            return new PropertySourcesPlaceholderConfigurer();
+        }
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+
+        @Bean
+        JwtKeyRing jwtKeyRing() {
+            return new JwtKeyRing();
+        }
+
+        @Bean
+        JwtUtils jwtUtils() {
+            return new JwtUtils();
+        }
+
+        @Bean
+        JwtPrincipalResolver jwtPrincipalResolver() {
+            return new JwtPrincipalResolver();
+        }
+
+        @Bean
+        AuthEntryPointJwt authEntryPointJwt() {
+            return new AuthEntryPointJwt();
+        }
+
+        @Bean
+        ClientRegistrationRepository clientRegistrationRepository() {
+            return new InMemoryClientRegistrationRepository(CommonOAuth2Provider.GOOGLE.getBuilder("google")
+                    .clientId("client").clientSecret("secret").build());
+        }
+    }
+
+    // SecurityConfig.defaultSecurityFilterChain as it was before the API got its own chain
+    @Configuration
+    @EnableWebSecurity
+    static class SingleChainConfig {
+
+        @Bean
+        AuthTokenFilter authenticationJwtTokenFilter() {
+            return new AuthTokenFilter();
+        }
+
+        @Bean
+        SecurityFilterChain defaultSecurityFilterChain(HttpSecurity http, AuthEntryPointJwt unauthorizedHandler,
+                                                       OAuth2LoginSuccessHandler successHandler) throws Exception {
+            http.csrf(csrf ->
+                    csrf.csrfTokenRepository(CookieCsrfTokenRepository.withHttpOnlyFalse())
+                            .ignoringRequestMatchers("/api/auth/public/**")
+            );
+            http.cors(Customizer.withDefaults());
+            http.authorizeHttpRequests((requests)
+                    -> requests
+                    .requestMatchers("/api/admin/**").hasRole("ADMIN")
+                    .requestMatchers("/api/csrf-token").permitAll()
+                    .requestMatchers("/api/auth/public/**").permitAll()
+                    .requestMatchers("/oauth2/**").permitAll()
+                    .anyRequest().authenticated())
+                    .oauth2Login(oauth2 -> oauth2.successHandler(successHandler));
+            http.exceptionHandling(exception
+                    -> exception.authenticationEntryPoint(unauthorizedHandler));
+            http.addFilterBefore(authenticationJwtTokenFilter(),
+                    UsernamePasswordAuthenticationFilter.class);
+            http.formLogin(withDefaults());
+            http.httpBasic(withDefaults());
+            return http.build();
+        }
+    }
+}
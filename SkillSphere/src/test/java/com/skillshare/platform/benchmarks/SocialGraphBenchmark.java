@@ -0,0 +1,133 @@
+package com.skillshare.platform.benchmarks;
+
+import com.skillshare.platform.graph.SocialGraphIndex;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+// SocialGraphIndex lookups on a synthetic power-law graph (200k users, 3M follow edges, followees drawn from a
+// Zipf distribution so a few accounts have tens of thousands of followers), against the same graph held in boxed
+// HashMap<Long, HashSet<Long>> adjacency sets. Footprints are printed once the graphs are built; the boxed one is
+// the used-heap growth across building it.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+@State(Scope.Benchmark)
+public class SocialGraphBenchmark {
+
+    private static final int USERS = 200_000;
+    private static final int EDGES = 3_000_000;
+    private static final int QUERIES = 1 << 16;
+
+    private SocialGraphIndex index;
+    private Map<Long, Set<Long>> boxedFollowing;
+    // Pairs to probe, half of them existing edges, and users to look up, weighted like the followees
+    private long[] followers;
+    private long[] followees;
+    private long[] users;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        long[] edgeFollowers = new long[EDGES];
+        long[] edgeFollowees = new long[EDGES];
+        for (int i = 0; i < EDGES; i++) {
+            edgeFollowers[i] = 1 + random.nextInt(USERS);
+            edgeFollowees[i] = zipf(random);
+        }
+        index = new SocialGraphIndex();
+        for (int i = 0; i < EDGES; i++) {
+            index.recordFollow(edgeFollowees[i], edgeFollowers[i]);
+        }
+        // Only the following direction, which is all the boxed benchmarks probe
+        long heapBeforeBoxed = usedHeapAfterGc();
+        boxedFollowing = new HashMap<>();
+        for (int i = 0; i < EDGES; i++) {
+            boxedFollowing.computeIfAbsent(edgeFollowers[i], id -> new HashSet<>()).add(edgeFollowees[i]);
+        }
+        long boxedBytes = usedHeapAfterGc() - heapBeforeBoxed;
+
+        followers = new long[QUERIES];
+        followees = new long[QUERIES];
+        users = new long[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            if (i % 2 == 0) {
+                int edge = random.nextInt(EDGES);
+                followers[i] = edgeFollowers[edge];
+                followees[i] = edgeFollowees[edge];
+            } else {
+                followers[i] = 1 + random.nextInt(USERS);
+                followees[i] = zipf(random);
+            }
+            users[i] = zipf(random);
+        }
+
+        System.out.printf("%nedges=%d indexBytes=%d boxedFollowingBytes~%d maxFollowers=%d%n", index.edgeCount(),
+                index.memoryFootprintBytes(), boxedBytes, index.followerCount(1));
+    }
+
+    // Rank r with probability proportional to 1/r
+    private static long zipf(SplittableRandom random) {
+        return (long) Math.pow(USERS, random.nextDouble());
+    }
+
+    private static long usedHeapAfterGc() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private int nextQuery() {
+        return next = (next + 1) & (QUERIES - 1);
+    }
+
+    @Benchmark
+    public boolean isFollowing() {
+        int i = nextQuery();
+        return index.isFollowing(followers[i], followees[i]);
+    }
+
+    @Benchmark
+    public boolean isFollowingBoxed() {
+        int i = nextQuery();
+        Set<Long> following = boxedFollowing.get(followers[i]);
+        return following != null && following.contains(followees[i]);
+    }
+
+    @Benchmark
+    public int followerCount() {
+        return index.followerCount(users[nextQuery()]);
+    }
+
+    @Benchmark
+    public void forEachFollowing(Blackhole blackhole) {
+        index.forEachFollowing(followers[nextQuery()], blackhole::consume);
+    }
+
+    @Benchmark
+    public void forEachFollowingBoxed(Blackhole blackhole) {
+        Set<Long> following = boxedFollowing.get(followers[nextQuery()]);
+        if (following != null) {
+            for (Long id : following) {
+                blackhole.consume(id.longValue());
+            }
+        }
+    }
+
+    @Benchmark
+    public long[] commonFollowing() {
+        int i = nextQuery();
+        return index.commonFollowing(followers[i], followers[(i + 1) & (QUERIES - 1)]);
+    }
+}
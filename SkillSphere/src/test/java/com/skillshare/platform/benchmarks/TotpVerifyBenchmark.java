@@ -0,0 +1,51 @@
+package com.skillshare.platform.benchmarks;
+
+import com.skillshare.platform.security.services.TotpServicesImpl;
+import com.warrenstrange.googleauth.GoogleAuthenticator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+// One TOTP check with a code that matches no step, so every implementation computes the whole window (three
+// HMACs): GoogleAuthenticator.authorize, which verifyCode delegated to before, against TotpServicesImpl with
+// the secret decoded per call and with the user's key cached
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TotpVerifyBenchmark {
+
+    private static final long USER_ID = 1L;
+    private static final int WRONG_CODE = 1;
+
+    private GoogleAuthenticator googleAuthenticator;
+    private TotpServicesImpl totp;
+    private String secret;
+    private Supplier<String> secretLoader;
+
+    @Setup
+    public void setUp() {
+        googleAuthenticator = new GoogleAuthenticator();
+        totp = new TotpServicesImpl(googleAuthenticator);
+        secret = totp.generateSecret().getKey();
+        secretLoader = () -> secret;
+    }
+
+    @Benchmark
+    public boolean googleAuthenticator() {
+        return googleAuthenticator.authorize(secret, WRONG_CODE);
+    }
+
+    @Benchmark
+    public boolean decodedPerCall() {
+        return totp.verifyCode(secret, WRONG_CODE);
+    }
+
+    @Benchmark
+    public boolean cachedKey() {
+        return totp.verifyCode(USER_ID, WRONG_CODE, secretLoader);
+    }
+}
@@ -0,0 +1,108 @@
+package com.skillshare.platform.config;
+
+import com.skillshare.platform.models.AppRole;
+import com.skillshare.platform.models.Role;
+import com.skillshare.platform.models.User;
+import com.skillshare.platform.repositories.RoleRepository;
+import com.skillshare.platform.security.jwt.JwtUtils;
+import com.skillshare.platform.security.services.UserDetailsImpl;
+import com.skillshare.platform.services.UserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.oauth2.client.authentication.OAuth2AuthenticationToken;
+import org.springframework.security.oauth2.core.user.DefaultOAuth2User;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class OAuth2LoginSuccessHandlerTests {
+
+    private static final int ACCOUNTS = 50;
+    private static final int LOGINS_PER_ACCOUNT = 8;
+
+    // Stand-in for the users table: email is unique, ids are assigned on insert
+    private final Map<String, User> usersByEmail = new ConcurrentHashMap<>();
+    private final AtomicLong ids = new AtomicLong();
+
+    @Test
+    void concurrentLoginsEachGetTheirOwnAccountAndToken() throws Exception {
+        UserService userService = mock(UserService.class);
+        when(userService.findByEmail(anyString()))
+                .thenAnswer(inv -> Optional.ofNullable(usersByEmail.get(inv.<String>getArgument(0))));
+        when(userService.registerUser(any(User.class))).thenAnswer(inv -> {
+            User user = inv.getArgument(0);
+            user.setUserId(ids.incrementAndGet());
+            if (usersByEmail.putIfAbsent(user.getEmail(), user) != null) {
+                throw new DataIntegrityViolationException("Duplicate entry for email " + user.getEmail());
+            }
+            return user;
+        });
+
+        JwtUtils jwtUtils = mock(JwtUtils.class);
+        when(jwtUtils.generateTokenFromUsername(any(UserDetailsImpl.class))).thenAnswer(inv -> {
+            UserDetailsImpl details = inv.getArgument(0);
+            return details.getUsername() + "." + details.getId();
+        });
+
+        RoleRepository roleRepository = mock(RoleRepository.class);
+        when(roleRepository.findByRoleName(AppRole.ROLE_USER)).thenReturn(Optional.of(new Role(AppRole.ROLE_USER)));
+
+        OAuth2LoginSuccessHandler handler = new OAuth2LoginSuccessHandler(userService, jwtUtils);
+        ReflectionTestUtils.setField(handler, "roleRepository", roleRepository);
+        ReflectionTestUtils.setField(handler, "frontendUrl", "http://localhost:3000");
+
+        ExecutorService pool = Executors.newFixedThreadPool(32);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<String>> redirects = new ArrayList<>();
+        List<String> logins = new ArrayList<>();
+        try {
+            for (int round = 0; round < LOGINS_PER_ACCOUNT; round++) {
+                for (int i = 0; i < ACCOUNTS; i++) {
+                    String login = "octo" + i;
+                    logins.add(login);
+                    redirects.add(pool.submit(() -> {
+                        start.await();
+                        MockHttpServletResponse response = new MockHttpServletResponse();
+                        handler.onAuthenticationSuccess(new MockHttpServletRequest(), response, githubLogin(login));
+                        return response.getRedirectedUrl();
+                    }));
+                }
+            }
+            start.countDown();
+
+            for (int i = 0; i < redirects.size(); i++) {
+                String redirect = redirects.get(i).get(30, TimeUnit.SECONDS);
+                String login = logins.get(i);
+                User user = usersByEmail.get(login + "@example.com");
+                assertEquals("http://localhost:3000/oauth2/redirect?token=" + login + "." + user.getUserId(), redirect);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertEquals(ACCOUNTS, usersByEmail.size());
+        verify(roleRepository, times(1)).findByRoleName(AppRole.ROLE_USER);
+    }
+
+    private static OAuth2AuthenticationToken githubLogin(String login) {
+        Map<String, Object> attributes = Map.of(
+                "id", login.hashCode(),
+                "login", login,
+                "email", login + "@example.com");
+        List<SimpleGrantedAuthority> authorities = List.of(new SimpleGrantedAuthority("OAUTH2_USER"));
+        return new OAuth2AuthenticationToken(new DefaultOAuth2User(authorities, attributes, "id"), authorities, "github");
+    }
+}
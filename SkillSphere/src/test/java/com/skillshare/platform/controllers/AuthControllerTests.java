@@ -0,0 +1,117 @@
+package com.skillshare.platform.controllers;
+
+import com.skillshare.platform.security.services.LoginAttemptThrottle;
+import com.skillshare.platform.security.jwt.JwtPrincipalResolver;
+import com.skillshare.platform.security.jwt.JwtUtils;
+import com.skillshare.platform.security.request.LoginRequest;
+import com.skillshare.platform.security.services.PasswordHashingRejectedException;
+import com.skillshare.platform.security.services.UserDetailsImpl;
+import com.skillshare.platform.services.UserService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.InternalAuthenticationServiceException;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AuthControllerTests {
+
+    @Mock
+    private AuthenticationManager authenticationManager;
+
+    @Mock
+    private LoginAttemptThrottle loginAttemptThrottle;
+
+    @Mock
+    private JwtUtils jwtUtils;
+
+    @Mock
+    private JwtPrincipalResolver jwtPrincipalResolver;
+
+    @Mock
+    private UserService userService;
+
+    @InjectMocks
+    private AuthController authController;
+
+    @Test
+    void hashingRejectedForAnUnknownUsernameIsNotReportedAsBadCredentials() {
+        when(loginAttemptThrottle.tryAcquire(anyString(), anyString())).thenReturn(0L);
+        when(authenticationManager.authenticate(any())).thenThrow(
+                new InternalAuthenticationServiceException("busy", new PasswordHashingRejectedException()));
+
+        assertThrows(PasswordHashingRejectedException.class,
+                () -> authController.authenticateUser(login("nobody"), new MockHttpServletRequest()));
+        verify(loginAttemptThrottle, never()).recordFailure(anyString(), anyString());
+    }
+
+    @Test
+    void badCredentialsAreCountedAsAFailure() {
+        when(loginAttemptThrottle.tryAcquire(anyString(), anyString())).thenReturn(0L);
+        when(authenticationManager.authenticate(any())).thenThrow(new BadCredentialsException("Bad credentials"));
+
+        ResponseEntity<?> response = authController.authenticateUser(login("alice"), new MockHttpServletRequest());
+
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+        verify(loginAttemptThrottle).recordFailure(eq("alice"), anyString());
+    }
+
+    @Test
+    void twoFactorLoginRejectsARevokedToken() {
+        Claims claims = Jwts.claims().subject("alice").id("jti").build();
+        when(jwtUtils.getVerifiedClaims("token")).thenReturn(claims);
+        when(jwtPrincipalResolver.resolve(claims)).thenReturn(null);
+
+        ResponseEntity<String> response = authController.verify2FALogin(123456, "token");
+
+        assertEquals(HttpStatus.UNAUTHORIZED, response.getStatusCode());
+        verify(userService, never()).validate2FACode(anyLong(), anyInt());
+    }
+
+    @Test
+    void twoFactorLoginRejectsAnUnverifiableToken() {
+        when(jwtUtils.getVerifiedClaims("forged")).thenReturn(null);
+
+        ResponseEntity<String> response = authController.verify2FALogin(123456, "forged");
+
+        assertEquals(HttpStatus.UNAUTHORIZED, response.getStatusCode());
+        verifyNoInteractions(jwtPrincipalResolver, userService);
+    }
+
+    @Test
+    void twoFactorLoginChecksTheCodeForTheTokensUser() {
+        Claims claims = Jwts.claims().subject("alice").id("jti").build();
+        when(jwtUtils.getVerifiedClaims("token")).thenReturn(claims);
+        when(jwtPrincipalResolver.resolve(claims)).thenReturn(
+                new UserDetailsImpl(7L, "alice", null, null, true, null, null, List.of()));
+        when(userService.validate2FACode(7L, 123456)).thenReturn(true);
+
+        ResponseEntity<String> response = authController.verify2FALogin(123456, "token");
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+    }
+
+    private static LoginRequest login(String username) {
+        LoginRequest request = new LoginRequest();
+        request.setUsername(username);
+        request.setPassword("secret");
+        return request;
+    }
+}
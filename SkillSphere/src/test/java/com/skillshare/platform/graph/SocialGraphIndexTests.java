@@ -0,0 +1,82 @@
+package com.skillshare.platform.graph;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SocialGraphIndexTests {
+
+    @Test
+    void longHashSetMatchesHashSetUnderRandomAddsAndRemoves() {
+        Random random = new Random(42);
+        LongHashSet set = new LongHashSet();
+        Set<Long> expected = new HashSet<>();
+
+        for (int i = 0; i < 200_000; i++) {
+            long key = 1 + random.nextInt(5_000);
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(key), set.remove(key));
+            } else {
+                assertEquals(expected.add(key), set.add(key));
+            }
+        }
+
+        assertEquals(expected.size(), set.size());
+        for (long key = 1; key <= 5_000; key++) {
+            assertEquals(expected.contains(key), set.contains(key));
+        }
+        assertEquals(expected.size(), set.toSortedArray().length);
+    }
+
+    @Test
+    void tracksFollowsInBothDirections() {
+        SocialGraphIndex index = new SocialGraphIndex();
+
+        // No surrounding transaction, so changes apply immediately
+        index.recordFollow(2, 1);
+        index.recordFollow(3, 1);
+        index.recordFollow(3, 2);
+        index.recordFollow(3, 2);
+
+        assertTrue(index.isFollowing(1, 2));
+        assertFalse(index.isFollowing(2, 1));
+        assertArrayEquals(new long[]{2, 3}, index.following(1));
+        assertArrayEquals(new long[]{1, 2}, index.followers(3));
+        assertEquals(2, index.followingCount(1));
+        assertEquals(2, index.followerCount(3));
+        assertEquals(3, index.edgeCount());
+
+        index.recordUnfollow(3, 1);
+        index.recordUnfollow(3, 1);
+
+        assertFalse(index.isFollowing(1, 3));
+        assertArrayEquals(new long[]{2}, index.followers(3));
+        assertEquals(2, index.edgeCount());
+        assertTrue(index.memoryFootprintBytes() > 0);
+    }
+
+    @Test
+    void intersectsFollowListsInIdOrder() {
+        SocialGraphIndex index = new SocialGraphIndex();
+        // 1 follows 5, 4, 3 and 2; 3 and 5 follow 1 back
+        for (long followed : new long[]{5, 4, 3, 2}) {
+            index.recordFollow(followed, 1);
+        }
+        index.recordFollow(1, 3);
+        index.recordFollow(1, 5);
+        // 2 follows 4, 3 and 9
+        for (long followed : new long[]{4, 3, 9}) {
+            index.recordFollow(followed, 2);
+        }
+
+        assertArrayEquals(new long[]{3, 5}, index.mutualFollows(1));
+        assertArrayEquals(new long[]{3, 4}, index.commonFollowing(1, 2));
+        // Followers of 3 are 1 and 2; the user 5 follows only 1
+        assertArrayEquals(new long[]{1}, index.followersFollowedBy(3, 5));
+        assertArrayEquals(new long[0], index.commonFollowing(1, 42));
+    }
+}
@@ -0,0 +1,93 @@
+package com.skillshare.platform.repositories;
+
+import com.skillshare.platform.models.Notification;
+import com.skillshare.platform.models.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Runs the mark-all-read upsert on H2 in MySQL mode
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:read-state;MODE=MySQL;DATABASE_TO_LOWER=TRUE",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class NotificationReadStateRepositoryTests {
+
+    @Autowired
+    private NotificationReadStateRepository readStateRepository;
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private User alice;
+    private User bob;
+    private User sender;
+
+    @BeforeEach
+    void setUp() {
+        alice = entityManager.persist(new User("alice", "alice@example.com"));
+        bob = entityManager.persist(new User("bob", "bob@example.com"));
+        sender = entityManager.persist(new User("sender", "sender@example.com"));
+    }
+
+    @Test
+    void theWatermarkStopsAtTheNewestNotificationTheClientShowed() {
+        Long shown = notify(alice);
+        Long arrivedSince = notify(alice);
+
+        readStateRepository.advanceTo(alice.getUserId(), shown);
+
+        assertEquals(shown, watermark(alice));
+        assertEquals(1L, notificationRepository.countUnread(alice.getUserId()));
+        assertTrue(arrivedSince > watermark(alice));
+    }
+
+    @Test
+    void otherUsersNotificationsDoNotMoveTheWatermark() {
+        Long own = notify(alice);
+        notify(bob);
+
+        readStateRepository.advanceTo(alice.getUserId(), Long.MAX_VALUE);
+
+        assertEquals(own, watermark(alice));
+        assertEquals(1L, notificationRepository.countUnread(bob.getUserId()));
+    }
+
+    @Test
+    void theWatermarkNeverMovesBack() {
+        Long first = notify(alice);
+        Long second = notify(alice);
+        readStateRepository.advanceTo(alice.getUserId(), second);
+
+        readStateRepository.advanceTo(alice.getUserId(), first);
+
+        assertEquals(second, watermark(alice));
+        assertEquals(0L, notificationRepository.countUnread(alice.getUserId()));
+    }
+
+    private Long notify(User receiver) {
+        Notification notification = new Notification();
+        notification.setReceiver(receiver);
+        notification.setSender(sender);
+        notification.setSampleSenders(List.of(sender.getUserName()));
+        notification.setMessage("sender liked your post");
+        notification.setType(Notification.NotificationType.LIKE);
+        return entityManager.persistAndFlush(notification).getId();
+    }
+
+    private Long watermark(User user) {
+        entityManager.clear();
+        return readStateRepository.findById(user.getUserId()).orElseThrow().getLastReadId();
+    }
+}
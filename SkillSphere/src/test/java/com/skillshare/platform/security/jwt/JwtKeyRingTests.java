@@ -0,0 +1,200 @@
+package com.skillshare.platform.security.jwt;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.UnsupportedJwtException;
+import io.jsonwebtoken.security.Jwk;
+import io.jsonwebtoken.security.Jwks;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtKeyRingTests {
+
+    private static final String SECRET = "mySecretKey123912738aopsgjnspkmndfsopkvajoirjg94gf2opfng2moknm";
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void hmacModeSignsWithoutAKeyIdAndRejectsUnknownKeyIds() throws IOException {
+        JwtKeyRing ring = ring("HS256", null);
+        String token = sign(ring, "alice");
+
+        assertNull(keyId(ring, token));
+        assertEquals("alice", verify(ring, token).getSubject());
+
+        JwtKeyRing asymmetric = ring("ES256", writeKeys(key("k1", 0)));
+        assertThrows(UnsupportedJwtException.class, () -> verify(ring, sign(asymmetric, "alice")));
+    }
+
+    @Test
+    void asymmetricModeNeedsASharedKeysFile() {
+        JwtKeyRing ring = new JwtKeyRing();
+        ReflectionTestUtils.setField(ring, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(ring, "algorithm", "ES256");
+        ReflectionTestUtils.setField(ring, "keysFile", "");
+
+        assertThrows(IllegalStateException.class, ring::init);
+    }
+
+    @Test
+    void nodesSharingTheKeysFileVerifyEachOthersTokens() throws IOException {
+        Path keys = writeKeys(key("k1", 0));
+        JwtKeyRing first = ring("ES256", keys);
+        JwtKeyRing second = ring("ES256", keys);
+
+        assertEquals("alice", verify(second, sign(first, "alice")).getSubject());
+        assertEquals("bob", verify(first, sign(second, "bob")).getSubject());
+    }
+
+    @Test
+    void rotationSignsWithTheNewKeyAndStillVerifiesTheRetiredOne() throws IOException {
+        Jwk<?> k1 = key("k1", 0);
+        Path keys = writeKeys(k1);
+        JwtKeyRing ring = ring("ES256", keys);
+        String beforeRotation = sign(ring, "alice");
+        assertEquals("k1", keyId(ring, beforeRotation));
+
+        writeKeys(k1, key("k2", Instant.now().getEpochSecond() - 1));
+        ring.reload();
+        String afterRotation = sign(ring, "alice");
+
+        assertEquals("k2", keyId(ring, afterRotation));
+        assertEquals("alice", verify(ring, beforeRotation).getSubject());
+        assertEquals("alice", verify(ring, afterRotation).getSubject());
+        assertEquals(Set.of("k1", "k2"), publishedKeyIds(ring));
+    }
+
+    @Test
+    void aStagedKeyIsVerifiableBeforeItSigns() throws IOException {
+        JwtKeyRing ring = ring("ES256", writeKeys(key("k1", 0), key("k2", Instant.now().getEpochSecond() + 3600)));
+        JwtKeyRing staged = ring("ES256", writeKeys(key("k2-only", 0)));
+
+        assertEquals("k1", keyId(ring, sign(ring, "alice")));
+        assertEquals(Set.of("k1", "k2"), publishedKeyIds(ring));
+        assertThrows(UnsupportedJwtException.class, () -> verify(ring, sign(staged, "alice")));
+    }
+
+    @Test
+    void removedKeysAndUnknownKeyIdsAreRejected() throws IOException {
+        Jwk<?> k1 = key("k1", 0);
+        Path keys = writeKeys(k1);
+        JwtKeyRing ring = ring("ES256", keys);
+        String signedByK1 = sign(ring, "alice");
+
+        writeKeys(key("k2", 1));
+        ring.reload();
+
+        assertEquals("k2", keyId(ring, sign(ring, "alice")));
+        assertThrows(UnsupportedJwtException.class, () -> verify(ring, signedByK1));
+    }
+
+    @Test
+    void aBrokenKeysFileKeepsTheCurrentKeys() throws IOException {
+        Path keys = writeKeys(key("k1", 0));
+        JwtKeyRing ring = ring("ES256", keys);
+        String token = sign(ring, "alice");
+
+        Files.writeString(keys, "not json");
+        ring.reload();
+
+        assertEquals("alice", verify(ring, token).getSubject());
+        assertEquals("k1", keyId(ring, sign(ring, "alice")));
+    }
+
+    @Test
+    void eddsaKeysAreSupported() throws IOException {
+        JwtKeyRing ring = ring("EdDSA", writeKeys(key("ec", 0),
+                Jwks.builder().keyPair(Jwks.CRV.Ed25519.keyPair().build()).id("ed").add("nbf", 0L).build()));
+
+        String token = sign(ring, "alice");
+
+        assertEquals("ed", keyId(ring, token));
+        assertEquals("alice", verify(ring, token).getSubject());
+    }
+
+    @Test
+    void hmacTokensAreRejectedAfterSwitchingAlgorithms() throws IOException {
+        String legacy = sign(ring("HS256", null), "alice");
+        JwtKeyRing ring = ring("ES256", writeKeys(key("k1", 0)));
+
+        assertThrows(UnsupportedJwtException.class, () -> verify(ring, legacy));
+    }
+
+    @Test
+    void hmacTokensAreAcceptedOnlyDuringTheMigrationWindow() throws IOException {
+        String legacy = sign(ring("HS256", null), "alice");
+        Path keys = writeKeys(key("k1", 0));
+
+        JwtKeyRing open = ring("ES256", keys, true, Instant.now().plusSeconds(3600).toString());
+        assertEquals("alice", verify(open, legacy).getSubject());
+
+        JwtKeyRing closed = ring("ES256", keys, true, Instant.now().minusSeconds(1).toString());
+        assertThrows(UnsupportedJwtException.class, () -> verify(closed, legacy));
+    }
+
+    @Test
+    void theMigrationWindowMustBeBounded() throws IOException {
+        Path keys = writeKeys(key("k1", 0));
+
+        assertThrows(IllegalStateException.class, () -> ring("ES256", keys, true, ""));
+    }
+
+    private JwtKeyRing ring(String algorithm, Path keys) {
+        return ring(algorithm, keys, false, "");
+    }
+
+    private static JwtKeyRing ring(String algorithm, Path keys, boolean legacyHmacTokens, String legacyHmacUntil) {
+        JwtKeyRing ring = new JwtKeyRing();
+        ReflectionTestUtils.setField(ring, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(ring, "algorithm", algorithm);
+        ReflectionTestUtils.setField(ring, "keysFile", keys != null ? keys.toString() : "");
+        ReflectionTestUtils.setField(ring, "legacyHmacTokens", legacyHmacTokens);
+        ReflectionTestUtils.setField(ring, "legacyHmacUntil", legacyHmacUntil);
+        ring.init();
+        return ring;
+    }
+
+    private static Jwk<?> key(String kid, long notBefore) {
+        return Jwks.builder().keyPair(Jwts.SIG.ES256.keyPair().build()).id(kid).add("nbf", notBefore).build();
+    }
+
+    private Path writeKeys(Jwk<?>... keys) throws IOException {
+        Path file = dir.resolve("jwt-keys.json");
+        String json = Arrays.stream(keys).map(Jwks::UNSAFE_JSON).collect(Collectors.joining(",", "{\"keys\":[", "]}"));
+        return Files.writeString(file, json);
+    }
+
+    private static String sign(JwtKeyRing ring, String subject) {
+        return ring.sign(Jwts.builder().subject(subject)).compact();
+    }
+
+    private static Claims verify(JwtKeyRing ring, String token) {
+        JwtParser parser = Jwts.parser().keyLocator(ring.keyLocator()).build();
+        return parser.parseSignedClaims(token).getPayload();
+    }
+
+    private static String keyId(JwtKeyRing ring, String token) {
+        return Jwts.parser().keyLocator(ring.keyLocator()).build().parseSignedClaims(token).getHeader().getKeyId();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Set<String> publishedKeyIds(JwtKeyRing ring) {
+        List<Map<String, Object>> keys = (List<Map<String, Object>>) ring.publicJwks().get("keys");
+        return keys.stream().map(key -> (String) key.get("kid")).collect(Collectors.toSet());
+    }
+}
@@ -0,0 +1,87 @@
+package com.skillshare.platform.security.jwt;
+
+import com.skillshare.platform.security.services.TokenRevocationService;
+import com.skillshare.platform.security.services.UserDetailsImpl;
+import com.skillshare.platform.security.services.UserDetailsServiceImpl;
+import com.skillshare.platform.security.services.UserSecurityVersionService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class JwtPrincipalResolverTests {
+
+    @Mock
+    private UserDetailsServiceImpl userDetailsService;
+
+    @Mock
+    private UserSecurityVersionService securityVersionService;
+
+    @Mock
+    private TokenRevocationService tokenRevocationService;
+
+    @InjectMocks
+    private JwtPrincipalResolver resolver;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(resolver, "statelessPrincipal", true);
+    }
+
+    @Test
+    void aCurrentTokenResolvesWithoutTheDatabase() {
+        when(securityVersionService.isCurrent(1L, 3)).thenReturn(true);
+
+        UserDetailsImpl principal = resolver.resolve(claims(3));
+
+        assertEquals(1L, principal.getId());
+        assertEquals("alice", principal.getUsername());
+        assertEquals(List.of("ROLE_USER"), principal.getAuthorities().stream().map(Object::toString).toList());
+        verifyNoInteractions(userDetailsService);
+    }
+
+    @Test
+    void aRevokedTokenIsRejected() {
+        when(tokenRevocationService.isRevoked("jti-1")).thenReturn(true);
+
+        assertNull(resolver.resolve(claims(3)));
+        verifyNoInteractions(securityVersionService, userDetailsService);
+    }
+
+    @Test
+    void aStaleSecurityVersionIsRejected() {
+        when(securityVersionService.isCurrent(1L, 2)).thenReturn(false);
+
+        assertNull(resolver.resolve(claims(2)));
+    }
+
+    @Test
+    void legacyTokensForDeletedUsersAreRejected() {
+        Claims legacy = Jwts.claims().subject("ghost").id("jti-2").build();
+        when(userDetailsService.loadUserByUsername("ghost")).thenThrow(new UsernameNotFoundException("gone"));
+
+        assertNull(resolver.resolve(legacy));
+    }
+
+    private static Claims claims(int securityVersion) {
+        return Jwts.claims()
+                .subject("alice")
+                .id("jti-1")
+                .add("uid", 1L)
+                .add("sv", securityVersion)
+                .add("roles", "ROLE_USER")
+                .build();
+    }
+}
@@ -0,0 +1,177 @@
+package com.skillshare.platform.security.jwt;
+
+import com.skillshare.platform.security.services.UserDetailsImpl;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Jwk;
+import io.jsonwebtoken.security.Jwks;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtUtilsTests {
+
+    private static final String SECRET = "mySecretKey123912738aopsgjnspkmndfsopkvajoirjg94gf2opfng2moknm";
+
+    @TempDir
+    Path dir;
+
+    private SimpleMeterRegistry meterRegistry;
+    private JwtUtils jwtUtils;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        jwtUtils = jwtUtils(60_000);
+    }
+
+    @Test
+    void aVerifiedTokenIsServedFromTheCache() {
+        String token = jwtUtils.generateTokenFromUsername(user());
+
+        Claims first = jwtUtils.getVerifiedClaims(token);
+        Claims second = jwtUtils.getVerifiedClaims(token);
+
+        assertSame(first, second);
+        assertEquals("alice", second.getSubject());
+        assertEquals(1.0, cacheCount("hit"));
+        assertEquals(1.0, cacheCount("miss"));
+        assertEquals(1L, meterRegistry.get("jwt.verify.signature").timer().count());
+    }
+
+    @Test
+    void anExpiredTokenIsDroppedFromTheCacheAndRejected() throws InterruptedException {
+        JwtUtils shortLived = jwtUtils(1_000);
+        String token = shortLived.generateTokenFromUsername(user());
+        assertNotNull(shortLived.getVerifiedClaims(token));
+        assertEquals(1, cacheSize(shortLived));
+
+        Thread.sleep(1_100);
+
+        assertNull(shortLived.getVerifiedClaims(token));
+        assertEquals(0, cacheSize(shortLived));
+    }
+
+    @Test
+    void aTamperedTokenMissesTheCacheAndFailsVerification() {
+        String token = jwtUtils.generateTokenFromUsername(user());
+        assertNotNull(jwtUtils.getVerifiedClaims(token));
+
+        String[] parts = token.split("\\.");
+        String forgedPayload = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString("{\"sub\":\"admin\",\"exp\":9999999999}".getBytes());
+        String tampered = parts[0] + "." + forgedPayload + "." + parts[2];
+
+        assertNull(jwtUtils.getVerifiedClaims(tampered));
+        assertEquals(0.0, cacheCount("hit"));
+        assertEquals(2.0, cacheCount("miss"));
+        assertEquals(1, cacheSize(jwtUtils));
+    }
+
+    @Test
+    void aCachedTokenIsRejectedOnceItsKeyIsRemoved() throws IOException {
+        Jwk<?> k1 = key("k1");
+        JwtKeyRing keyRing = keyRing("ES256", writeKeys(k1), false, "");
+        JwtUtils utils = jwtUtils(60_000, keyRing);
+        String token = utils.generateTokenFromUsername(user());
+        Claims verified = utils.getVerifiedClaims(token);
+        assertSame(verified, utils.getVerifiedClaims(token));
+
+        writeKeys(key("k2"));
+        keyRing.reload();
+
+        assertNull(utils.getVerifiedClaims(token));
+        assertEquals(0, cacheSize(utils));
+    }
+
+    @Test
+    void aCachedHmacTokenIsRejectedOnceTheLegacyWindowCloses() throws IOException {
+        JwtUtils hmac = jwtUtils(60_000);
+        String legacy = hmac.generateTokenFromUsername(user());
+        JwtKeyRing keyRing = keyRing("ES256", writeKeys(key("k1")), true, Instant.now().plusSeconds(3600).toString());
+        JwtUtils utils = jwtUtils(60_000, keyRing);
+        Claims verified = utils.getVerifiedClaims(legacy);
+        assertSame(verified, utils.getVerifiedClaims(legacy));
+
+        ReflectionTestUtils.setField(keyRing, "legacyHmacDeadline", Instant.now().minusSeconds(1));
+
+        assertNull(utils.getVerifiedClaims(legacy));
+    }
+
+    @Test
+    void cachedTokensSurviveAReloadThatKeepsTheirKey() throws IOException {
+        Jwk<?> k1 = key("k1");
+        Path keys = writeKeys(k1);
+        JwtKeyRing keyRing = keyRing("ES256", keys, false, "");
+        JwtUtils utils = jwtUtils(60_000, keyRing);
+        String token = utils.generateTokenFromUsername(user());
+        Claims verified = utils.getVerifiedClaims(token);
+
+        writeKeys(k1, key("k2"));
+        keyRing.reload();
+
+        assertSame(verified, utils.getVerifiedClaims(token));
+    }
+
+    private JwtUtils jwtUtils(int expirationMs) {
+        return jwtUtils(expirationMs, keyRing("HS256", null, false, ""));
+    }
+
+    private static JwtKeyRing keyRing(String algorithm, Path keys, boolean legacyHmacTokens, String legacyHmacUntil) {
+        JwtKeyRing keyRing = new JwtKeyRing();
+        ReflectionTestUtils.setField(keyRing, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(keyRing, "algorithm", algorithm);
+        ReflectionTestUtils.setField(keyRing, "keysFile", keys != null ? keys.toString() : "");
+        ReflectionTestUtils.setField(keyRing, "legacyHmacTokens", legacyHmacTokens);
+        ReflectionTestUtils.setField(keyRing, "legacyHmacUntil", legacyHmacUntil);
+        keyRing.init();
+        return keyRing;
+    }
+
+    private static Jwk<?> key(String kid) {
+        return Jwks.builder().keyPair(Jwts.SIG.ES256.keyPair().build()).id(kid).add("nbf", 0L).build();
+    }
+
+    private Path writeKeys(Jwk<?>... keys) throws IOException {
+        String json = Arrays.stream(keys).map(Jwks::UNSAFE_JSON).collect(Collectors.joining(",", "{\"keys\":[", "]}"));
+        return Files.writeString(dir.resolve("jwt-keys.json"), json);
+    }
+
+    private JwtUtils jwtUtils(int expirationMs, JwtKeyRing keyRing) {
+        JwtUtils utils = new JwtUtils();
+        ReflectionTestUtils.setField(utils, "jwtExpirationMs", expirationMs);
+        ReflectionTestUtils.setField(utils, "jwtCacheMaxSize", 100);
+        ReflectionTestUtils.setField(utils, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(utils, "keyRing", keyRing);
+        utils.init();
+        return utils;
+    }
+
+    private double cacheCount(String result) {
+        return meterRegistry.get("jwt.verify.cache").tag("result", result).functionCounter().count();
+    }
+
+    private static int cacheSize(JwtUtils utils) {
+        return ((Map<?, ?>) ReflectionTestUtils.getField(utils, "verifiedTokens")).size();
+    }
+
+    private static UserDetailsImpl user() {
+        return new UserDetailsImpl(1L, "alice", "alice@example.com", "hash", false, null, null,
+                List.of(new SimpleGrantedAuthority("ROLE_USER")));
+    }
+}
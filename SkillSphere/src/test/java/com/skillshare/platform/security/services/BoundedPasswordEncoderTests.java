@@ -0,0 +1,77 @@
+package com.skillshare.platform.security.services;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoundedPasswordEncoderTests {
+
+    private SimpleMeterRegistry meterRegistry;
+    private BoundedPasswordEncoder encoder;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        encoder = new BoundedPasswordEncoder(4, 1, 1, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        encoder.shutdown();
+    }
+
+    @Test
+    void calibrationStaysWithinBounds() {
+        assertEquals(4, BoundedPasswordEncoder.calibrateStrength(1, 4, 6));
+        assertEquals(6, BoundedPasswordEncoder.calibrateStrength(60_000, 4, 6));
+        int strength = BoundedPasswordEncoder.calibrateStrength(50, 4, 12);
+        assertTrue(strength >= 4 && strength <= 12);
+    }
+
+    @Test
+    void hashesOnThePool() {
+        String hash = encoder.encode("secret");
+
+        assertTrue(encoder.matches("secret", hash));
+        assertFalse(encoder.matches("other", hash));
+    }
+
+    @Test
+    void rejectsStraightAwayWhenThePoolAndQueueAreFull() throws InterruptedException {
+        ThreadPoolExecutor executor = (ThreadPoolExecutor) ReflectionTestUtils.getField(encoder, "executor");
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        executor.execute(() -> {
+            started.countDown();
+            awaitQuietly(release);
+        });
+        started.await();
+        executor.execute(() -> awaitQuietly(release));
+
+        try {
+            assertThrows(PasswordHashingRejectedException.class, () -> encoder.encode("secret"));
+            assertEquals(1.0, meterRegistry.get("password.hash.rejected").counter().count());
+        } finally {
+            release.countDown();
+        }
+        while (executor.getActiveCount() > 0 || !executor.getQueue().isEmpty()) {
+            Thread.sleep(5);
+        }
+        assertNotNull(encoder.encode("secret"));
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.skillshare.platform.security.services;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoginAttemptThrottleTests {
+
+    private SimpleMeterRegistry meterRegistry;
+    private LoginAttemptThrottle throttle;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        throttle = new LoginAttemptThrottle();
+        ReflectionTestUtils.setField(throttle, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(throttle, "ratePerMinute", 60_000);
+        ReflectionTestUtils.setField(throttle, "burst", 100);
+        ReflectionTestUtils.setField(throttle, "freeFailures", 3);
+        ReflectionTestUtils.setField(throttle, "ipRatePerMinute", 60_000);
+        ReflectionTestUtils.setField(throttle, "ipBurst", 100);
+        ReflectionTestUtils.setField(throttle, "ipFreeFailures", 6);
+        ReflectionTestUtils.setField(throttle, "backoffBaseMillis", 1L);
+        ReflectionTestUtils.setField(throttle, "backoffMaxMillis", 2L);
+        ReflectionTestUtils.setField(throttle, "lockoutFailures", 5);
+        ReflectionTestUtils.setField(throttle, "lockoutMillis", 200L);
+        ReflectionTestUtils.setField(throttle, "maxKeys", 100);
+        ReflectionTestUtils.setField(throttle, "idleMillis", 900_000L);
+        throttle.init();
+    }
+
+    @Test
+    void repeatedFailuresLockTheUsernameOut() {
+        fail("alice", 5);
+
+        long wait = throttle.tryAcquire("alice", "10.0.0.99");
+        assertTrue(wait > 100, "expected a lockout, waited " + wait);
+        assertEquals(1.0, meterRegistry.get("login.throttle.lockouts").counter().count());
+        assertEquals(0, throttle.tryAcquire("bob", "10.0.0.99"));
+    }
+
+    @Test
+    void theLockoutLiftsByItself() throws InterruptedException {
+        fail("alice", 5);
+        assertTrue(throttle.tryAcquire("alice", "10.0.0.99") > 0);
+
+        Thread.sleep(250);
+
+        assertEquals(0, throttle.tryAcquire("ALICE", "10.0.0.99"));
+    }
+
+    @Test
+    void failuresAfterALockoutLockAgain() throws InterruptedException {
+        fail("alice", 5);
+        Thread.sleep(250);
+
+        fail("alice", 4);
+        Thread.sleep(10);
+        assertEquals(0, throttle.tryAcquire("alice", "10.0.0.99"));
+        fail("alice", 1);
+
+        assertTrue(throttle.tryAcquire("alice", "10.0.0.99") > 100);
+        assertEquals(2.0, meterRegistry.get("login.throttle.lockouts").counter().count());
+    }
+
+    @Test
+    void evictionUnderPressureKeepsLockouts() {
+        fail("alice", 5);
+
+        for (int i = 0; i < 300; i++) {
+            throttle.tryAcquire("user" + i, "10.1.0." + i);
+        }
+
+        assertTrue(throttle.tryAcquire("alice", "10.0.0.99") > 100);
+    }
+
+    @Test
+    void anAddressGetsMoreFailuresThanAUsername() {
+        slowBackoff();
+        for (int i = 0; i < 6; i++) {
+            throttle.recordFailure("user" + i, "10.0.0.1");
+        }
+        assertEquals(0, throttle.tryAcquire("someone", "10.0.0.1"));
+
+        throttle.recordFailure("user6", "10.0.0.1");
+        assertTrue(throttle.tryAcquire("someone", "10.0.0.1") > 0);
+    }
+
+    @Test
+    void successesFromAnAddressDecayItsFailureStreak() {
+        slowBackoff();
+        for (int i = 0; i < 6; i++) {
+            throttle.recordFailure("user" + i, "10.0.0.1");
+        }
+
+        throttle.recordSuccess("alice", "10.0.0.1");
+        for (int i = 0; i < 3; i++) {
+            throttle.recordFailure("other" + i, "10.0.0.1");
+        }
+
+        assertEquals(0, throttle.tryAcquire("someone", "10.0.0.1"));
+    }
+
+    private void slowBackoff() {
+        ReflectionTestUtils.setField(throttle, "backoffBaseMillis", 10_000L);
+        ReflectionTestUtils.setField(throttle, "backoffMaxMillis", 10_000L);
+    }
+
+    // Each failure comes from its own address so only the username bucket accumulates
+    private void fail(String username, int times) {
+        for (int i = 0; i < times; i++) {
+            throttle.recordFailure(username, "10.0." + username.hashCode() % 100 + "." + i);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.skillshare.platform.security.services;
+
+import com.skillshare.platform.models.RevokedToken;
+import com.skillshare.platform.repositories.RevokedTokenRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TokenRevocationServiceTests {
+
+    @Mock
+    private RevokedTokenRepository revokedTokenRepository;
+
+    @InjectMocks
+    private TokenRevocationService service;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(service, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(service, "expectedTokens", 100);
+        ReflectionTestUtils.setField(service, "syncOverlapMs", 60_000L);
+        service.init();
+    }
+
+    @Test
+    void aLocalRevocationIsPersistedAndSeenAtOnce() {
+        service.revoke("a", inOneHour());
+
+        assertTrue(service.isRevoked("a"));
+        assertFalse(service.isRevoked("b"));
+        verify(revokedTokenRepository).save(any(RevokedToken.class));
+    }
+
+    @Test
+    void revocationsFromOtherNodesArePickedUpBySync() {
+        when(revokedTokenRepository.findByRevokedAtAfter(any())).thenReturn(List.of(
+                new RevokedToken("remote", inOneHour(), Instant.now()),
+                new RevokedToken("expired", Instant.now().minusSeconds(1), Instant.now())));
+        assertFalse(service.isRevoked("remote"));
+
+        service.sync();
+
+        assertTrue(service.isRevoked("remote"));
+        assertFalse(service.isRevoked("expired"));
+    }
+
+    @Test
+    void eachSyncOverlapsThePreviousOne() {
+        when(revokedTokenRepository.findByRevokedAtAfter(any())).thenReturn(List.of());
+        service.sync();
+        Instant afterFirst = Instant.now();
+
+        service.sync();
+
+        ArgumentCaptor<Instant> since = ArgumentCaptor.forClass(Instant.class);
+        verify(revokedTokenRepository, times(2)).findByRevokedAtAfter(since.capture());
+        assertFalse(since.getAllValues().get(1).isAfter(afterFirst.minusMillis(60_000)));
+        assertTrue(since.getAllValues().get(1).isAfter(afterFirst.minusMillis(70_000)));
+    }
+
+    @Test
+    void compactionReloadsTheSetFromTheTable() {
+        when(revokedTokenRepository.findByExpiresAtAfter(any())).thenReturn(
+                List.of(new RevokedToken("old", inOneHour(), null)),
+                List.of(new RevokedToken("new", inOneHour(), Instant.now())));
+        service.loadFromDatabase();
+        assertTrue(service.isRevoked("old"));
+
+        service.compact();
+
+        verify(revokedTokenRepository).deleteExpired(any());
+        assertFalse(service.isRevoked("old"));
+        assertTrue(service.isRevoked("new"));
+    }
+
+    @Test
+    void growingPastTheFilterCapacityKeepsEveryRevocation() {
+        for (int i = 0; i < 250; i++) {
+            service.revoke("t" + i, inOneHour());
+        }
+
+        for (int i = 0; i < 250; i++) {
+            assertTrue(service.isRevoked("t" + i));
+        }
+    }
+
+    private static Instant inOneHour() {
+        return Instant.now().plus(1, ChronoUnit.HOURS);
+    }
+}
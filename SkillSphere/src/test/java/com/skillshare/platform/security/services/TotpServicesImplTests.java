@@ -0,0 +1,138 @@
+package com.skillshare.platform.security.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TotpServicesImplTests {
+
+    // RFC 6238 appendix B SHA1 seed, the ASCII bytes of "12345678901234567890", in Base32
+    private static final String RFC_SECRET = "GEZDGNBVGY3TQOJQGEZDGNBVGY3TQOJQ";
+
+    private static final class FixedClockTotp extends TotpServicesImpl {
+        long nowMillis;
+
+        FixedClockTotp(long nowSeconds) {
+            this.nowMillis = nowSeconds * 1000;
+        }
+
+        @Override
+        long currentTimeMillis() {
+            return nowMillis;
+        }
+    }
+
+    @Test
+    void matchesTheRfc6238Sha1Vectors() {
+        // The RFC lists 8-digit codes; 6-digit codes are their last six digits
+        long[][] vectors = {
+                {59L, 287082},
+                {1111111109L, 81804},
+                {1111111111L, 50471},
+                {1234567890L, 5924},
+                {2000000000L, 279037},
+                {20000000000L, 353130},
+        };
+        for (long[] vector : vectors) {
+            FixedClockTotp totp = new FixedClockTotp(vector[0]);
+            assertTrue(totp.verifyCode(RFC_SECRET, (int) vector[1]), "T=" + vector[0]);
+            assertFalse(totp.verifyCode(RFC_SECRET, (int) (vector[1] + 1) % 1_000_000), "T=" + vector[0]);
+        }
+    }
+
+    @Test
+    void acceptsOneStepOfClockSkewEitherWay() {
+        // 1111111109 and 1111111111 fall in adjacent steps (37037036 and 37037037)
+        FixedClockTotp totp = new FixedClockTotp(1111111111L);
+        assertTrue(totp.verifyCode(RFC_SECRET, 81804));
+
+        totp.nowMillis = 1111111109L * 1000;
+        assertTrue(totp.verifyCode(RFC_SECRET, 50471));
+    }
+
+    @Test
+    void rejectsCodesOutsideTheWindow() {
+        FixedClockTotp totp = new FixedClockTotp(59L + 90);
+        assertFalse(totp.verifyCode(RFC_SECRET, 287082));
+
+        totp.nowMillis = (1111111111L - 60) * 1000;
+        assertFalse(totp.verifyCode(RFC_SECRET, 50471));
+    }
+
+    @Test
+    void rejectsOutOfRangeCodes() {
+        FixedClockTotp totp = new FixedClockTotp(59L);
+        assertFalse(totp.verifyCode(RFC_SECRET, 0));
+        assertFalse(totp.verifyCode(RFC_SECRET, -287082));
+        assertFalse(totp.verifyCode(RFC_SECRET, 1_287_082));
+        assertFalse(totp.verifyCode((String) null, 287082));
+    }
+
+    @Test
+    void aCodeIsAcceptedOnlyOncePerUser() {
+        FixedClockTotp totp = new FixedClockTotp(1111111111L);
+
+        assertTrue(totp.verifyCode(1L, 50471, () -> RFC_SECRET));
+        assertFalse(totp.verifyCode(1L, 50471, () -> RFC_SECRET));
+        // Nor any code from an earlier step in the window
+        assertFalse(totp.verifyCode(1L, 81804, () -> RFC_SECRET));
+        // Another user with the same secret is unaffected
+        assertTrue(totp.verifyCode(2L, 50471, () -> RFC_SECRET));
+    }
+
+    @Test
+    void aLaterStepIsAcceptedAfterAnEarlierOne() {
+        FixedClockTotp totp = new FixedClockTotp(1111111111L);
+
+        assertTrue(totp.verifyCode(1L, 81804, () -> RFC_SECRET));
+        assertTrue(totp.verifyCode(1L, 50471, () -> RFC_SECRET));
+    }
+
+    @Test
+    void evictingASecretForgetsTheKeyAndReplayState() {
+        FixedClockTotp totp = new FixedClockTotp(1111111111L);
+        AtomicInteger loads = new AtomicInteger();
+        Supplier<String> loader = () -> {
+            loads.incrementAndGet();
+            return RFC_SECRET;
+        };
+
+        assertTrue(totp.verifyCode(1L, 50471, loader));
+        totp.evictSecret(1L);
+
+        assertTrue(totp.verifyCode(1L, 50471, loader));
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void cachedKeysAreEvictedLeastRecentlyUsedFirst() {
+        FixedClockTotp totp = new FixedClockTotp(59L);
+        AtomicInteger firstUserLoads = new AtomicInteger();
+        AtomicInteger secondUserLoads = new AtomicInteger();
+        Supplier<String> firstLoader = () -> {
+            firstUserLoads.incrementAndGet();
+            return RFC_SECRET;
+        };
+        Supplier<String> secondLoader = () -> {
+            secondUserLoads.incrementAndGet();
+            return RFC_SECRET;
+        };
+
+        // Code 0 is never valid, so these only exercise the key cache
+        totp.verifyCode(1L, 0, firstLoader);
+        totp.verifyCode(2L, 0, secondLoader);
+        for (long userId = 3; userId <= 10_000; userId++) {
+            totp.verifyCode(userId, 0, () -> RFC_SECRET);
+        }
+        totp.verifyCode(1L, 0, firstLoader);
+        totp.verifyCode(10_001L, 0, () -> RFC_SECRET);
+
+        totp.verifyCode(1L, 0, firstLoader);
+        totp.verifyCode(2L, 0, secondLoader);
+        assertEquals(1, firstUserLoads.get());
+        assertEquals(2, secondUserLoads.get());
+    }
+}
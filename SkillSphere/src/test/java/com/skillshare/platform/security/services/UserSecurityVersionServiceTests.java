@@ -0,0 +1,106 @@
+package com.skillshare.platform.security.services;
+
+import com.skillshare.platform.repositories.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserSecurityVersionServiceTests {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @InjectMocks
+    private UserSecurityVersionService service;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(service, "ttlMs", 60_000L);
+        ReflectionTestUtils.setField(service, "maxSize", 10);
+    }
+
+    @Test
+    void versionsAreCachedWithinTheTtl() {
+        when(userRepository.findSecurityVersionByUserId(1L)).thenReturn(Optional.of(2));
+
+        assertTrue(service.isCurrent(1L, 2));
+        assertFalse(service.isCurrent(1L, 1));
+        verify(userRepository, times(1)).findSecurityVersionByUserId(1L);
+    }
+
+    @Test
+    void aBumpOnAnotherNodeIsSeenOnceTheEntryExpires() throws InterruptedException {
+        ReflectionTestUtils.setField(service, "ttlMs", 50L);
+        when(userRepository.findSecurityVersionByUserId(1L)).thenReturn(Optional.of(2), Optional.of(3));
+
+        assertTrue(service.isCurrent(1L, 2));
+        Thread.sleep(80);
+
+        assertFalse(service.isCurrent(1L, 2));
+        assertTrue(service.isCurrent(1L, 3));
+    }
+
+    @Test
+    void aTokenIssuedAfterABumpElsewhereIsCheckedAgainstTheDatabase() {
+        when(userRepository.findSecurityVersionByUserId(1L)).thenReturn(Optional.of(2), Optional.of(3));
+        assertTrue(service.isCurrent(1L, 2));
+
+        // Another node bumped the version and issued this token; the entry here has not expired
+        assertTrue(service.isCurrent(1L, 3));
+        assertFalse(service.isCurrent(1L, 2));
+        verify(userRepository, times(2)).findSecurityVersionByUserId(1L);
+    }
+
+    @Test
+    void aVersionAheadOfTheDatabaseIsRejected() {
+        when(userRepository.findSecurityVersionByUserId(1L)).thenReturn(Optional.of(2));
+        assertTrue(service.isCurrent(1L, 2));
+
+        assertFalse(service.isCurrent(1L, 7));
+        assertTrue(service.isCurrent(1L, 2));
+    }
+
+    @Test
+    void aLocalBumpTakesEffectImmediately() {
+        when(userRepository.findSecurityVersionByUserId(1L)).thenReturn(Optional.of(2));
+        assertTrue(service.isCurrent(1L, 2));
+
+        service.publish(1L, 3);
+
+        assertFalse(service.isCurrent(1L, 2));
+        assertTrue(service.isCurrent(1L, 3));
+        verify(userRepository, times(1)).findSecurityVersionByUserId(1L);
+    }
+
+    @Test
+    void unknownUsersAreRejectedAndNotCached() {
+        when(userRepository.findSecurityVersionByUserId(1L)).thenReturn(Optional.empty());
+
+        assertFalse(service.isCurrent(1L, 0));
+        assertEquals(0, service.size());
+    }
+
+    @Test
+    void theCacheStaysBounded() {
+        when(userRepository.findSecurityVersionByUserId(anyLong())).thenReturn(Optional.of(0));
+
+        for (long userId = 1; userId <= 100; userId++) {
+            assertTrue(service.isCurrent(userId, 0));
+        }
+        assertTrue(service.size() <= 10);
+        // The most recently loaded user is still cached
+        service.isCurrent(100L, 0);
+        verify(userRepository, times(1)).findSecurityVersionByUserId(100L);
+    }
+}
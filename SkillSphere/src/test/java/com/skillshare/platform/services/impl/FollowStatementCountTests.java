@@ -0,0 +1,132 @@
+package com.skillshare.platform.services.impl;
+
+import com.skillshare.platform.graph.SocialGraphIndex;
+import com.skillshare.platform.models.User;
+import com.skillshare.platform.repositories.FollowBatchRepository;
+import com.skillshare.platform.services.UserService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Counts the SQL statements follow and unfollow really send, on H2 in MySQL mode
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:follow-statements;MODE=MySQL;DATABASE_TO_LOWER=TRUE",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({FollowerServiceImpl.class, NotificationServiceImpl.class})
+class FollowStatementCountTests {
+
+    @Autowired
+    private FollowerServiceImpl followerService;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @MockitoBean
+    private UserService userService;
+
+    @MockitoBean
+    private SocialGraphIndex socialGraphIndex;
+
+    @MockitoBean
+    private FollowBatchRepository followBatchRepository;
+
+    @MockitoBean
+    private UnreadNotificationCounters unreadNotificationCounters;
+
+    @MockitoBean
+    private NotificationStreams notificationStreams;
+
+    private Statistics statistics;
+    private Long targetId;
+    private Long followerId;
+    private Long otherFollowerId;
+
+    @BeforeEach
+    void setUp() {
+        targetId = entityManager.persistAndFlush(new User("target", "target@example.com")).getUserId();
+        followerId = entityManager.persistAndFlush(new User("follower", "follower@example.com")).getUserId();
+        otherFollowerId = entityManager.persistAndFlush(new User("other", "other@example.com")).getUserId();
+        entityManager.clear();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void aNewFollowIsTwoStatementsPlusItsNotification() {
+        long followStatements = count(() -> followerService.followUser(targetId, followerId, "follower"));
+
+        // Counters and edge, then the notification: look for an open group, insert the row and its actor
+        assertEquals(2 + 3, followStatements);
+        assertEquals(1L, followerCount(targetId));
+    }
+
+    @Test
+    void aFollowThatFoldsIntoAGroupIsTwoStatementsPlusTheFold() {
+        followerService.followUser(targetId, followerId, "follower");
+
+        long followStatements = count(() -> followerService.followUser(targetId, otherFollowerId, "other"));
+
+        // Counters and edge, then the fold: find the group, lock it, re-check the watermark, add the actor and
+        // update the row
+        assertEquals(2 + 5, followStatements);
+        assertEquals(2L, followerCount(targetId));
+    }
+
+    @Test
+    void aRepeatedFollowIsThreeStatementsAndChangesNothing() {
+        followerService.followUser(targetId, followerId, "follower");
+
+        long followStatements = count(() -> assertFalse(followerService.followUser(targetId, followerId, "follower")));
+
+        assertEquals(3, followStatements);
+        assertEquals(1L, followerCount(targetId));
+    }
+
+    @Test
+    void anUnfollowIsTwoStatements() {
+        followerService.followUser(targetId, followerId, "follower");
+
+        long unfollowStatements = count(() -> assertTrue(followerService.unfollowUser(targetId, followerId)));
+
+        assertEquals(2, unfollowStatements);
+        assertEquals(0L, followerCount(targetId));
+    }
+
+    @Test
+    void followingAMissingUserIsOneStatement() {
+        long followStatements = count(() -> assertThrows(RuntimeException.class,
+                () -> followerService.followUser(-1L, followerId, "follower")));
+
+        assertEquals(1, followStatements);
+    }
+
+    private long count(Runnable action) {
+        statistics.clear();
+        action.run();
+        entityManager.flush();
+        return statistics.getPrepareStatementCount();
+    }
+
+    private long followerCount(Long userId) {
+        return jdbcTemplate.queryForObject("select followers_count from users where user_id = ?", Long.class, userId);
+    }
+}
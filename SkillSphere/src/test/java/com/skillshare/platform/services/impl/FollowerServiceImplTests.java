@@ -0,0 +1,343 @@
+package com.skillshare.platform.services.impl;
+
+import com.skillshare.platform.dtos.BulkFollowOutcome;
+import com.skillshare.platform.dtos.BulkFollowOutcome.Status;
+import com.skillshare.platform.dtos.CursorPage;
+import com.skillshare.platform.dtos.FollowUserDTO;
+import com.skillshare.platform.graph.SocialGraphIndex;
+import com.skillshare.platform.models.AppRole;
+import com.skillshare.platform.models.Notification;
+import com.skillshare.platform.models.Role;
+import com.skillshare.platform.models.User;
+import com.skillshare.platform.repositories.FollowBatchRepository;
+import com.skillshare.platform.repositories.FollowerRepository;
+import com.skillshare.platform.repositories.UserRepository;
+import com.skillshare.platform.services.NotificationService;
+import com.skillshare.platform.services.UserService;
+import com.skillshare.platform.util.KeysetCursor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class FollowerServiceImplTests {
+
+    private static final Long TARGET_ID = 1L;
+    private static final Long VIEWER_ID = 2L;
+
+    @Mock
+    private FollowerRepository followerRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private FollowBatchRepository followBatchRepository;
+
+    @Mock
+    private SocialGraphIndex socialGraphIndex;
+
+    @Mock
+    private NotificationService notificationService;
+
+    @Mock
+    private UserService userService;
+
+    @InjectMocks
+    private FollowerServiceImpl followerService;
+
+    private final Role role = new Role(AppRole.ROLE_USER);
+
+    @BeforeEach
+    void pageSizes() {
+        ReflectionTestUtils.setField(followerService, "defaultPageSize", 50);
+        ReflectionTestUtils.setField(followerService, "maxPageSize", 200);
+        ReflectionTestUtils.setField(followerService, "bulkMaxSize", 1000);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 50, 200})
+    void followerListUsesConstantQueries(int size) {
+        List<FollowUserDTO> rows = rows(100, size, LocalDateTime.of(2025, 1, 1, 12, 0));
+        // The viewer follows every even id
+        Set<Long> followedByViewer = rows.stream().map(FollowUserDTO::getId)
+                .filter(id -> id % 2 == 0).collect(Collectors.toSet());
+
+        when(userRepository.existsById(TARGET_ID)).thenReturn(true);
+        when(followerRepository.findFollowersPage(eq(TARGET_ID), any(), anyLong(), eq(Limit.of(201)))).thenReturn(rows);
+        when(followerRepository.findFollowedIdsAmong(eq(VIEWER_ID), anyCollection())).thenReturn(followedByViewer);
+
+        CursorPage<FollowUserDTO> page = followerService.getFollowerDetails(TARGET_ID, VIEWER_ID, KeysetCursor.START, 200);
+        List<FollowUserDTO> result = page.items();
+
+        assertEquals(size, result.size());
+        result.forEach(r -> assertEquals(r.getId() % 2 == 0, r.isFollowed()));
+        verify(userRepository, times(1)).existsById(TARGET_ID);
+        verify(followerRepository, times(1)).findFollowersPage(eq(TARGET_ID), any(), anyLong(), any());
+        verify(followerRepository, times(1)).findFollowedIdsAmong(eq(VIEWER_ID), anyCollection());
+        verifyNoMoreInteractions(userRepository, followerRepository);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 50, 200})
+    void followingListUsesConstantQueries(int size) {
+        List<FollowUserDTO> rows = rows(100, size, LocalDateTime.of(2025, 1, 1, 12, 0));
+
+        when(userRepository.existsById(TARGET_ID)).thenReturn(true);
+        when(followerRepository.findFollowingPage(eq(TARGET_ID), any(), anyLong(), eq(Limit.of(201)))).thenReturn(rows);
+        when(followerRepository.findFollowedIdsAmong(eq(VIEWER_ID), anyCollection())).thenReturn(Set.of(100L));
+
+        CursorPage<FollowUserDTO> page = followerService.getFollowingDetails(TARGET_ID, VIEWER_ID, KeysetCursor.START, 200);
+        List<FollowUserDTO> result = page.items();
+
+        assertEquals(size, result.size());
+        assertEquals(1, result.stream().filter(FollowUserDTO::isFollowed).count());
+        verify(userRepository, times(1)).existsById(TARGET_ID);
+        verify(followerRepository, times(1)).findFollowingPage(eq(TARGET_ID), any(), anyLong(), any());
+        verify(followerRepository, times(1)).findFollowedIdsAmong(eq(VIEWER_ID), anyCollection());
+        verifyNoMoreInteractions(userRepository, followerRepository);
+    }
+
+    @Test
+    void loadedGraphIndexAnswersTheFollowedFlag() {
+        List<FollowUserDTO> rows = rows(100, 3, LocalDateTime.of(2025, 1, 1, 12, 0));
+
+        when(userRepository.existsById(TARGET_ID)).thenReturn(true);
+        when(followerRepository.findFollowersPage(eq(TARGET_ID), any(), anyLong(), any())).thenReturn(rows);
+        when(socialGraphIndex.isReady()).thenReturn(true);
+        when(socialGraphIndex.isFollowing(eq(VIEWER_ID), anyLong())).thenAnswer(inv -> inv.getArgument(1, Long.class) == 101L);
+
+        List<FollowUserDTO> result = followerService.getFollowerDetails(TARGET_ID, VIEWER_ID, KeysetCursor.START, null).items();
+
+        assertEquals(List.of(false, true, false), result.stream().map(FollowUserDTO::isFollowed).toList());
+        verify(followerRepository, never()).findFollowedIdsAmong(any(), anyCollection());
+    }
+
+    @Test
+    void fullPageReturnsCursorAfterLastRow() {
+        LocalDateTime base = LocalDateTime.of(2025, 1, 1, 12, 0);
+        List<FollowUserDTO> rows = rows(101, 11, base.plusSeconds(1));
+        KeysetCursor after = new KeysetCursor(base, 0L);
+
+        when(userRepository.existsById(TARGET_ID)).thenReturn(true);
+        when(followerRepository.findFollowersPage(TARGET_ID, base, 0L, Limit.of(11))).thenReturn(rows);
+        when(followerRepository.findFollowedIdsAmong(eq(VIEWER_ID), anyCollection())).thenReturn(Set.of());
+
+        CursorPage<FollowUserDTO> page = followerService.getFollowerDetails(TARGET_ID, VIEWER_ID, after, 10);
+
+        assertEquals(10, page.items().size());
+        // Positioned on the tenth follower's user id, the tie-breaker within a createdAt
+        assertEquals(new KeysetCursor(base.plusSeconds(10), 110L), KeysetCursor.decode(page.nextCursor()));
+    }
+
+    @Test
+    void limitIsCappedAndLastPageHasNoCursor() {
+        when(userRepository.existsById(TARGET_ID)).thenReturn(true);
+        when(followerRepository.findFollowingPage(eq(TARGET_ID), any(), anyLong(), eq(Limit.of(201)))).thenReturn(List.of());
+
+        CursorPage<FollowUserDTO> page = followerService.getFollowingDetails(TARGET_ID, VIEWER_ID, KeysetCursor.START, 10_000);
+
+        assertTrue(page.items().isEmpty());
+        assertNull(page.nextCursor());
+        verify(followerRepository, never()).findFollowedIdsAmong(any(), anyCollection());
+    }
+
+    @Test
+    void intersectionPagesWalkTheIndexByIdAndHydrateOnce() {
+        when(socialGraphIndex.isReady()).thenReturn(true);
+        when(socialGraphIndex.mutualFollows(VIEWER_ID)).thenReturn(new long[]{3, 5, 8, 13, 21});
+        when(userRepository.findFollowUsers(anyCollection())).thenAnswer(inv -> {
+            List<Long> ids = inv.getArgument(0);
+            return ids.stream().map(id -> new FollowUserDTO(id, "user" + id, null, null, AppRole.ROLE_USER, true)).toList();
+        });
+
+        CursorPage<FollowUserDTO> first = followerService.getMutualFollows(VIEWER_ID, 0L, 2);
+        assertEquals(List.of(3L, 5L), first.items().stream().map(FollowUserDTO::getId).toList());
+        assertTrue(first.items().stream().allMatch(FollowUserDTO::isFollowed));
+        assertEquals("5", first.nextCursor());
+
+        CursorPage<FollowUserDTO> last = followerService.getMutualFollows(VIEWER_ID, 13L, 2);
+        assertEquals(List.of(21L), last.items().stream().map(FollowUserDTO::getId).toList());
+        assertNull(last.nextCursor());
+        verify(userRepository, times(2)).findFollowUsers(anyCollection());
+        verifyNoInteractions(followerRepository);
+    }
+
+    @Test
+    void intersectionFallsBackToSqlUntilTheIndexLoads() {
+        List<FollowUserDTO> rows = rows(100, 3, LocalDateTime.of(2025, 1, 1, 12, 0));
+        when(userRepository.existsById(TARGET_ID)).thenReturn(true);
+        when(followerRepository.findFollowersFollowedBy(TARGET_ID, VIEWER_ID, 0L, Limit.of(3))).thenReturn(rows);
+
+        CursorPage<FollowUserDTO> page = followerService.getFollowersYouKnow(VIEWER_ID, TARGET_ID, 0L, 2);
+
+        assertEquals(List.of(100L, 101L), page.items().stream().map(FollowUserDTO::getId).toList());
+        assertEquals("101", page.nextCursor());
+    }
+
+    @Test
+    void followIsACounterUpdateAndAnInsertThenTheNotification() {
+        User target = user(TARGET_ID);
+        User viewer = user(VIEWER_ID);
+        when(userRepository.adjustFollowCounts(TARGET_ID, VIEWER_ID, 1)).thenReturn(2);
+        when(followerRepository.insertIfAbsent(eq(TARGET_ID), eq(VIEWER_ID), any())).thenReturn(1);
+        when(userRepository.getReferenceById(TARGET_ID)).thenReturn(target);
+        when(userRepository.getReferenceById(VIEWER_ID)).thenReturn(viewer);
+
+        assertTrue(followerService.followUser(TARGET_ID, VIEWER_ID, "viewer"));
+
+        InOrder inOrder = inOrder(userRepository, followerRepository);
+        inOrder.verify(userRepository).adjustFollowCounts(TARGET_ID, VIEWER_ID, 1);
+        inOrder.verify(followerRepository).insertIfAbsent(eq(TARGET_ID), eq(VIEWER_ID), any());
+        verify(notificationService, times(1)).createNotification(target, viewer, "viewer",
+                Notification.NotificationType.FOLLOW);
+        verify(userRepository, times(2)).getReferenceById(any());
+        verify(socialGraphIndex).recordFollow(TARGET_ID, VIEWER_ID);
+        verifyNoMoreInteractions(followerRepository, userRepository, notificationService);
+        verifyNoInteractions(userService);
+    }
+
+    @Test
+    void repeatedFollowPutsTheCountersBack() {
+        when(userRepository.adjustFollowCounts(TARGET_ID, VIEWER_ID, 1)).thenReturn(2);
+        when(followerRepository.insertIfAbsent(eq(TARGET_ID), eq(VIEWER_ID), any())).thenReturn(0);
+
+        assertFalse(followerService.followUser(TARGET_ID, VIEWER_ID, "viewer"));
+
+        verify(userRepository).adjustFollowCounts(TARGET_ID, VIEWER_ID, -1);
+        verify(userRepository).adjustFollowCounts(TARGET_ID, VIEWER_ID, 1);
+        verifyNoMoreInteractions(followerRepository, userRepository);
+        verifyNoInteractions(notificationService, socialGraphIndex);
+    }
+
+    @Test
+    void followOfMissingUserFails() {
+        when(userRepository.adjustFollowCounts(TARGET_ID, VIEWER_ID, 1)).thenReturn(1);
+
+        assertThrows(RuntimeException.class, () -> followerService.followUser(TARGET_ID, VIEWER_ID, "viewer"));
+        verifyNoInteractions(followerRepository, notificationService);
+    }
+
+    @Test
+    void unfollowIsACounterUpdateAndADelete() {
+        when(userRepository.adjustFollowCounts(TARGET_ID, VIEWER_ID, -1)).thenReturn(2);
+        when(followerRepository.deleteByKey(TARGET_ID, VIEWER_ID)).thenReturn(1);
+
+        assertTrue(followerService.unfollowUser(TARGET_ID, VIEWER_ID));
+
+        verify(socialGraphIndex).recordUnfollow(TARGET_ID, VIEWER_ID);
+        verify(userRepository).adjustFollowCounts(TARGET_ID, VIEWER_ID, -1);
+        verify(followerRepository).deleteByKey(TARGET_ID, VIEWER_ID);
+        verifyNoMoreInteractions(followerRepository, userRepository);
+    }
+
+    @Test
+    void repeatedUnfollowPutsTheCountersBack() {
+        when(userRepository.adjustFollowCounts(TARGET_ID, VIEWER_ID, -1)).thenReturn(2);
+        when(followerRepository.deleteByKey(TARGET_ID, VIEWER_ID)).thenReturn(0);
+
+        assertFalse(followerService.unfollowUser(TARGET_ID, VIEWER_ID));
+
+        verify(userRepository).adjustFollowCounts(TARGET_ID, VIEWER_ID, 1);
+        verifyNoInteractions(socialGraphIndex);
+    }
+
+    @Test
+    void bulkFollowClassifiesIdsWithOneQueryAndWritesInBatches() {
+        // 10 and 11 exist, the viewer already follows 11, 12 does not exist; 10 is repeated
+        when(followBatchRepository.findFollowTargets(eq(VIEWER_ID), anyCollection()))
+                .thenReturn(Map.of(10L, false, 11L, true, VIEWER_ID, false));
+
+        List<BulkFollowOutcome> outcomes = followerService.followUsers(VIEWER_ID, "viewer",
+                List.of(10L, 11L, 12L, VIEWER_ID, 10L));
+
+        assertEquals(List.of(
+                new BulkFollowOutcome(10L, Status.FOLLOWED),
+                new BulkFollowOutcome(11L, Status.ALREADY_FOLLOWING),
+                new BulkFollowOutcome(12L, Status.NOT_FOUND),
+                new BulkFollowOutcome(VIEWER_ID, Status.SELF)), outcomes);
+        verify(followBatchRepository).insertFollows(eq(VIEWER_ID), eq(List.of(10L)), any());
+        verify(followBatchRepository).insertNotifications(eq(VIEWER_ID), eq(List.of(10L)),
+                eq("viewer started following you"), eq(Notification.NotificationType.FOLLOW), any());
+        verify(userRepository).adjustFollowCounts(VIEWER_ID, List.of(10L), 1, 1);
+        verify(socialGraphIndex).recordFollow(10L, VIEWER_ID);
+        verify(userRepository).lockForFollowChange(Set.of(10L, 11L, 12L, VIEWER_ID));
+        verifyNoMoreInteractions(followBatchRepository, userRepository, followerRepository);
+    }
+
+    @Test
+    void bulkFollowLocksTheUsersBeforeClassifyingThem() {
+        when(followBatchRepository.findFollowTargets(eq(VIEWER_ID), anyCollection()))
+                .thenReturn(Map.of(10L, false));
+
+        followerService.followUsers(VIEWER_ID, "viewer", List.of(10L));
+
+        InOrder inOrder = inOrder(userRepository, followBatchRepository);
+        inOrder.verify(userRepository).lockForFollowChange(Set.of(10L, VIEWER_ID));
+        inOrder.verify(followBatchRepository).findFollowTargets(eq(VIEWER_ID), anyCollection());
+        inOrder.verify(followBatchRepository).insertFollows(eq(VIEWER_ID), eq(List.of(10L)), any());
+    }
+
+    @Test
+    void bulkUnfollowDeletesOnlyFollowedIds() {
+        when(followBatchRepository.findFollowTargets(eq(VIEWER_ID), anyCollection()))
+                .thenReturn(Map.of(10L, true, 11L, false));
+
+        List<BulkFollowOutcome> outcomes = followerService.unfollowUsers(VIEWER_ID, List.of(10L, 11L));
+
+        assertEquals(List.of(
+                new BulkFollowOutcome(10L, Status.UNFOLLOWED),
+                new BulkFollowOutcome(11L, Status.NOT_FOLLOWING)), outcomes);
+        verify(followBatchRepository).deleteFollows(VIEWER_ID, List.of(10L));
+        verify(userRepository).adjustFollowCounts(VIEWER_ID, List.of(10L), -1, 1);
+        verify(socialGraphIndex).recordUnfollow(10L, VIEWER_ID);
+    }
+
+    @Test
+    void bulkFollowRejectsOversizedRequests() {
+        ReflectionTestUtils.setField(followerService, "bulkMaxSize", 2);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> followerService.followUsers(VIEWER_ID, "viewer", List.of(10L, 11L, 12L)));
+        verifyNoInteractions(followBatchRepository);
+    }
+
+    private User user(Long id) {
+        User user = new User("user" + id, "user" + id + "@example.com");
+        user.setUserId(id);
+        user.setRole(role);
+        return user;
+    }
+
+    // count listing rows with consecutive ids from firstId, one second apart from firstAt
+    private static List<FollowUserDTO> rows(long firstId, int count, LocalDateTime firstAt) {
+        List<FollowUserDTO> rows = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            long id = firstId + i;
+            rows.add(new FollowUserDTO(id, "user" + id, null, null, AppRole.ROLE_USER, true, firstAt.plusSeconds(i)));
+        }
+        return rows;
+    }
+}
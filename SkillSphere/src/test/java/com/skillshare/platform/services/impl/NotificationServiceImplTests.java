@@ -0,0 +1,310 @@
+package com.skillshare.platform.services.impl;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.skillshare.platform.dtos.CursorPage;
+import com.skillshare.platform.dtos.NotificationDTO;
+import com.skillshare.platform.models.Notification;
+import com.skillshare.platform.models.User;
+import com.skillshare.platform.repositories.NotificationActorRepository;
+import com.skillshare.platform.repositories.NotificationReadStateRepository;
+import com.skillshare.platform.repositories.NotificationRepository;
+import com.skillshare.platform.util.KeysetCursor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class NotificationServiceImplTests {
+
+    private static final Long RECEIVER_ID = 1L;
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 1, 1, 12, 0);
+
+    @Mock
+    private NotificationRepository notificationRepository;
+
+    @Mock
+    private NotificationReadStateRepository notificationReadStateRepository;
+
+    @Mock
+    private NotificationActorRepository notificationActorRepository;
+
+    @Mock
+    private UnreadNotificationCounters unreadNotificationCounters;
+
+    @Mock
+    private NotificationStreams notificationStreams;
+
+    @InjectMocks
+    private NotificationServiceImpl notificationService;
+
+    @BeforeEach
+    void pageSizes() {
+        ReflectionTestUtils.setField(notificationService, "defaultPageSize", 20);
+        ReflectionTestUtils.setField(notificationService, "maxPageSize", 100);
+        ReflectionTestUtils.setField(notificationService, "coalesceWindowMs", 3_600_000L);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 20, 100})
+    void pageIsOneQueryWhateverItsSize(int size) {
+        when(notificationRepository.findPage(eq(RECEIVER_ID), any(), anyLong(), eq(Limit.of(size + 1))))
+                .thenReturn(rows(size + 1));
+
+        CursorPage<NotificationDTO> page = notificationService.getNotifications(RECEIVER_ID, KeysetCursor.END, size);
+
+        assertEquals(size, page.items().size());
+        assertNotNull(page.nextCursor());
+        verify(notificationRepository, times(1)).findPage(eq(RECEIVER_ID), any(), anyLong(), any());
+        verifyNoMoreInteractions(notificationRepository);
+        verifyNoInteractions(notificationReadStateRepository);
+    }
+
+    @Test
+    void cursorPointsAtTheLastRowAndLimitIsCapped() {
+        when(notificationRepository.findPage(RECEIVER_ID, KeysetCursor.END.createdAt(), Long.MAX_VALUE, Limit.of(101)))
+                .thenReturn(rows(101));
+
+        CursorPage<NotificationDTO> page = notificationService.getNotifications(RECEIVER_ID, KeysetCursor.END, 10_000);
+
+        NotificationDTO last = page.items().get(99);
+        assertEquals(new KeysetCursor(last.getCreatedAt(), last.getId()), KeysetCursor.decode(page.nextCursor()));
+    }
+
+    @Test
+    void lastPageHasNoCursor() {
+        when(notificationRepository.findPage(eq(RECEIVER_ID), any(), anyLong(), eq(Limit.of(21)))).thenReturn(rows(3));
+
+        CursorPage<NotificationDTO> page = notificationService.getNotifications(RECEIVER_ID, KeysetCursor.END, null);
+
+        assertEquals(3, page.items().size());
+        assertNull(page.nextCursor());
+    }
+
+    @Test
+    void markAllReadIsOneWatermarkUpsert() {
+        notificationService.markAllNotificationsAsRead(RECEIVER_ID, 42L);
+
+        verify(notificationReadStateRepository, times(1)).advanceTo(RECEIVER_ID, 42L);
+        verify(unreadNotificationCounters).invalidate(RECEIVER_ID);
+        verify(notificationStreams).changed(RECEIVER_ID);
+        verifyNoMoreInteractions(notificationReadStateRepository);
+        verifyNoInteractions(notificationRepository);
+    }
+
+    @Test
+    void markAllReadWithoutABoundCoversAllOfTheUsersNotifications() {
+        notificationService.markAllNotificationsAsRead(RECEIVER_ID, null);
+
+        verify(notificationReadStateRepository).advanceTo(RECEIVER_ID, Long.MAX_VALUE);
+    }
+
+    @Test
+    void unreadCountComesFromTheCounters() {
+        when(unreadNotificationCounters.get(RECEIVER_ID)).thenReturn(7L);
+
+        assertEquals(7L, notificationService.getUnreadNotificationCount(RECEIVER_ID));
+        verifyNoInteractions(notificationRepository, notificationReadStateRepository);
+    }
+
+    @Test
+    void onlyTheReceiverCanMarkANotificationRead() {
+        when(notificationRepository.markRead(42L, RECEIVER_ID)).thenReturn(1);
+        when(notificationRepository.markRead(42L, 2L)).thenReturn(0);
+        when(notificationRepository.existsByIdAndReceiverUserId(42L, 2L)).thenReturn(false);
+
+        notificationService.markNotificationAsRead(RECEIVER_ID, 42L);
+        assertThrows(RuntimeException.class, () -> notificationService.markNotificationAsRead(2L, 42L));
+        verify(notificationRepository, never()).findById(any());
+        verify(unreadNotificationCounters).decrement(RECEIVER_ID);
+        verify(unreadNotificationCounters, never()).decrement(2L);
+    }
+
+    @Test
+    void markingAReadNotificationLeavesTheCountAlone() {
+        when(notificationRepository.markRead(42L, RECEIVER_ID)).thenReturn(0);
+        when(notificationRepository.existsByIdAndReceiverUserId(42L, RECEIVER_ID)).thenReturn(true);
+
+        notificationService.markNotificationAsRead(RECEIVER_ID, 42L);
+
+        verifyNoInteractions(unreadNotificationCounters, notificationStreams);
+    }
+
+    @Test
+    void firstFollowInAWindowStartsAGroup() {
+        when(notificationRepository.findOpenGroupIds(eq(RECEIVER_ID), eq(Notification.NotificationType.FOLLOW), any(),
+                eq(Limit.of(1)))).thenReturn(List.of());
+        when(notificationRepository.save(any())).thenAnswer(inv -> {
+            Notification saved = inv.getArgument(0);
+            saved.setId(10L);
+            return saved;
+        });
+
+        Notification notification = notificationService.createNotification(
+                user(RECEIVER_ID, "receiver"), user(2L, "alice"), "alice", Notification.NotificationType.FOLLOW);
+
+        assertEquals("alice started following you", notification.getMessage());
+        assertEquals(1, notification.getActorCount());
+        verify(notificationActorRepository).insertIfAbsent(eq(10L), eq(2L), any());
+        verify(unreadNotificationCounters).increment(RECEIVER_ID);
+    }
+
+    @Test
+    void laterFollowsFoldIntoTheOpenGroupInPlace() {
+        Notification group = group(1, List.of("bob"));
+        when(notificationRepository.findOpenGroupIds(eq(RECEIVER_ID), eq(Notification.NotificationType.FOLLOW), any(),
+                any())).thenReturn(List.of(10L));
+        when(notificationRepository.findByIdForUpdate(10L)).thenReturn(Optional.of(group));
+        when(notificationActorRepository.insertIfAbsent(eq(10L), eq(2L), any())).thenReturn(1);
+        User alice = user(2L, "alice");
+
+        notificationService.createNotification(user(RECEIVER_ID, "receiver"), alice, "alice",
+                Notification.NotificationType.FOLLOW);
+
+        assertEquals(2, group.getActorCount());
+        assertEquals("alice and bob started following you", group.getMessage());
+        assertEquals(List.of("alice", "bob"), group.getSampleSenders());
+        assertSame(alice, group.getSender());
+        verify(notificationRepository, never()).save(any());
+        verify(notificationStreams).updated(RECEIVER_ID, 10L);
+        verifyNoInteractions(unreadNotificationCounters);
+    }
+
+    @Test
+    void bigGroupsKeepThreeSamplesAndACount() {
+        Notification group = group(12, List.of("carol", "bob", "dave"));
+        when(notificationRepository.findOpenGroupIds(any(), any(), any(), any())).thenReturn(List.of(10L));
+        when(notificationRepository.findByIdForUpdate(10L)).thenReturn(Optional.of(group));
+        when(notificationActorRepository.insertIfAbsent(eq(10L), eq(2L), any())).thenReturn(1);
+
+        notificationService.createNotification(user(RECEIVER_ID, "receiver"), user(2L, "alice"), "alice",
+                Notification.NotificationType.FOLLOW);
+
+        assertEquals("alice and 12 others started following you", group.getMessage());
+        assertEquals(List.of("alice", "carol", "bob"), group.getSampleSenders());
+    }
+
+    @Test
+    void followChurnFoldsIntoNothing() {
+        Notification group = group(1, List.of("alice"));
+        when(notificationRepository.findOpenGroupIds(any(), any(), any(), any())).thenReturn(List.of(10L));
+        when(notificationRepository.findByIdForUpdate(10L)).thenReturn(Optional.of(group));
+        when(notificationActorRepository.insertIfAbsent(eq(10L), eq(2L), any())).thenReturn(0);
+
+        notificationService.createNotification(user(RECEIVER_ID, "receiver"), user(2L, "alice"), "alice",
+                Notification.NotificationType.FOLLOW);
+
+        assertEquals(1, group.getActorCount());
+        assertEquals("alice started following you", group.getMessage());
+        verify(notificationRepository, never()).save(any());
+        verifyNoInteractions(unreadNotificationCounters, notificationStreams);
+    }
+
+    @Test
+    void aGroupReadMeanwhileIsNotReopened() {
+        Notification group = group(3, List.of("bob"));
+        group.setRead(true);
+        when(notificationRepository.findOpenGroupIds(any(), any(), any(), any())).thenReturn(List.of(10L));
+        when(notificationRepository.findByIdForUpdate(10L)).thenReturn(Optional.of(group));
+        when(notificationRepository.save(any())).thenAnswer(inv -> inv.getArgument(0));
+
+        Notification notification = notificationService.createNotification(
+                user(RECEIVER_ID, "receiver"), user(2L, "alice"), "alice", Notification.NotificationType.FOLLOW);
+
+        assertNotSame(group, notification);
+        assertEquals(3, group.getActorCount());
+        verify(unreadNotificationCounters).increment(RECEIVER_ID);
+    }
+
+    @Test
+    void aGroupUnderAWatermarkMovedMeanwhileIsNotReopened() {
+        Notification group = group(3, List.of("bob"));
+        when(notificationRepository.findOpenGroupIds(any(), any(), any(), any())).thenReturn(List.of(10L));
+        when(notificationRepository.findByIdForUpdate(10L)).thenReturn(Optional.of(group));
+        // Mark-all-read committed after the unlocked lookup found the group
+        when(notificationReadStateRepository.findLastReadIdForShare(RECEIVER_ID)).thenReturn(Optional.of(10L));
+        when(notificationRepository.save(any())).thenAnswer(inv -> inv.getArgument(0));
+
+        Notification notification = notificationService.createNotification(
+                user(RECEIVER_ID, "receiver"), user(2L, "alice"), "alice", Notification.NotificationType.FOLLOW);
+
+        assertNotSame(group, notification);
+        assertEquals(3, group.getActorCount());
+        verify(notificationActorRepository, never()).insertIfAbsent(eq(10L), anyLong(), any());
+        verify(unreadNotificationCounters).increment(RECEIVER_ID);
+    }
+
+    @Test
+    void typesAboutSomethingElseAreNotCoalesced() {
+        when(notificationRepository.save(any())).thenAnswer(inv -> inv.getArgument(0));
+
+        notificationService.createNotification(user(RECEIVER_ID, "receiver"), user(2L, "alice"), "alice",
+                Notification.NotificationType.LIKE);
+
+        verify(notificationRepository, never()).findOpenGroupIds(any(), any(), any(), any());
+        verifyNoInteractions(notificationActorRepository);
+    }
+
+    @Test
+    void serializesTheFieldsTheClientReads() throws Exception {
+        ObjectMapper mapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+        JsonNode json = mapper.readTree(mapper.writeValueAsString(rows(1).get(0)));
+
+        assertTrue(json.has("isRead"));
+        assertFalse(json.has("read"));
+        assertEquals("sender2", json.get("sender").get("username").asText());
+        assertEquals("FOLLOW", json.get("type").asText());
+        assertEquals(1, json.get("actorCount").asInt());
+        assertEquals("sender2", json.get("sampleSenders").get(0).asText());
+    }
+
+    private static User user(Long id, String username) {
+        User user = new User();
+        user.setUserId(id);
+        user.setUserName(username);
+        return user;
+    }
+
+    private static Notification group(int actorCount, List<String> sampleSenders) {
+        Notification group = new Notification();
+        group.setId(10L);
+        group.setReceiver(user(RECEIVER_ID, "receiver"));
+        group.setSender(user(3L, sampleSenders.get(0)));
+        group.setType(Notification.NotificationType.FOLLOW);
+        group.setActorCount(actorCount);
+        group.setSampleSenders(sampleSenders);
+        group.setMessage(Notification.NotificationType.FOLLOW.describe(sampleSenders, actorCount));
+        return group;
+    }
+
+    // Newest first, one second apart, with descending ids
+    private static List<NotificationDTO> rows(int count) {
+        List<NotificationDTO> rows = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            long id = 1000 - i;
+            rows.add(new NotificationDTO(id, "message " + id, false, NOW.minusSeconds(i),
+                    Notification.NotificationType.FOLLOW, 2L, "sender2"));
+        }
+        return rows;
+    }
+}
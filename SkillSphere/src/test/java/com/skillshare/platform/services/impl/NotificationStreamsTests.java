@@ -0,0 +1,322 @@
+package com.skillshare.platform.services.impl;
+
+import com.skillshare.platform.dtos.NotificationDTO;
+import com.skillshare.platform.models.Notification;
+import com.skillshare.platform.repositories.NotificationRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class NotificationStreamsTests {
+
+    private static final long USER_ID = 1L;
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 1, 1, 12, 0);
+
+    @Mock
+    private NotificationRepository notificationRepository;
+
+    @Mock
+    private UnreadNotificationCounters unreadNotificationCounters;
+
+    private final List<RecordingEmitter> emitters = new CopyOnWriteArrayList<>();
+    private CountDownLatch sendGate;
+
+    private final NotificationStreams streams = new NotificationStreams() {
+        @Override
+        SseEmitter createEmitter() {
+            RecordingEmitter emitter = new RecordingEmitter();
+            emitters.add(emitter);
+            return emitter;
+        }
+    };
+
+    // Renders each event the way it would go over the wire, minus the JSON encoding of data objects
+    private class RecordingEmitter extends SseEmitter {
+        final List<String> events = new CopyOnWriteArrayList<>();
+        volatile boolean completed;
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            if (sendGate != null) {
+                try {
+                    sendGate.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            StringBuilder event = new StringBuilder();
+            for (ResponseBodyEmitter.DataWithMediaType part : builder.build()) {
+                event.append(part.getData());
+            }
+            events.add(event.toString());
+        }
+
+        @Override
+        public void complete() {
+            completed = true;
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(streams, "notificationRepository", notificationRepository);
+        ReflectionTestUtils.setField(streams, "unreadNotificationCounters", unreadNotificationCounters);
+        ReflectionTestUtils.setField(streams, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(streams, "timeoutMs", 60_000L);
+        ReflectionTestUtils.setField(streams, "bufferSize", 4);
+        ReflectionTestUtils.setField(streams, "maxConnections", 3);
+        ReflectionTestUtils.setField(streams, "maxPerUser", 2);
+        ReflectionTestUtils.setField(streams, "replayLimit", 10);
+        ReflectionTestUtils.setField(streams, "drainThreads", 1);
+        ReflectionTestUtils.setField(streams, "refreshThreads", 1);
+        ReflectionTestUtils.setField(streams, "pollBatch", 500);
+        ReflectionTestUtils.setField(streams, "lookBackMs", 60_000L);
+        streams.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (sendGate != null) {
+            sendGate.countDown();
+        }
+        streams.shutdown();
+    }
+
+    @Test
+    void startsAtTheNewestNotificationAndPushesWhatCommitsLater() {
+        when(notificationRepository.findLatestId(USER_ID)).thenReturn(100L);
+        when(notificationRepository.findSince(eq(USER_ID), eq(100L), any(), any()))
+                .thenReturn(List.of())
+                .thenReturn(List.of(row(101)));
+        when(unreadNotificationCounters.get(USER_ID)).thenReturn(2L, 3L);
+
+        streams.open(USER_ID, null);
+        RecordingEmitter emitter = emitters.get(0);
+        await(() -> emitter.events.size() == 1);
+        assertTrue(emitter.events.get(0).contains("event:unread-count"));
+
+        streams.changed(USER_ID);
+
+        await(() -> emitter.events.size() == 3);
+        assertTrue(emitter.events.get(1).contains("id:101"));
+        assertTrue(emitter.events.get(1).contains("event:notification"));
+        assertTrue(emitter.events.get(2).contains("event:unread-count"));
+    }
+
+    @Test
+    void resumesAfterTheLastEventId() {
+        when(notificationRepository.findSince(eq(USER_ID), eq(5L), any(), eq(Limit.of(11))))
+                .thenReturn(List.of(row(6), row(7)));
+        when(unreadNotificationCounters.get(USER_ID)).thenReturn(2L);
+
+        streams.open(USER_ID, 5L);
+
+        RecordingEmitter emitter = emitters.get(0);
+        await(() -> emitter.events.size() == 3);
+        assertTrue(emitter.events.get(0).contains("id:6"));
+        assertTrue(emitter.events.get(1).contains("id:7"));
+        verify(notificationRepository, never()).findLatestId(anyLong());
+    }
+
+    @Test
+    void aGroupThatTookAnotherActorIsSentAgainWithoutAnEventId() {
+        when(notificationRepository.findSince(eq(USER_ID), eq(5L), any(), any()))
+                .thenReturn(List.of(row(6)))
+                .thenReturn(List.of());
+        when(notificationRepository.findByIds(USER_ID, List.of(6L))).thenReturn(List.of(row(6)));
+        when(unreadNotificationCounters.get(USER_ID)).thenReturn(1L);
+
+        streams.open(USER_ID, 5L);
+        RecordingEmitter emitter = emitters.get(0);
+        await(() -> emitter.events.size() == 2);
+
+        streams.updated(USER_ID, 6L);
+
+        await(() -> emitter.events.size() == 3);
+        assertTrue(emitter.events.get(2).contains("event:notification"));
+        assertFalse(emitter.events.get(2).contains("id:"));
+    }
+
+    @Test
+    void aNotificationThatCommitsBelowTheLastSentIdIsPushedOnceWithoutAnEventId() {
+        LocalDateTime recent = LocalDateTime.now();
+        when(notificationRepository.findSince(eq(USER_ID), anyLong(), any(), any()))
+                .thenReturn(List.of(row(7, recent)))
+                .thenReturn(List.of(row(6, recent), row(7, recent)))
+                .thenReturn(List.of(row(6, recent), row(7, recent), row(8, recent)));
+        when(unreadNotificationCounters.get(USER_ID)).thenReturn(1L, 2L, 2L);
+
+        streams.open(USER_ID, 5L);
+        RecordingEmitter emitter = emitters.get(0);
+        await(() -> emitter.events.size() == 2);
+
+        streams.changed(USER_ID);
+        await(() -> emitter.events.size() == 4);
+        streams.changed(USER_ID);
+        await(() -> emitter.events.stream().anyMatch(event -> event.contains("id:8")));
+
+        assertEquals(5, emitter.events.size());
+        assertTrue(emitter.events.get(0).contains("id:7"));
+        assertTrue(emitter.events.get(2).contains("message 6"));
+        assertFalse(emitter.events.get(2).contains("id:"));
+        assertTrue(emitter.events.get(4).contains("id:8"));
+    }
+
+    @Test
+    void aNewStreamDoesNotPushWhatWasCreatedBeforeItOpened() {
+        when(notificationRepository.findLatestId(USER_ID)).thenReturn(100L);
+        when(notificationRepository.findSince(eq(USER_ID), eq(100L), any(), any()))
+                .thenReturn(List.of(row(99, LocalDateTime.now().minusSeconds(5))));
+        when(unreadNotificationCounters.get(USER_ID)).thenReturn(1L);
+
+        streams.open(USER_ID, null);
+
+        RecordingEmitter emitter = emitters.get(0);
+        await(() -> emitter.events.size() == 1);
+        assertTrue(emitter.events.get(0).contains("event:unread-count"));
+    }
+
+    @Test
+    void tooFarBehindAsksForAResync() {
+        List<NotificationDTO> rows = new ArrayList<>();
+        for (int id = 6; id <= 16; id++) {
+            rows.add(row(id));
+        }
+        when(notificationRepository.findSince(eq(USER_ID), eq(5L), any(), any())).thenReturn(rows);
+        when(notificationRepository.findLatestId(USER_ID)).thenReturn(500L);
+        when(unreadNotificationCounters.get(USER_ID)).thenReturn(0L);
+
+        streams.open(USER_ID, 5L);
+
+        RecordingEmitter emitter = emitters.get(0);
+        await(() -> emitter.events.size() == 2);
+        assertTrue(emitter.events.get(0).contains("event:resync"));
+    }
+
+    @Test
+    void aClientThatFallsAFullBufferBehindIsDisconnected() {
+        when(notificationRepository.findLatestId(USER_ID)).thenReturn(0L);
+        when(notificationRepository.findSince(anyLong(), anyLong(), any(), any())).thenReturn(List.of());
+        when(unreadNotificationCounters.get(USER_ID)).thenReturn(1L);
+        sendGate = new CountDownLatch(1);
+
+        streams.open(USER_ID, null);
+        await(() -> mockingDetails(unreadNotificationCounters).getInvocations().size() == 1);
+        // The first event is stuck in send(); four more fill the buffer and the fifth overflows it
+        for (int i = 0; i < 6; i++) {
+            streams.heartbeat();
+        }
+
+        assertTrue(emitters.get(0).completed);
+        assertEquals(0, streams.connectionCount());
+    }
+
+    @Test
+    void aStalledClientDoesNotHoldUpRefreshes() {
+        when(notificationRepository.findLatestId(anyLong())).thenReturn(0L);
+        when(notificationRepository.findSince(anyLong(), anyLong(), any(), any())).thenReturn(List.of());
+        sendGate = new CountDownLatch(1);
+
+        streams.open(USER_ID, null);
+        await(() -> mockingDetails(unreadNotificationCounters).getInvocations().size() == 1);
+        // The only drain thread is now stuck writing to the first client
+        streams.open(2L, null);
+
+        await(() -> mockingDetails(unreadNotificationCounters).getInvocations().size() == 2);
+        verify(notificationRepository).findSince(eq(2L), eq(0L), any(), any());
+    }
+
+    @Test
+    void pollPushesNotificationsWrittenOnOtherNodes() {
+        when(notificationRepository.findLatestId(USER_ID)).thenReturn(100L);
+        when(notificationRepository.findSince(eq(USER_ID), eq(100L), any(), any()))
+                .thenReturn(List.of())
+                .thenReturn(List.of(row(101)));
+        when(unreadNotificationCounters.get(USER_ID)).thenReturn(2L);
+        streams.open(USER_ID, null);
+        RecordingEmitter emitter = emitters.get(0);
+        await(() -> emitter.events.size() == 1);
+
+        List<Object[]> latest = new ArrayList<>();
+        latest.add(new Object[]{USER_ID, 101L});
+        when(notificationRepository.findLatestIdsByReceivers(anyCollection())).thenReturn(latest);
+        streams.poll();
+
+        await(() -> emitter.events.size() == 2);
+        assertTrue(emitter.events.get(1).contains("id:101"));
+    }
+
+    @Test
+    void pollLeavesUpToDateStreamsAlone() {
+        when(notificationRepository.findLatestId(USER_ID)).thenReturn(100L);
+        when(notificationRepository.findSince(eq(USER_ID), eq(100L), any(), any())).thenReturn(List.of());
+        when(unreadNotificationCounters.get(USER_ID)).thenReturn(2L);
+        streams.open(USER_ID, null);
+        await(() -> emitters.get(0).events.size() == 1);
+
+        List<Object[]> latest = new ArrayList<>();
+        latest.add(new Object[]{USER_ID, 100L});
+        when(notificationRepository.findLatestIdsByReceivers(anyCollection())).thenReturn(latest);
+        streams.poll();
+
+        verify(notificationRepository, times(1)).findSince(anyLong(), anyLong(), any(), any());
+    }
+
+    @Test
+    void connectionsAreCappedPerUserAndPerNode() {
+        when(notificationRepository.findLatestId(anyLong())).thenReturn(0L);
+        lenient().when(notificationRepository.findSince(anyLong(), anyLong(), any(), any())).thenReturn(List.of());
+
+        streams.open(USER_ID, null);
+        streams.open(USER_ID, null);
+        streams.open(USER_ID, null);
+
+        assertTrue(emitters.get(0).completed);
+        assertEquals(2, streams.connectionCount());
+
+        streams.open(2L, null);
+        assertThrows(IllegalStateException.class, () -> streams.open(3L, null));
+        assertEquals(3, streams.connectionCount());
+    }
+
+    private static NotificationDTO row(long id) {
+        return row(id, NOW);
+    }
+
+    private static NotificationDTO row(long id, LocalDateTime createdAt) {
+        return new NotificationDTO(id, "message " + id, false, createdAt, Notification.NotificationType.FOLLOW, 2L,
+                "sender2");
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "timed out waiting for the stream");
+            Thread.onSpinWait();
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.skillshare.platform.services.impl;
+
+import com.skillshare.platform.dtos.RecommendationDTO;
+import com.skillshare.platform.graph.SocialGraphIndex;
+import com.skillshare.platform.models.AppRole;
+import com.skillshare.platform.models.Role;
+import com.skillshare.platform.models.User;
+import com.skillshare.platform.repositories.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.Mockito.*;
+
+class RecommendationServiceImplTests {
+
+    private static final long VIEWER = 1;
+    private static final long ADMIN = 99;
+
+    private final SocialGraphIndex index = new SocialGraphIndex();
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final RecommendationServiceImpl service = new RecommendationServiceImpl();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(index, "ready", true);
+        ReflectionTestUtils.setField(service, "socialGraphIndex", index);
+        ReflectionTestUtils.setField(service, "userRepository", userRepository);
+        ReflectionTestUtils.setField(service, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(service, "defaultLimit", 20);
+        ReflectionTestUtils.setField(service, "maxLimit", 50);
+        ReflectionTestUtils.setField(service, "cacheTtlMs", 600_000L);
+        ReflectionTestUtils.setField(service, "cacheMaxSize", 100);
+        ReflectionTestUtils.setField(service, "budgetMs", 30L);
+        ReflectionTestUtils.invokeMethod(service, "init");
+
+        when(userRepository.findAllById(anyIterable())).thenAnswer(inv -> {
+            Iterable<Long> ids = inv.getArgument(0);
+            return ((Collection<Long>) ids).stream().map(RecommendationServiceImplTests::user).toList();
+        });
+
+        // The viewer follows 2, 3 and 4
+        follow(VIEWER, 2, 3, 4);
+        follow(2, 3, 10, 11, ADMIN, VIEWER);
+        follow(3, 10, 11, 12);
+        follow(4, 10);
+    }
+
+    @Test
+    void ranksFriendsOfFriendsAndSkipsSelfFollowedAndAdmins() {
+        List<RecommendationDTO> result = service.getRecommendations(VIEWER, null);
+
+        assertEquals(List.of(10L, 11L, 12L), result.stream().map(RecommendationDTO::getUserId).toList());
+        assertEquals(List.of(3, 2, 1), result.stream().map(RecommendationDTO::getSharedFollowees).toList());
+    }
+
+    @Test
+    void cachedResultsFollowGraphChanges() {
+        service.getRecommendations(VIEWER, null);
+
+        // One more followee now follows 12; its cached score rises without a recompute
+        follow(4, 12);
+        List<RecommendationDTO> afterFollow = service.getRecommendations(VIEWER, null);
+        assertEquals(List.of(10L, 11L, 12L), afterFollow.stream().map(RecommendationDTO::getUserId).toList());
+        assertEquals(List.of(3, 2, 2), afterFollow.stream().map(RecommendationDTO::getSharedFollowees).toList());
+
+        // The viewer's own follow drops the cached entry and the next call recomputes
+        follow(VIEWER, 10);
+        List<RecommendationDTO> afterOwnFollow = service.getRecommendations(VIEWER, null);
+        assertEquals(List.of(11L, 12L), afterOwnFollow.stream().map(RecommendationDTO::getUserId).toList());
+        verify(userRepository, times(2)).findAllById(anyIterable());
+    }
+
+    private void follow(long followerId, long... userIds) {
+        for (long userId : userIds) {
+            index.recordFollow(userId, followerId);
+        }
+    }
+
+    private static User user(Long id) {
+        User user = new User("user" + id, "user" + id + "@example.com");
+        user.setUserId(id);
+        user.setRole(new Role(id == ADMIN ? AppRole.ROLE_ADMIN : AppRole.ROLE_USER));
+        return user;
+    }
+}
@@ -0,0 +1,229 @@
+package com.skillshare.platform.services.impl;
+
+import com.skillshare.platform.repositories.NotificationRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UnreadNotificationCountersTests {
+
+    private static final long USER_ID = 1L;
+
+    @Mock
+    private NotificationRepository notificationRepository;
+
+    @InjectMocks
+    private UnreadNotificationCounters counters;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(counters, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(counters, "maxSize", 10);
+        ReflectionTestUtils.setField(counters, "ttlMs", 300_000L);
+        ReflectionTestUtils.setField(counters, "reconcileBatch", 500);
+        counters.init();
+    }
+
+    @Test
+    void loadsOnceThenServesFromMemory() {
+        when(notificationRepository.countUnread(USER_ID)).thenReturn(3L);
+
+        for (int i = 0; i < 100; i++) {
+            assertEquals(3L, counters.get(USER_ID));
+        }
+        verify(notificationRepository, times(1)).countUnread(USER_ID);
+    }
+
+    @Test
+    void writesAdjustCachedCounts() {
+        when(notificationRepository.countUnread(USER_ID)).thenReturn(3L);
+        counters.get(USER_ID);
+
+        counters.increment(USER_ID);
+        counters.increment(USER_ID);
+        counters.decrement(USER_ID);
+        assertEquals(4L, counters.get(USER_ID));
+        verify(notificationRepository, times(1)).countUnread(USER_ID);
+    }
+
+    @Test
+    void anInvalidatedCountIsLoadedAgain() {
+        when(notificationRepository.countUnread(USER_ID)).thenReturn(3L).thenReturn(1L);
+        counters.get(USER_ID);
+
+        counters.invalidate(USER_ID);
+
+        assertEquals(1L, counters.get(USER_ID));
+        assertEquals(1L, counters.get(USER_ID));
+        verify(notificationRepository, times(2)).countUnread(USER_ID);
+    }
+
+    @Test
+    void writesForUncachedUsersAreIgnored() {
+        counters.increment(USER_ID);
+
+        assertEquals(0, counters.size());
+    }
+
+    @Test
+    void aWriteDuringTheLoadKeepsTheLoadedCountOutOfTheCache() {
+        when(notificationRepository.countUnread(USER_ID)).thenAnswer(inv -> {
+            // Committed after the count was read
+            counters.increment(USER_ID);
+            return 3L;
+        }).thenReturn(4L);
+
+        assertEquals(3L, counters.get(USER_ID));
+        assertEquals(4L, counters.get(USER_ID));
+        assertEquals(4L, counters.get(USER_ID));
+        verify(notificationRepository, times(2)).countUnread(USER_ID);
+    }
+
+    @Test
+    void aLoadThatCountedACommittedRowIsNotCachedBeforeItsIncrementLands() {
+        List<TransactionSynchronization> writer = pendingIncrement();
+        // The writer has committed, so the load counts its row, but its afterCommit hasn't run yet
+        when(notificationRepository.countUnread(USER_ID)).thenReturn(4L);
+
+        assertEquals(4L, counters.get(USER_ID));
+        writer.forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+
+        assertEquals(4L, counters.get(USER_ID));
+        assertEquals(4L, counters.get(USER_ID));
+        verify(notificationRepository, times(2)).countUnread(USER_ID);
+    }
+
+    @Test
+    void reconcileDoesNotCacheACountWithAPendingWrite() {
+        when(notificationRepository.countUnread(USER_ID)).thenReturn(3L);
+        counters.get(USER_ID);
+        List<TransactionSynchronization> writer = pendingIncrement();
+        List<Object[]> rows = new ArrayList<>();
+        rows.add(new Object[]{USER_ID, 4L});
+        when(notificationRepository.countUnreadByReceivers(anyCollection())).thenReturn(rows);
+
+        counters.reconcile();
+        writer.forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+
+        when(notificationRepository.countUnread(USER_ID)).thenReturn(4L);
+        assertEquals(4L, counters.get(USER_ID));
+    }
+
+    @Test
+    void aRolledBackWriteIsNotApplied() {
+        when(notificationRepository.countUnread(USER_ID)).thenReturn(3L);
+        counters.get(USER_ID);
+
+        pendingIncrement().forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        assertEquals(3L, counters.get(USER_ID));
+        verify(notificationRepository, times(1)).countUnread(USER_ID);
+    }
+
+    @Test
+    void staysBoundedByDroppingTheLeastRecentlyRead() {
+        when(notificationRepository.countUnread(anyLong())).thenReturn(0L);
+        for (long userId = 1; userId <= 10; userId++) {
+            counters.get(userId);
+        }
+        counters.get(1L);
+
+        counters.get(11L);
+
+        assertTrue(counters.size() <= 10);
+        clearInvocations(notificationRepository);
+        counters.get(1L);
+        counters.get(11L);
+        verifyNoInteractions(notificationRepository);
+    }
+
+    @Test
+    void reconcileRecountsCachedUsersInOneQuery() {
+        when(notificationRepository.countUnread(anyLong())).thenReturn(5L);
+        counters.get(1L);
+        counters.get(2L);
+        when(notificationRepository.countUnreadByReceivers(anyCollection())).thenAnswer(inv -> {
+            Collection<Long> ids = inv.getArgument(0);
+            assertEquals(2, ids.size());
+            List<Object[]> rows = new ArrayList<>();
+            rows.add(new Object[]{1L, 2L});
+            return rows;
+        });
+
+        counters.reconcile();
+
+        assertEquals(2L, counters.get(1L));
+        assertEquals(0L, counters.get(2L));
+        verify(notificationRepository, times(1)).countUnreadByReceivers(anyCollection());
+        verify(notificationRepository, times(2)).countUnread(anyLong());
+    }
+
+    @Test
+    void anExpiredCountIsReloadedOnItsNextRead() {
+        when(notificationRepository.countUnread(USER_ID)).thenReturn(3L).thenReturn(7L);
+        assertEquals(3L, counters.get(USER_ID));
+
+        // Another node wrote four notifications; the entry expires and picks them up
+        ReflectionTestUtils.setField(counters, "ttlMs", 0L);
+        assertEquals(7L, counters.get(USER_ID));
+
+        ReflectionTestUtils.setField(counters, "ttlMs", 300_000L);
+        assertEquals(7L, counters.get(USER_ID));
+        verify(notificationRepository, times(2)).countUnread(USER_ID);
+    }
+
+    @Test
+    void reconcileRecountsOnlyEntriesReadSinceTheLastPassAndDropsTheRest() {
+        when(notificationRepository.countUnread(anyLong())).thenReturn(5L);
+        counters.get(1L);
+        counters.get(2L);
+        when(notificationRepository.countUnreadByReceivers(anyCollection())).thenAnswer(inv -> {
+            Collection<Long> ids = inv.getArgument(0);
+            List<Object[]> rows = new ArrayList<>();
+            ids.forEach(id -> rows.add(new Object[]{id, 5L}));
+            return rows;
+        });
+        counters.reconcile();
+
+        counters.get(1L);
+        counters.reconcile();
+
+        verify(notificationRepository).countUnreadByReceivers(argThat(ids -> ids.size() == 2));
+        verify(notificationRepository).countUnreadByReceivers(argThat(ids -> ids.size() == 1 && ids.contains(1L)));
+        assertEquals(1, counters.size());
+
+        // Nothing was read since, so the next pass sends no query at all
+        counters.reconcile();
+        verify(notificationRepository, times(2)).countUnreadByReceivers(anyCollection());
+        assertEquals(0, counters.size());
+    }
+
+    // An increment made inside a transaction that has not completed yet; returns its synchronizations
+    private List<TransactionSynchronization> pendingIncrement() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            counters.increment(USER_ID);
+            return TransactionSynchronizationManager.getSynchronizations();
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+}
@@ -297,16 +297,12 @@ const UserProfile = () => {
     const fetchSocialStats = async () => {
       if (currentUser?.id) {
         try {
-          // Use the correct API endpoints - you were using the same endpoint for both
-          const [followersResponse, followingResponse] = await Promise.all([
-            api.get(`/auth/followers`), // For followers
-            api.get(`/auth/following`), // For following - this should be different
-          ]);
+          // The profile carries the follower/following counts
+          const response = await api.get(`/auth/profile/${currentUser.id}`);
 
-          // Set the counts correctly from the responses
           setStats({
-            followers: followersResponse.data.length || 0,
-            following: followingResponse.data.length || 0,
+            followers: response.data.followersCount || 0,
+            following: response.data.followingCount || 0,
           });
         } catch (error) {
           console.error("Error fetching social stats:", error);
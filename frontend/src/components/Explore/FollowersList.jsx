@@ -2,11 +2,15 @@ import React, { useState, useEffect } from "react";
 import { Link, useNavigate } from "react-router-dom";
 import { motion } from "framer-motion";
 import api from "../../services/api";
+import { fetchCursorPage } from "../../services/cursorPage";
 import toast from "react-hot-toast";
+import LoadMoreButton from "./LoadMoreButton";
 
 const FollowersList = () => {
   const [followers, setFollowers] = useState([]);
   const [loading, setLoading] = useState(true);
+  const [nextCursor, setNextCursor] = useState(null);
+  const [loadingMore, setLoadingMore] = useState(false);
   const navigate = useNavigate();
 
   useEffect(() => {
@@ -16,12 +20,9 @@ const FollowersList = () => {
   const fetchFollowers = async () => {
     try {
       setLoading(true);
-      const response = await api.get("/auth/followers");
-      setFollowers(response.data);
-      // Debug to see the actual property name
-      if (response.data.length > 0) {
-        console.log("First follower data:", response.data[0]);
-      }
+      const page = await fetchCursorPage("/auth/followers");
+      setFollowers(page.items);
+      setNextCursor(page.nextCursor);
     } catch (error) {
       console.error("Error fetching followers:", error);
       toast.error("Failed to load followers");
@@ -30,6 +31,20 @@ const FollowersList = () => {
     }
   };
 
+  const loadMoreFollowers = async () => {
+    try {
+      setLoadingMore(true);
+      const page = await fetchCursorPage("/auth/followers", nextCursor);
+      setFollowers((current) => [...current, ...page.items]);
+      setNextCursor(page.nextCursor);
+    } catch (error) {
+      console.error("Error fetching more followers:", error);
+      toast.error("Failed to load more followers");
+    } finally {
+      setLoadingMore(false);
+    }
+  };
+
   const handleFollowToggle = async (userId, isFollowed) => {
     try {
       if (isFollowed) {
@@ -151,7 +166,7 @@ const FollowersList = () => {
                     key={uniqueKey}
                     initial={{ opacity: 0, y: 20 }}
                     animate={{ opacity: 1, y: 0 }}
-                    transition={{ duration: 0.3, delay: index * 0.1 }}
+                    transition={{ duration: 0.3, delay: Math.min(index, 10) * 0.1 }}
                     className="py-4 flex items-center justify-between"
                   >
                     <div className="flex items-center">
@@ -246,6 +261,9 @@ const FollowersList = () => {
               })}
             </div>
           )}
+          {nextCursor && (
+            <LoadMoreButton onClick={loadMoreFollowers} loading={loadingMore} />
+          )}
         </div>
       </motion.div>
     </div>
@@ -2,11 +2,15 @@ import React, { useState, useEffect } from "react";
 import { Link, useNavigate } from "react-router-dom";
 import { motion } from "framer-motion";
 import api from "../../services/api";
+import { fetchCursorPage } from "../../services/cursorPage";
 import toast from "react-hot-toast";
+import LoadMoreButton from "./LoadMoreButton";
 
 const FollowingList = () => {
   const [following, setFollowing] = useState([]);
   const [loading, setLoading] = useState(true);
+  const [nextCursor, setNextCursor] = useState(null);
+  const [loadingMore, setLoadingMore] = useState(false);
   const navigate = useNavigate();
 
   useEffect(() => {
@@ -16,8 +20,9 @@ const FollowingList = () => {
   const fetchFollowing = async () => {
     try {
       setLoading(true);
-      const response = await api.get("/auth/following");
-      setFollowing(response.data);
+      const page = await fetchCursorPage("/auth/following");
+      setFollowing(page.items);
+      setNextCursor(page.nextCursor);
     } catch (error) {
       console.error("Error fetching following:", error);
       toast.error("Failed to load following");
@@ -26,13 +31,27 @@ const FollowingList = () => {
     }
   };
 
+  const loadMoreFollowing = async () => {
+    try {
+      setLoadingMore(true);
+      const page = await fetchCursorPage("/auth/following", nextCursor);
+      setFollowing((current) => [...current, ...page.items]);
+      setNextCursor(page.nextCursor);
+    } catch (error) {
+      console.error("Error fetching more following:", error);
+      toast.error("Failed to load more following");
+    } finally {
+      setLoadingMore(false);
+    }
+  };
+
   const handleUnfollow = async (userId) => {
     try {
       await api.post(`/auth/unfollow/${userId}`);
       toast.success("Unfollowed successfully");
 
       // Remove unfollowed user from the list
-      setFollowing(following.filter((user) => user.id !== userId));
+      setFollowing((current) => current.filter((user) => user.id !== userId));
     } catch (error) {
       console.error("Error unfollowing user:", error);
       toast.error("Failed to unfollow");
@@ -150,7 +169,7 @@ const FollowingList = () => {
                   key={user.id || `following-${index}`}
                   initial={{ opacity: 0, y: 20 }}
                   animate={{ opacity: 1, y: 0 }}
-                  transition={{ duration: 0.3, delay: index * 0.1 }}
+                  transition={{ duration: 0.3, delay: Math.min(index, 10) * 0.1 }}
                   className="py-4 flex items-center justify-between"
                 >
                   <div className="flex items-center">
@@ -219,6 +238,9 @@ const FollowingList = () => {
               ))}
             </div>
           )}
+          {nextCursor && (
+            <LoadMoreButton onClick={loadMoreFollowing} loading={loadingMore} />
+          )}
         </div>
       </motion.div>
     </div>
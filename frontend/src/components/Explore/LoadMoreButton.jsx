@@ -0,0 +1,15 @@
+import React from "react";
+
+const LoadMoreButton = ({ onClick, loading }) => (
+  <div className="pt-4 text-center">
+    <button
+      onClick={onClick}
+      disabled={loading}
+      className="px-4 py-2 rounded-md text-sm font-medium bg-gray-200 dark:bg-gray-700 text-gray-800 dark:text-gray-200 hover:bg-gray-300 dark:hover:bg-gray-600 transition-all disabled:opacity-50"
+    >
+      {loading ? "Loading..." : "Load more"}
+    </button>
+  </div>
+);
+
+export default LoadMoreButton;
@@ -1,11 +1,15 @@
 import React, { useState, useEffect } from "react";
 import { Link, useNavigate } from "react-router-dom";
 import api from "../../services/api";
+import { fetchCursorPage } from "../../services/cursorPage";
 import toast from "react-hot-toast";
+import LoadMoreButton from "./LoadMoreButton";
 
 const PublicUserFollowers = ({ userId, onClose }) => {
   const [followers, setFollowers] = useState([]);
   const [loading, setLoading] = useState(true);
+  const [nextCursor, setNextCursor] = useState(null);
+  const [loadingMore, setLoadingMore] = useState(false);
   const navigate = useNavigate();
 
   useEffect(() => {
@@ -15,8 +19,9 @@ const PublicUserFollowers = ({ userId, onClose }) => {
   const fetchFollowers = async () => {
     try {
       setLoading(true);
-      const response = await api.get(`/auth/user/followers/${userId}`);
-      setFollowers(response.data);
+      const page = await fetchCursorPage(`/auth/user/followers/${userId}`);
+      setFollowers(page.items);
+      setNextCursor(page.nextCursor);
     } catch (error) {
       console.error("Error fetching followers:", error);
       toast.error("Failed to load followers");
@@ -25,6 +30,20 @@ const PublicUserFollowers = ({ userId, onClose }) => {
     }
   };
 
+  const loadMoreFollowers = async () => {
+    try {
+      setLoadingMore(true);
+      const page = await fetchCursorPage(`/auth/user/followers/${userId}`, nextCursor);
+      setFollowers((current) => [...current, ...page.items]);
+      setNextCursor(page.nextCursor);
+    } catch (error) {
+      console.error("Error fetching more followers:", error);
+      toast.error("Failed to load more followers");
+    } finally {
+      setLoadingMore(false);
+    }
+  };
+
   // Handle navigation to a user's profile
   const handleNavigateToProfile = (profileId) => {
     onClose(); // Close the modal first
@@ -219,6 +238,9 @@ const PublicUserFollowers = ({ userId, onClose }) => {
             })}
           </div>
         )}
+        {nextCursor && (
+          <LoadMoreButton onClick={loadMoreFollowers} loading={loadingMore} />
+        )}
       </div>
     </div>
   );
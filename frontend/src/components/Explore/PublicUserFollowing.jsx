@@ -1,11 +1,15 @@
 import React, { useState, useEffect } from "react";
 import { useNavigate } from "react-router-dom";
 import api from "../../services/api";
+import { fetchCursorPage } from "../../services/cursorPage";
 import toast from "react-hot-toast";
+import LoadMoreButton from "./LoadMoreButton";
 
 const PublicUserFollowing = ({ userId, onClose }) => {
   const [following, setFollowing] = useState([]);
   const [loading, setLoading] = useState(true);
+  const [nextCursor, setNextCursor] = useState(null);
+  const [loadingMore, setLoadingMore] = useState(false);
   const navigate = useNavigate();
 
   useEffect(() => {
@@ -15,9 +19,9 @@ const PublicUserFollowing = ({ userId, onClose }) => {
   const fetchFollowing = async () => {
     try {
       setLoading(true);
-      const response = await api.get(`/auth/user/following/${userId}`);
-      console.log("API Following Response:", response.data); // Debug log
-      setFollowing(response.data);
+      const page = await fetchCursorPage(`/auth/user/following/${userId}`);
+      setFollowing(page.items);
+      setNextCursor(page.nextCursor);
     } catch (error) {
       console.error("Error fetching following:", error);
       toast.error("Failed to load following");
@@ -26,6 +30,20 @@ const PublicUserFollowing = ({ userId, onClose }) => {
     }
   };
 
+  const loadMoreFollowing = async () => {
+    try {
+      setLoadingMore(true);
+      const page = await fetchCursorPage(`/auth/user/following/${userId}`, nextCursor);
+      setFollowing((current) => [...current, ...page.items]);
+      setNextCursor(page.nextCursor);
+    } catch (error) {
+      console.error("Error fetching more following:", error);
+      toast.error("Failed to load more following");
+    } finally {
+      setLoadingMore(false);
+    }
+  };
+
   // Handle navigation to a user's profile
   const handleNavigateToProfile = (profileId) => {
     onClose(); // Close the modal first
@@ -218,6 +236,9 @@ const PublicUserFollowing = ({ userId, onClose }) => {
             })}
           </div>
         )}
+        {nextCursor && (
+          <LoadMoreButton onClick={loadMoreFollowing} loading={loadingMore} />
+        )}
       </div>
     </div>
   );
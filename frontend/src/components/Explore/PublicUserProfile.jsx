@@ -17,10 +17,6 @@ const PublicUserProfile = () => {
 
   useEffect(() => {
     fetchUserProfile();
-    if (userId) {
-      fetchFollowerCount();
-      fetchFollowingCount();
-    }
   }, [userId]);
 
   const fetchUserProfile = async () => {
@@ -28,6 +24,9 @@ const PublicUserProfile = () => {
       setLoading(true);
       const response = await api.get(`/auth/profile/${userId}`);
       setProfile(response.data);
+      // Counts come with the profile; no need to download the lists
+      setFollowerCount(response.data.followersCount || 0);
+      setFollowingCount(response.data.followingCount || 0);
     } catch (error) {
       console.error("Error fetching user profile:", error);
       toast.error("Failed to load user profile");
@@ -42,26 +41,6 @@ const PublicUserProfile = () => {
     setShowFollowing(false);
   };
 
-  const fetchFollowerCount = async () => {
-    try {
-      const response = await api.get(`/auth/user/followers/${userId}`);
-      setFollowerCount(response.data.length);
-    } catch (error) {
-      console.error("Error fetching followers count:", error);
-      setFollowerCount(0);
-    }
-  };
-
-  const fetchFollowingCount = async () => {
-    try {
-      const response = await api.get(`/auth/user/following/${userId}`);
-      setFollowingCount(response.data.length);
-    } catch (error) {
-      console.error("Error fetching following count:", error);
-      setFollowingCount(0);
-    }
-  };
-
   const handleFollowToggle = async () => {
     if (!profile) return;
 
@@ -80,8 +59,8 @@ const PublicUserProfile = () => {
         followed: !profile.followed,
       });
 
-      // Refresh follower count after follow/unfollow action
-      fetchFollowerCount();
+      // Keep the follower count in step with the follow/unfollow action
+      setFollowerCount((count) => Math.max(0, count + (profile.followed ? -1 : 1)));
     } catch (error) {
       console.error("Error toggling follow status:", error);
       toast.error(profile.followed ? "Failed to unfollow" : "Failed to follow");
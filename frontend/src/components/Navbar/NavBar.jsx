@@ -3,6 +3,8 @@ import { Link, useNavigate, useLocation } from "react-router-dom";
 import { useMyContext } from "../../store/ContextApi";
 import { motion, AnimatePresence } from "framer-motion";
 import api from "../../services/api";
+import { fetchCursorPage } from "../../services/cursorPage";
+import LoadMoreButton from "../Explore/LoadMoreButton";
 import {
   IoMenu,
   IoClose,
@@ -18,13 +20,19 @@ import {
 } from "react-icons/io5";
 import toast from "react-hot-toast";
 
+// The badge is re-read this often while the tab is open, so notifications from others show up without a reload
+const UNREAD_COUNT_POLL_MS = 60000;
+
 const Navbar = () => {
   const [headerToggle, setHeaderToggle] = useState(false);
   const [scrolled, setScrolled] = useState(false);
   const [dropdownOpen, setDropdownOpen] = useState(false);
   const [notificationsOpen, setNotificationsOpen] = useState(false);
   const [notifications, setNotifications] = useState([]);
+  const [nextCursor, setNextCursor] = useState(null);
+  const [unreadCount, setUnreadCount] = useState(0);
   const [loading, setLoading] = useState(false);
+  const [loadingMore, setLoadingMore] = useState(false);
 
   const dropdownRef = useRef(null);
   const notificationsRef = useRef(null);
@@ -34,11 +42,21 @@ const Navbar = () => {
   const { token, setToken, setCurrentUser, isAdmin, setIsAdmin, currentUser } =
     useMyContext();
 
+  const fetchUnreadCount = async () => {
+    try {
+      const response = await api.get("auth/notifications/count");
+      setUnreadCount(response.data.count);
+    } catch (error) {
+      console.error("Error fetching unread notification count:", error);
+    }
+  };
+
   const fetchNotifications = async () => {
     try {
       setLoading(true);
-      const response = await api.get("auth/notifications");
-      setNotifications(response.data);
+      const page = await fetchCursorPage("auth/notifications");
+      setNotifications(page.items);
+      setNextCursor(page.nextCursor);
     } catch (error) {
       toast.error("Failed to load notifications");
       console.error("Error fetching notifications:", error);
@@ -47,12 +65,52 @@ const Navbar = () => {
     }
   };
 
+  const loadMoreNotifications = async () => {
+    try {
+      setLoadingMore(true);
+      const page = await fetchCursorPage("auth/notifications", nextCursor);
+      setNotifications((current) => [...current, ...page.items]);
+      setNextCursor(page.nextCursor);
+    } catch (error) {
+      toast.error("Failed to load more notifications");
+      console.error("Error fetching more notifications:", error);
+    } finally {
+      setLoadingMore(false);
+    }
+  };
+
+  // Shared by the dropdown and the mobile menu
+  const handleNotificationClick = async (id) => {
+    try {
+      await api.put(`auth/notifications/${id}/read`);
+      setNotifications((current) =>
+        current.map((notification) =>
+          notification.id === id ? { ...notification, isRead: true } : notification
+        )
+      );
+      fetchUnreadCount();
+    } catch (error) {
+      console.error("Error marking notification as read:", error);
+    }
+  };
+
   useEffect(() => {
-    if (token) {
-      fetchNotifications();
+    if (!token) {
+      return;
     }
+    fetchUnreadCount();
+    const interval = setInterval(fetchUnreadCount, UNREAD_COUNT_POLL_MS);
+    return () => clearInterval(interval);
   }, [token]);
 
+  // The first page is loaded when the dropdown or the mobile menu opens rather than on every page view
+  useEffect(() => {
+    if (token && (notificationsOpen || headerToggle)) {
+      fetchNotifications();
+      fetchUnreadCount();
+    }
+  }, [token, notificationsOpen, headerToggle]);
+
   // Handle scroll effect
   useEffect(() => {
     const handleScroll = () => {
@@ -220,14 +278,22 @@ const Navbar = () => {
 
   // Notifications dropdown component
   const NotificationsDropdown = () => {
-    const unreadCount = notifications.filter(
-      (notification) => !notification.isRead
-    ).length;
-
+    // Marks the loaded rows in place, so the pages already fetched stay open. Only notifications up to the
+    // newest one shown are marked; anything that arrived since stays unread.
     const handleMarkAllAsRead = async () => {
       try {
-        await api.put("auth/notifications/read-all");
-        fetchNotifications(); // Refresh notifications after marking as read
+        const upTo = notifications.length
+          ? Math.max(...notifications.map((notification) => notification.id))
+          : undefined;
+        await api.put("auth/notifications/read-all", null, { params: { upTo } });
+        setNotifications((current) =>
+          current.map((notification) =>
+            upTo !== undefined && notification.id <= upTo
+              ? { ...notification, isRead: true }
+              : notification
+          )
+        );
+        fetchUnreadCount();
         toast.success("All notifications marked as read");
       } catch (error) {
         toast.error("Failed to mark notifications as read");
@@ -235,15 +301,6 @@ const Navbar = () => {
       }
     };
 
-    const handleNotificationClick = async (id) => {
-      try {
-        await api.put(`auth/notifications/${id}/read`);
-        fetchNotifications(); // Refresh after marking individual notification as read
-      } catch (error) {
-        console.error("Error marking notification as read:", error);
-      }
-    };
-
     return (
       <div ref={notificationsRef} className="relative">
         <motion.button
@@ -331,6 +388,14 @@ const Navbar = () => {
                     No notifications yet
                   </div>
                 )}
+                {!loading && nextCursor && (
+                  <div className="pb-3">
+                    <LoadMoreButton
+                      onClick={loadMoreNotifications}
+                      loading={loadingMore}
+                    />
+                  </div>
+                )}
               </div>
             </motion.div>
           )}
@@ -530,9 +595,9 @@ const Navbar = () => {
                     <IoNotificationsOutline className="text-lg" />
                     Notifications
                   </h3>
-                  {notifications.filter((n) => !n.isRead).length > 0 && (
+                  {unreadCount > 0 && (
                     <span className="bg-red-500 text-white text-xs px-2 py-1 rounded-full">
-                      {notifications.filter((n) => !n.isRead).length}
+                      {unreadCount > 9 ? "9+" : unreadCount}
                     </span>
                   )}
                 </div>
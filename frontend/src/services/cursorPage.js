@@ -0,0 +1,12 @@
+import api from "./api";
+
+// Keyset-paginated listings return the cursor for the next page in this header (absent on the last page)
+const NEXT_CURSOR_HEADER = "x-next-cursor";
+
+export const fetchCursorPage = async (path, cursor) => {
+  const response = await api.get(path, { params: cursor ? { cursor } : {} });
+  return {
+    items: response.data,
+    nextCursor: response.headers[NEXT_CURSOR_HEADER] || null,
+  };
+};